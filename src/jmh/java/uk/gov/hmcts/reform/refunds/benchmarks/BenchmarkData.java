@@ -0,0 +1,93 @@
+package uk.gov.hmcts.reform.refunds.benchmarks;
+
+import uk.gov.hmcts.reform.refunds.dtos.responses.FeeDto;
+import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentDto;
+import uk.gov.hmcts.reform.refunds.model.ContactDetails;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+import uk.gov.hmcts.reform.refunds.model.RefundFees;
+import uk.gov.hmcts.reform.refunds.model.RefundStatus;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Refunds and payments shaped like production data: three fees per refund, each fee on the payment too.
+ */
+final class BenchmarkData {
+
+    static final String[] REASON_CODES = {"RR001", "RR002", "RR003", "RR004", "RR005"};
+
+    static final int FEES_PER_REFUND = 3;
+
+    private BenchmarkData() {
+    }
+
+    static List<Refund> refunds(int count) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Refund> refunds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<RefundFees> fees = new ArrayList<>(FEES_PER_REFUND);
+            for (int f = 0; f < FEES_PER_REFUND; f++) {
+                fees.add(RefundFees.refundFeesWith()
+                             .feeId(i * FEES_PER_REFUND + f)
+                             .code(feeCode(i, f))
+                             .version("1")
+                             .volume(1)
+                             .refundAmount(BigDecimal.valueOf(10))
+                             .build());
+            }
+            refunds.add(Refund.refundsWith()
+                            .id(i)
+                            .reference(String.format("RF-1111-2222-%04d-%04d", i / 10_000, i % 10_000))
+                            .paymentReference(paymentReference(i))
+                            .ccdCaseNumber(String.format("%016d", i))
+                            .reason(REASON_CODES[i % REASON_CODES.length])
+                            .amount(BigDecimal.valueOf(30))
+                            .refundStatus(RefundStatus.SENTFORAPPROVAL)
+                            .serviceType("Civil Money Claims")
+                            .refundInstructionType("SendRefund")
+                            .feeIds("1,2,3")
+                            .createdBy("1f2b7025-0f91-4737-92c6-b7a9baef14c6")
+                            .updatedBy("1f2b7025-0f91-4737-92c6-b7a9baef14c6")
+                            .dateCreated(now)
+                            .dateUpdated(now)
+                            .contactDetails(ContactDetails.contactDetailsWith()
+                                                .email("refund" + i + "@example.com")
+                                                .notificationType("EMAIL")
+                                                .build())
+                            .refundFees(fees)
+                            .build());
+        }
+        return refunds;
+    }
+
+    static PaymentDto payment(int index) {
+        List<FeeDto> fees = new ArrayList<>(FEES_PER_REFUND);
+        for (int f = 0; f < FEES_PER_REFUND; f++) {
+            fees.add(FeeDto.feeDtoWith()
+                         .id(index * FEES_PER_REFUND + f)
+                         .code(feeCode(index, f))
+                         .version("1")
+                         .memoLine("RECEIPT OF FEES - Civil money claim")
+                         .naturalAccountCode("4481102133")
+                         .jurisdiction1("civil")
+                         .jurisdiction2("county court")
+                         .build());
+        }
+        return PaymentDto.payment2DtoWith()
+            .paymentReference(paymentReference(index))
+            .amount(BigDecimal.valueOf(300))
+            .fees(fees)
+            .build();
+    }
+
+    static String paymentReference(int index) {
+        return String.format("RC-1111-2222-%04d-%04d", index / 10_000, index % 10_000);
+    }
+
+    private static String feeCode(int refundIndex, int feeIndex) {
+        return "FEE" + ((refundIndex * FEES_PER_REFUND + feeIndex) % 500);
+    }
+}
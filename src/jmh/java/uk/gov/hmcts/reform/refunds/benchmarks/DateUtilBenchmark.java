@@ -0,0 +1,41 @@
+package uk.gov.hmcts.reform.refunds.benchmarks;
+
+import org.joda.time.LocalDateTime;
+import org.joda.time.format.DateTimeFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.hmcts.reform.refunds.utils.DateUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing the start and end dates accepted by the Liberata search, in the first and last of the
+ * formats the ISO date time formatter tries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateUtilBenchmark {
+
+    @Param({"2024-03-01 10:15:30", "2024-03-01T10:15:30", "01-03-2024"})
+    private String dateTime;
+
+    private final DateUtil dateUtil = new DateUtil();
+
+    private final DateTimeFormatter formatter = dateUtil.getIsoDateTimeFormatter();
+
+    @Benchmark
+    public LocalDateTime parseWithSharedFormatter() {
+        return formatter.parseLocalDateTime(dateTime);
+    }
+
+    @Benchmark
+    public LocalDateTime parseWithNewFormatter() {
+        return dateUtil.getIsoDateTimeFormatter().parseLocalDateTime(dateTime);
+    }
+}
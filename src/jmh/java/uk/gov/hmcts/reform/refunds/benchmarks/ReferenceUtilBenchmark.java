@@ -0,0 +1,40 @@
+package uk.gov.hmcts.reform.refunds.benchmarks;
+
+import org.apache.commons.validator.routines.checkdigit.CheckDigitException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import uk.gov.hmcts.reform.refunds.utils.ReferenceUtil;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures refund reference throughput on one thread and with eight threads sharing a generator. Blocks come
+ * from an in-memory counter standing in for the database sequence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReferenceUtilBenchmark {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ReferenceUtil referenceUtil = new ReferenceUtil(
+        () -> sequence.getAndAdd(ReferenceUtil.BLOCK_SIZE) % 1_000_000_000_000L, 1);
+
+    @Benchmark
+    public String nextRefundReference() throws CheckDigitException {
+        return referenceUtil.getNext("RF");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String nextRefundReferenceContended() throws CheckDigitException {
+        return referenceUtil.getNext("RF");
+    }
+}
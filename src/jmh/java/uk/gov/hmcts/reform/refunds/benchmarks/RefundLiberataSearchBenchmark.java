@@ -0,0 +1,84 @@
+package uk.gov.hmcts.reform.refunds.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.hmcts.reform.refunds.dtos.responses.FeeDto;
+import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentDto;
+import uk.gov.hmcts.reform.refunds.dtos.responses.RefundLiberata;
+import uk.gov.hmcts.reform.refunds.mapper.RefundResponseMapper;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+import uk.gov.hmcts.reform.refunds.model.RefundFees;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures assembling the Liberata reconciliation response for a search window of approved refunds,
+ * from 1k to 50k refunds, with one payment per refund and a handful of distinct reason codes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RefundLiberataSearchBenchmark {
+
+    private static final String[] REASON_CODES = {"RR001", "RR002", "RR003", "RR004", "RR005"};
+
+    @Param({"1000", "10000", "50000"})
+    private int refundCount;
+
+    private final RefundResponseMapper refundResponseMapper = new RefundResponseMapper();
+
+    private List<Refund> refunds;
+
+    private List<PaymentDto> payments;
+
+    private Map<String, BigDecimal> refundedByPaymentReference;
+
+    @Setup
+    public void setUp() {
+        refunds = new ArrayList<>(refundCount);
+        payments = new ArrayList<>(refundCount);
+        refundedByPaymentReference = new HashMap<>();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < refundCount; i++) {
+            String paymentReference = String.format("RC-%016d", i);
+            String feeCode = "FEE" + (i % 500);
+            refunds.add(Refund.refundsWith()
+                            .reference("RF-" + i)
+                            .paymentReference(paymentReference)
+                            .reason(REASON_CODES[i % REASON_CODES.length])
+                            .amount(BigDecimal.TEN)
+                            .dateUpdated(now)
+                            .refundFees(List.of(RefundFees.refundFeesWith().code(feeCode).refundAmount(BigDecimal.TEN).build()))
+                            .build());
+            payments.add(PaymentDto.payment2DtoWith()
+                             .paymentReference(paymentReference)
+                             .amount(BigDecimal.valueOf(100))
+                             .fees(List.of(FeeDto.feeDtoWith().code(feeCode).naturalAccountCode("4481102133").build()))
+                             .build());
+            refundedByPaymentReference.put(paymentReference, BigDecimal.TEN);
+        }
+        // Payment API does not return results in refund order
+        Collections.reverse(payments);
+    }
+
+    @Benchmark
+    public List<RefundLiberata> hashIndexedJoin() {
+        Map<String, String> reasonNames = new HashMap<>();
+        Function<String, String> reasonNameResolver = code -> reasonNames.computeIfAbsent(code, c -> "Reason " + c);
+        return refundResponseMapper.getRefundLiberatas(refunds, payments, refundedByPaymentReference, reasonNameResolver);
+    }
+}
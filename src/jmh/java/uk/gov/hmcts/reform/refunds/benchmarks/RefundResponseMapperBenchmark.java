@@ -0,0 +1,83 @@
+package uk.gov.hmcts.reform.refunds.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentDto;
+import uk.gov.hmcts.reform.refunds.dtos.responses.RefundDto;
+import uk.gov.hmcts.reform.refunds.dtos.responses.RefundLiberata;
+import uk.gov.hmcts.reform.refunds.dtos.responses.UserIdentityDataDto;
+import uk.gov.hmcts.reform.refunds.mapper.RefundFeeMapper;
+import uk.gov.hmcts.reform.refunds.mapper.RefundResponseMapper;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures mapping a refund list page to {@link RefundDto}s and approved refunds to {@link RefundLiberata}s,
+ * the latter including the per-fee credit amounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RefundResponseMapperBenchmark {
+
+    @Param({"50", "500"})
+    private int refundCount;
+
+    private final RefundResponseMapper refundResponseMapper = new RefundResponseMapper();
+
+    private List<Refund> refunds;
+
+    private List<PaymentDto> payments;
+
+    private Map<String, BigDecimal> refundedByPaymentReference;
+
+    private UserIdentityDataDto user;
+
+    @Setup
+    public void setUp() {
+        refundResponseMapper.setRefundFeeMapper(new RefundFeeMapper());
+        refunds = BenchmarkData.refunds(refundCount);
+        payments = new ArrayList<>(refundCount);
+        refundedByPaymentReference = new HashMap<>();
+        for (int i = 0; i < refundCount; i++) {
+            payments.add(BenchmarkData.payment(i));
+            refundedByPaymentReference.put(BenchmarkData.paymentReference(i), BigDecimal.TEN);
+        }
+        user = UserIdentityDataDto.userIdentityDataWith()
+            .id("1f2b7025-0f91-4737-92c6-b7a9baef14c6")
+            .fullName("Case Worker")
+            .emailId("caseworker@example.com")
+            .build();
+    }
+
+    @Benchmark
+    public List<RefundDto> refundListDtos() {
+        List<RefundDto> refundDtos = new ArrayList<>(refunds.size());
+        for (Refund refund : refunds) {
+            refundDtos.add(refundResponseMapper.getRefundListDto(refund, user, refund.getReason() + "-Amended claim"));
+        }
+        return refundDtos;
+    }
+
+    @Benchmark
+    public List<RefundLiberata> refundLiberatas() {
+        List<RefundLiberata> refundLiberatas = new ArrayList<>(refunds.size());
+        for (int i = 0; i < refunds.size(); i++) {
+            refundLiberatas.add(refundResponseMapper.getRefundLibrata(
+                refunds.get(i), payments.get(i), refundedByPaymentReference, "Amended claim"));
+        }
+        return refundLiberatas;
+    }
+}
@@ -0,0 +1,55 @@
+package uk.gov.hmcts.reform.refunds.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.hmcts.reform.refunds.utils.RefundServiceRoleUtil;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures resolving service names from a caseworker's IDAM roles, which runs on every refund list request, and
+ * checking a caller may act on a refund's service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RefundServiceRoleUtilBenchmark {
+
+    private static final List<String> ROLES = List.of(
+        "caseworker",
+        "caseworker-cmc",
+        "caseworker-probate",
+        "caseworker-divorce",
+        "payments",
+        "payments-refund",
+        "payments-refund-approver",
+        "payments-refund-Civil-Money-Claims",
+        "payments-refund-approver-Civil-Money-Claims",
+        "payments-refund-Probate",
+        "payments-refund-approver-Probate",
+        "payments-refund-Divorce",
+        "payments-refund-Family-Public-Law",
+        "payments-refund-Immigration-and-Asylum-Appeals",
+        "payments-refund-approver-Immigration-and-Asylum-Appeals",
+        "citizen",
+        "pui-case-manager",
+        "pui-finance-manager"
+    );
+
+    private final RefundServiceRoleUtil refundServiceRoleUtil = new RefundServiceRoleUtil();
+
+    @Benchmark
+    public List<String> serviceNamesFromUserRoles() {
+        return refundServiceRoleUtil.getServiceNameFromUserRoles(ROLES);
+    }
+
+    @Benchmark
+    public boolean validateRefundRoleWithServiceName() {
+        return refundServiceRoleUtil.validateRefundRoleWithServiceName(ROLES, "Immigration and Asylum Appeals");
+    }
+}
@@ -0,0 +1,103 @@
+package uk.gov.hmcts.reform.refunds.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.hmcts.reform.refunds.dtos.responses.RefundDto;
+import uk.gov.hmcts.reform.refunds.dtos.responses.RefundLiberata;
+import uk.gov.hmcts.reform.refunds.dtos.responses.RefundLiberataResponse;
+import uk.gov.hmcts.reform.refunds.dtos.responses.RefundListDtoResponse;
+import uk.gov.hmcts.reform.refunds.dtos.responses.UserIdentityDataDto;
+import uk.gov.hmcts.reform.refunds.mapper.RefundFeeMapper;
+import uk.gov.hmcts.reform.refunds.mapper.RefundResponseMapper;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing the refund list and Liberata reconciliation responses to JSON. The list is sized like a
+ * default and a full page, the reconciliation response like a quiet and a busy day.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseSerialisationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @State(Scope.Benchmark)
+    public static class RefundList {
+
+        @Param({"50", "500"})
+        private int refundListSize;
+
+        private RefundListDtoResponse response;
+
+        @Setup
+        public void setUp() {
+            RefundResponseMapper refundResponseMapper = mapper();
+            UserIdentityDataDto user = UserIdentityDataDto.userIdentityDataWith()
+                .id("1f2b7025-0f91-4737-92c6-b7a9baef14c6")
+                .fullName("Case Worker")
+                .emailId("caseworker@example.com")
+                .build();
+            List<RefundDto> refundDtos = new ArrayList<>(refundListSize);
+            for (Refund refund : BenchmarkData.refunds(refundListSize)) {
+                refundDtos.add(refundResponseMapper.getRefundListDto(refund, user, refund.getReason() + "-Amended claim"));
+            }
+            response = RefundListDtoResponse.buildRefundListWith().refundList(refundDtos).build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Liberata {
+
+        @Param({"1000", "10000"})
+        private int liberataRefundCount;
+
+        private RefundLiberataResponse response;
+
+        @Setup
+        public void setUp() {
+            RefundResponseMapper refundResponseMapper = mapper();
+            List<Refund> refunds = BenchmarkData.refunds(liberataRefundCount);
+            List<RefundLiberata> refundLiberatas = new ArrayList<>(liberataRefundCount);
+            for (int i = 0; i < liberataRefundCount; i++) {
+                refundLiberatas.add(refundResponseMapper.getRefundLibrata(
+                    refunds.get(i),
+                    BenchmarkData.payment(i),
+                    Map.of(BenchmarkData.paymentReference(i), BigDecimal.TEN),
+                    "Amended claim"
+                ));
+            }
+            response = new RefundLiberataResponse(refundLiberatas);
+        }
+    }
+
+    @Benchmark
+    public byte[] refundList(RefundList refundList) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(refundList.response);
+    }
+
+    @Benchmark
+    public byte[] refundLiberata(Liberata liberata) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(liberata.response);
+    }
+
+    private static RefundResponseMapper mapper() {
+        RefundResponseMapper refundResponseMapper = new RefundResponseMapper();
+        refundResponseMapper.setRefundFeeMapper(new RefundFeeMapper());
+        return refundResponseMapper;
+    }
+}
@@ -0,0 +1,46 @@
+package uk.gov.hmcts.reform.refunds.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Customer references keyed by payment reference. A payment's customer reference never changes,
+ * so entries live for a long time and notifications for a payment already seen skip the payment
+ * group download. Payments with no customer reference are cached as an empty string. Concurrent
+ * lookups for the same payment share one load.
+ */
+@Component
+public class CustomerReferenceCache {
+
+    public static final String CACHE_NAME = "customerReferences";
+
+    private final Cache<String, String> customerReferences;
+
+    @Autowired
+    public CustomerReferenceCache(MeterRegistry meterRegistry,
+                                  @Value("${payments.api.customer-reference-cache.maximum-size:100000}") long maximumSize,
+                                  @Value("${payments.api.customer-reference-cache.time-to-live:30d}") Duration timeToLive) {
+        this.customerReferences = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, customerReferences, CACHE_NAME);
+    }
+
+    public String get(String paymentReference, Function<String, String> loader) {
+        return customerReferences.get(paymentReference, loader);
+    }
+
+    public long size() {
+        return customerReferences.estimatedSize();
+    }
+}
@@ -0,0 +1,65 @@
+package uk.gov.hmcts.reform.refunds.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * IAC case references keyed by CCD case number. A case's IAC reference never changes, so
+ * entries live for a long time and repeat reconciliation polls skip the IAC call entirely.
+ * Lookups for case numbers already being loaded join the in-flight load rather than
+ * starting another one; case numbers IAC has no reference for are not cached. Loads run on
+ * virtual threads so a slow IAC call does not hold a common pool thread; the executor is shut
+ * down with the context.
+ */
+@Component
+@SuppressWarnings({"PMD.DoNotUseThreads"})
+public class IacCaseReferenceCache {
+
+    public static final String CACHE_NAME = "iacCaseReferences";
+
+    private final AsyncCache<String, String> caseReferences;
+
+    private final ExecutorService loadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public IacCaseReferenceCache(MeterRegistry meterRegistry,
+                                 @Value("${iac.supplementary.case-reference-cache.maximum-size:100000}") long maximumSize,
+                                 @Value("${iac.supplementary.case-reference-cache.time-to-live:30d}") Duration timeToLive) {
+        this.caseReferences = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .executor(loadExecutor)
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, caseReferences.synchronous(), CACHE_NAME);
+    }
+
+    public CompletableFuture<Map<String, String>> getAll(Collection<String> ccdCaseNumbers,
+                                                         Function<Set<? extends String>, Map<String, String>> loader) {
+        return caseReferences.getAll(ccdCaseNumbers, loader);
+    }
+
+    public long size() {
+        return caseReferences.synchronous().estimatedSize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loadExecutor.shutdownNow();
+    }
+}
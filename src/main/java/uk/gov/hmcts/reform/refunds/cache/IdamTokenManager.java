@@ -0,0 +1,129 @@
+package uk.gov.hmcts.reform.refunds.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Holds an IDAM token and renews it shortly before it expires.
+ * Once a token enters the refresh window one caller renews it while the others keep
+ * using the still valid token; only when no valid token is held do callers wait on
+ * the in-flight refresh.
+ */
+public abstract class IdamTokenManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IdamTokenManager.class);
+
+    private final String account;
+
+    private final Supplier<IdamTokenResponse> tokenSource;
+
+    private final Duration refreshBeforeExpiry;
+
+    private final Duration defaultTimeToLive;
+
+    private final Clock clock;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private final Counter refreshCounter;
+
+    private final Counter refreshFailureCounter;
+
+    private volatile CachedToken cachedToken;
+
+    protected IdamTokenManager(String account, Supplier<IdamTokenResponse> tokenSource, MeterRegistry meterRegistry,
+                               Duration refreshBeforeExpiry, Duration defaultTimeToLive, Clock clock) {
+        this.account = account;
+        this.tokenSource = tokenSource;
+        this.refreshBeforeExpiry = refreshBeforeExpiry;
+        this.defaultTimeToLive = defaultTimeToLive;
+        this.clock = clock;
+        this.refreshCounter = Counter.builder("idam.service.token.refreshes")
+            .description("IDAM token refreshes")
+            .tag("account", account)
+            .register(meterRegistry);
+        this.refreshFailureCounter = Counter.builder("idam.service.token.refresh.failures")
+            .description("IDAM token refreshes that failed")
+            .tag("account", account)
+            .register(meterRegistry);
+    }
+
+    public String getAccessToken() {
+        return getToken().getAccessToken();
+    }
+
+    public IdamTokenResponse getToken() {
+        Instant now = clock.instant();
+        CachedToken token = cachedToken;
+        if (token != null && now.isBefore(token.refreshAt())) {
+            return token.response();
+        }
+        if (token != null && now.isBefore(token.expiresAt())) {
+            // Refresh window: only one caller renews, the rest keep the current token
+            if (refreshLock.tryLock()) {
+                try {
+                    return refresh(token).response();
+                } finally {
+                    refreshLock.unlock();
+                }
+            }
+            return token.response();
+        }
+        refreshLock.lock();
+        try {
+            token = cachedToken;
+            if (token != null && clock.instant().isBefore(token.refreshAt())) {
+                return token.response();
+            }
+            return refresh(token).response();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private CachedToken refresh(CachedToken staleToken) {
+        CachedToken latest = cachedToken;
+        if (latest != staleToken) {
+            return latest;
+        }
+        IdamTokenResponse response;
+        try {
+            response = tokenSource.get();
+        } catch (RuntimeException e) {
+            refreshFailureCounter.increment();
+            if (staleToken != null && clock.instant().isBefore(staleToken.expiresAt())) {
+                LOG.warn("{} token refresh failed, using current token until it expires", account, e);
+                return staleToken;
+            }
+            throw e;
+        }
+        refreshCounter.increment();
+
+        Instant issuedAt = clock.instant();
+        Duration timeToLive = getTimeToLive(response);
+        Duration refreshAfter = timeToLive.compareTo(refreshBeforeExpiry.multipliedBy(2)) > 0
+            ? timeToLive.minus(refreshBeforeExpiry) : timeToLive.dividedBy(2);
+        CachedToken token = new CachedToken(response, issuedAt.plus(refreshAfter), issuedAt.plus(timeToLive));
+        cachedToken = token;
+        LOG.info("{} token refreshed, valid for {}", account, timeToLive);
+        return token;
+    }
+
+    private Duration getTimeToLive(IdamTokenResponse response) {
+        long expiresIn = response == null ? 0 : NumberUtils.toLong(response.getExpiresIn(), 0);
+        return expiresIn > 0 ? Duration.ofSeconds(expiresIn) : defaultTimeToLive;
+    }
+
+    private record CachedToken(IdamTokenResponse response, Instant refreshAt, Instant expiresAt) {
+    }
+}
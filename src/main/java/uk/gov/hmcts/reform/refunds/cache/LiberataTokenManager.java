@@ -0,0 +1,33 @@
+package uk.gov.hmcts.reform.refunds.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.refunds.services.IdamService;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Holds the Liberata user's password-grant token, used to send the notifications queued in the outbox, and renews
+ * it shortly before it expires.
+ */
+@Component
+public class LiberataTokenManager extends IdamTokenManager {
+
+    @Autowired
+    public LiberataTokenManager(IdamService idamService, MeterRegistry meterRegistry,
+                                @Value("${liberataUser.username}") String username,
+                                @Value("${liberataUser.password}") String password,
+                                @Value("${liberataUser.token.refresh-before-expiry:60s}") Duration refreshBeforeExpiry,
+                                @Value("${liberataUser.token.default-time-to-live:5m}") Duration defaultTimeToLive) {
+        this(idamService, meterRegistry, username, password, refreshBeforeExpiry, defaultTimeToLive, Clock.systemUTC());
+    }
+
+    LiberataTokenManager(IdamService idamService, MeterRegistry meterRegistry, String username, String password,
+                         Duration refreshBeforeExpiry, Duration defaultTimeToLive, Clock clock) {
+        super("liberata", () -> idamService.getSecurityTokens(username, password), meterRegistry, refreshBeforeExpiry,
+              defaultTimeToLive, clock);
+    }
+}
@@ -0,0 +1,66 @@
+package uk.gov.hmcts.reform.refunds.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentGroupResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Payment groups keyed by payment reference, kept for a few minutes so approving a refund, the Liberata callback
+ * and notification resends share one Payment API call. Concurrent lookups for the same payment wait on a single
+ * load, which runs on the calling thread. Failed loads are not cached. Entries must be invalidated whenever this
+ * service changes the payment in Payment API.
+ */
+@Component
+public class PaymentGroupCache {
+
+    public static final String CACHE_NAME = "paymentGroups";
+
+    private final AsyncCache<String, PaymentGroupResponse> paymentGroups;
+
+    @Autowired
+    public PaymentGroupCache(MeterRegistry meterRegistry,
+                             @Value("${payments.api.payment-group-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${payments.api.payment-group-cache.time-to-live:5m}") Duration timeToLive) {
+        this.paymentGroups = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, paymentGroups.synchronous(), CACHE_NAME);
+    }
+
+    public PaymentGroupResponse get(String paymentReference, Function<String, PaymentGroupResponse> loader) {
+        CompletableFuture<PaymentGroupResponse> load = new CompletableFuture<>();
+        CompletableFuture<PaymentGroupResponse> paymentGroup = paymentGroups.get(paymentReference, (reference, executor) -> load);
+        if (paymentGroup == load) {
+            try {
+                load.complete(loader.apply(paymentReference));
+            } catch (RuntimeException e) {
+                load.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return paymentGroup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidate(String paymentReference) {
+        paymentGroups.synchronous().invalidate(paymentReference);
+    }
+}
@@ -0,0 +1,31 @@
+package uk.gov.hmcts.reform.refunds.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.refunds.services.IdamService;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Holds the refunds service-account token and renews it shortly before it expires.
+ */
+@Component
+public class ServiceAccountTokenManager extends IdamTokenManager {
+
+    @Autowired
+    public ServiceAccountTokenManager(IdamService idamService, MeterRegistry meterRegistry,
+                                      @Value("${refunds.serviceAccount.token.refresh-before-expiry:60s}")
+                                      Duration refreshBeforeExpiry,
+                                      @Value("${refunds.serviceAccount.token.default-time-to-live:5m}")
+                                      Duration defaultTimeToLive) {
+        this(idamService, meterRegistry, refreshBeforeExpiry, defaultTimeToLive, Clock.systemUTC());
+    }
+
+    ServiceAccountTokenManager(IdamService idamService, MeterRegistry meterRegistry, Duration refreshBeforeExpiry,
+                               Duration defaultTimeToLive, Clock clock) {
+        super("service-account", idamService::getSecurityTokens, meterRegistry, refreshBeforeExpiry, defaultTimeToLive, clock);
+    }
+}
@@ -0,0 +1,122 @@
+package uk.gov.hmcts.reform.refunds.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import uk.gov.hmcts.reform.refunds.dtos.responses.UserIdentityDataDto;
+import uk.gov.hmcts.reform.refunds.services.IdamService;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * IDAM users keyed by UID, shared by every refund list request.
+ * Entries are seeded from the refund role search on context start and from any
+ * bulk lookup made on a miss; they are reloaded from IDAM in the background once
+ * older than the refresh interval and dropped after the time to live.
+ * UIDs that IDAM does not know are remembered separately for a shorter time,
+ * so repeated views of the same refunds do not look them up again.
+ */
+@Component
+public class UserDirectory {
+
+    public static final String CACHE_NAME = "idamUserDirectory";
+
+    public static final String NOT_FOUND_CACHE_NAME = "idamUsersNotFound";
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserDirectory.class);
+
+    private final IdamService idamService;
+
+    private final ServiceAccountTokenManager serviceAccountTokenManager;
+
+    private final LoadingCache<String, UserIdentityDataDto> users;
+
+    private final Cache<String, Boolean> usersNotFound;
+
+    @Autowired
+    public UserDirectory(IdamService idamService, ServiceAccountTokenManager serviceAccountTokenManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${user.directory.maximum-size:10000}") long maximumSize,
+                         @Value("${user.directory.time-to-live:12h}") Duration timeToLive,
+                         @Value("${user.directory.refresh-after:1h}") Duration refreshAfter,
+                         @Value("${user.directory.not-found-time-to-live:10m}") Duration notFoundTimeToLive) {
+        this.idamService = idamService;
+        this.serviceAccountTokenManager = serviceAccountTokenManager;
+        this.users = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .refreshAfterWrite(refreshAfter)
+            .recordStats()
+            .build(new IdamUserLoader());
+        CaffeineCacheMetrics.monitor(meterRegistry, users, CACHE_NAME);
+        this.usersNotFound = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(notFoundTimeToLive)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersNotFound, NOT_FOUND_CACHE_NAME);
+    }
+
+    public Map<String, UserIdentityDataDto> getAllPresent(Collection<String> uids) {
+        return users.getAllPresent(uids.stream().filter(Objects::nonNull).collect(Collectors.toSet()));
+    }
+
+    public void putAll(Collection<UserIdentityDataDto> userIdentities) {
+        for (UserIdentityDataDto userIdentity : userIdentities) {
+            if (userIdentity.getId() != null) {
+                users.put(userIdentity.getId(), userIdentity);
+                usersNotFound.invalidate(userIdentity.getId());
+            }
+        }
+        LOG.info("User directory holds {} users", users.estimatedSize());
+    }
+
+    public boolean isNotFound(String uid) {
+        return usersNotFound.getIfPresent(uid) != null;
+    }
+
+    public void putNotFound(Collection<String> uids) {
+        for (String uid : uids) {
+            usersNotFound.put(uid, Boolean.TRUE);
+        }
+    }
+
+    public long size() {
+        return users.estimatedSize();
+    }
+
+    private MultiValueMap<String, String> getAuthenticationHeaders() {
+        MultiValueMap<String, String> inputHeaders = new LinkedMultiValueMap<>();
+        inputHeaders.add("Authorization", serviceAccountTokenManager.getAccessToken());
+        return inputHeaders;
+    }
+
+    private class IdamUserLoader implements CacheLoader<String, UserIdentityDataDto> {
+
+        @Override
+        public UserIdentityDataDto load(String uid) {
+            return loadAll(Set.of(uid)).get(uid);
+        }
+
+        @Override
+        public Map<String, UserIdentityDataDto> loadAll(Set<? extends String> uids) {
+            return idamService.getUserIdentityDataForUids(getAuthenticationHeaders(), List.copyOf(uids));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package uk.gov.hmcts.reform.refunds.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.hmcts.reform.refunds.config.security.idam.UserInfoCacheExpiry;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    public static final String USER_INFO_CACHE = "userInfoCache";
+
+    @Value("${idam.user-info-cache.maximum-size:10000}")
+    private long userInfoCacheMaximumSize;
+
+    @Value("${idam.user-info-cache.maximum-time-to-live:30m}")
+    private Duration userInfoCacheMaximumTimeToLive;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(USER_INFO_CACHE, Caffeine.newBuilder()
+            .maximumSize(userInfoCacheMaximumSize)
+            .expireAfter(new UserInfoCacheExpiry(userInfoCacheMaximumTimeToLive))
+            .recordStats()
+            .build());
+        return cacheManager;
+    }
+}
@@ -8,57 +8,41 @@ import org.springframework.context.event.ContextStartedEvent;
 import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
+import uk.gov.hmcts.reform.refunds.cache.ServiceAccountTokenManager;
+import uk.gov.hmcts.reform.refunds.cache.UserDirectory;
 import uk.gov.hmcts.reform.refunds.dtos.responses.UserIdentityDataDto;
 import uk.gov.hmcts.reform.refunds.services.IdamService;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class ContextStartListener implements ApplicationListener<ContextStartedEvent> {
-    private static Map<String, List<UserIdentityDataDto>> userMap;
     private static final Logger LOG = LoggerFactory.getLogger(ContextStartListener.class);
 
 
     @Autowired
     private IdamService idamService;
 
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private ServiceAccountTokenManager serviceAccountTokenManager;
+
     @Override
     public void onApplicationEvent(ContextStartedEvent event) {
         LOG.info("Context Start Event received.");
-        userMap = new ConcurrentHashMap<>();
         List<UserIdentityDataDto> userIdentityDataDtoList = idamService.getUsersForRoles(getAuthenticationHeaders(),
                 Arrays.asList("payments-refund","payments-refund-approver"));
-        userMap.put("payments-refund",userIdentityDataDtoList);
-
-    }
-
-    public Map<String, List<UserIdentityDataDto>> getUserMap() {
-        return userMap;
-    }
+        userDirectory.putAll(userIdentityDataDtoList);
 
-    public void addUserToMap(String userGroup, UserIdentityDataDto userIdentityDataDto) {
-        List<UserIdentityDataDto> userIdentityDataDtoList = userMap.get(userGroup);
-        if (null == userIdentityDataDtoList) {
-            userIdentityDataDtoList = new ArrayList<>();
-        }
-        userIdentityDataDtoList.add(userIdentityDataDto);
-        userMap.put("payments-refund",userIdentityDataDtoList);
     }
 
     private MultiValueMap<String, String>  getAuthenticationHeaders() {
         MultiValueMap<String, String> inputHeaders = new LinkedMultiValueMap<>();
-        inputHeaders.add("Authorization", getAccessToken());
+        inputHeaders.add("Authorization", serviceAccountTokenManager.getAccessToken());
         return inputHeaders;
     }
 
-    private String getAccessToken() {
-        IdamTokenResponse idamTokenResponse = idamService.getSecurityTokens();
-        return idamTokenResponse.getAccessToken();
-    }
-
 }
@@ -1,15 +1,77 @@
 package uk.gov.hmcts.reform.refunds.config;
 
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import uk.gov.hmcts.reform.refunds.config.resilience.ResilientRequestInterceptor;
+import uk.gov.hmcts.reform.refunds.exceptions.GatewayTimeoutException;
+import uk.gov.hmcts.reform.refunds.exceptions.PaymentServerException;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Builds one pooled HTTP client per downstream, so a slow downstream can only exhaust its own pool.
+ *
+ * <p>Each setting is read from {@code http-clients.<downstream>.<setting>}, falling back to
+ * {@code http-clients.defaults.<setting>}. Connections are kept alive for the shorter of the server's keep-alive
+ * and {@code keep-alive}, and connections idle for longer than {@code idle-eviction} are closed in the background.
+ * Leased, pending and available connection counts are published per pool, tagged with the downstream name.
+ *
+ * <p>Each downstream also gets its own circuit breaker and bulkhead, configured under
+ * {@code http-clients.<downstream>.circuit-breaker} and {@code http-clients.<downstream>.bulkhead}, so a failing
+ * downstream fails fast instead of holding request threads. The bulkhead never admits more calls than the pool has
+ * connections per route, so a permitted call does not then queue for a connection. Rejected payment calls surface as
+ * {@link PaymentServerException} and the rest as {@link GatewayTimeoutException}, as when the downstream is down.
+ *
+ * <p>The pooled clients, and with them their connection managers and eviction threads, are closed on shutdown.
+ */
 @Configuration
 public class RestTemplateConfiguration {
 
+    static final String SETTINGS_PREFIX = "http-clients.";
+
+    private final Environment environment;
+
+    private final MeterRegistry meterRegistry;
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+
+    private final List<org.apache.hc.client5.http.impl.classic.CloseableHttpClient> pooledHttpClients = new ArrayList<>();
+
+    public RestTemplateConfiguration(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+    }
+
     @Bean(name = {"paymentsHttpClient", "serviceTokenParserHttpClient", "userTokenParserHttpClient"})
     public CloseableHttpClient paymentsHttpClient() {
         return HttpClients.custom()
@@ -19,21 +81,95 @@ public class RestTemplateConfiguration {
 
     @Bean("restTemplateIdam")
     public RestTemplate restTemplateIdam() {
-        return  new RestTemplate(new HttpComponentsClientHttpRequestFactory());
+        return pooledRestTemplate("idam", unavailable("IDAM"));
     }
 
     @Bean("restTemplatePayment")
     public RestTemplate restTemplatePayment() {
-        return new RestTemplate(new HttpComponentsClientHttpRequestFactory());
+        return pooledRestTemplate("payment", e -> new PaymentServerException("Payment server unavailable. Please try again.", e));
     }
 
     @Bean("restTemplateNotify")
     public RestTemplate restTemplateNotify() {
-        return new RestTemplate(new HttpComponentsClientHttpRequestFactory());
+        return pooledRestTemplate("notify", unavailable("Notification service"));
     }
 
     @Bean("restTemplateIacSupplementaryInfo")
     public RestTemplate restTemplateIacSupplementaryInfo() {
-        return new RestTemplate(new HttpComponentsClientHttpRequestFactory());
+        return pooledRestTemplate("iac", unavailable("IAC supplementary info service"));
+    }
+
+    @PreDestroy
+    public void closePooledHttpClients() {
+        pooledHttpClients.forEach(httpClient -> httpClient.close(CloseMode.GRACEFUL));
+        pooledHttpClients.clear();
+    }
+
+    RestTemplate pooledRestTemplate(String downstream, Function<Exception, RuntimeException> fallback) {
+        int maxPerRoute = setting(downstream, "max-per-route", Integer.class, 20);
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(setting(downstream, "max-total", Integer.class, 50))
+            .setMaxConnPerRoute(maxPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                            .setConnectTimeout(timeout(downstream, "connect-timeout", Duration.ofSeconds(5)))
+                                            .setSocketTimeout(timeout(downstream, "socket-timeout", Duration.ofSeconds(30)))
+                                            .build())
+            .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, downstream).bindTo(meterRegistry);
+
+        TimeValue keepAlive = TimeValue.of(setting(downstream, "keep-alive", Duration.class, Duration.ofSeconds(30)));
+        org.apache.hc.client5.http.impl.classic.CloseableHttpClient httpClient =
+            org.apache.hc.client5.http.impl.classic.HttpClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                                             .setConnectionRequestTimeout(timeout(downstream, "pool-wait-timeout", Duration.ofSeconds(5)))
+                                             .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue offered = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return TimeValue.isPositive(offered) && offered.compareTo(keepAlive) < 0 ? offered : keepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(setting(downstream, "idle-eviction", Duration.class, Duration.ofMinutes(1))))
+                .build();
+        pooledHttpClients.add(httpClient);
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        restTemplate.getInterceptors().add(resilientRequestInterceptor(downstream, maxPerRoute, fallback));
+        return restTemplate;
+    }
+
+    private ResilientRequestInterceptor resilientRequestInterceptor(String downstream, int maxPerRoute,
+                                                                    Function<Exception, RuntimeException> fallback) {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+            .slidingWindowSize(setting(downstream, "circuit-breaker.sliding-window-size", Integer.class, 50))
+            .minimumNumberOfCalls(setting(downstream, "circuit-breaker.minimum-calls", Integer.class, 20))
+            .failureRateThreshold(setting(downstream, "circuit-breaker.failure-rate-threshold", Float.class, 50f))
+            .slowCallDurationThreshold(setting(downstream, "circuit-breaker.slow-call-duration", Duration.class, Duration.ofSeconds(10)))
+            .slowCallRateThreshold(setting(downstream, "circuit-breaker.slow-call-rate-threshold", Float.class, 80f))
+            .waitDurationInOpenState(setting(downstream, "circuit-breaker.wait-in-open-state", Duration.class, Duration.ofSeconds(30)))
+            .permittedNumberOfCallsInHalfOpenState(setting(downstream, "circuit-breaker.half-open-calls", Integer.class, 5))
+            .recordResult(ResilientRequestInterceptor::isServerError)
+            .ignoreExceptions(BulkheadFullException.class)
+            .build();
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+            .maxConcurrentCalls(Math.min(setting(downstream, "bulkhead.max-concurrent-calls", Integer.class, maxPerRoute), maxPerRoute))
+            .maxWaitDuration(setting(downstream, "bulkhead.max-wait", Duration.class, Duration.ofMillis(100)))
+            .build();
+        return new ResilientRequestInterceptor(circuitBreakerRegistry.circuitBreaker(downstream, circuitBreakerConfig),
+                                               bulkheadRegistry.bulkhead(downstream, bulkheadConfig),
+                                               meterRegistry, fallback);
+    }
+
+    private static Function<Exception, RuntimeException> unavailable(String downstream) {
+        return e -> new GatewayTimeoutException(downstream + " is unavailable. Please try again later.");
+    }
+
+    private Timeout timeout(String downstream, String name, Duration defaultValue) {
+        return Timeout.of(setting(downstream, name, Duration.class, defaultValue));
+    }
+
+    private <T> T setting(String downstream, String name, Class<T> type, T defaultValue) {
+        T fallback = environment.getProperty(SETTINGS_PREFIX + "defaults." + name, type, defaultValue);
+        return environment.getProperty(SETTINGS_PREFIX + downstream + "." + name, type, fallback);
     }
 }
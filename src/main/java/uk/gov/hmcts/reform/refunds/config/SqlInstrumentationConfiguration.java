@@ -0,0 +1,57 @@
+package uk.gov.hmcts.reform.refunds.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.hmcts.reform.refunds.config.sql.SqlBudgetFilter;
+import uk.gov.hmcts.reform.refunds.config.sql.SqlStatementRecorder;
+
+import java.util.Map;
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(value = "refund.sql-budget.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInstrumentationConfiguration {
+
+    @Value("${refund.sql-budget.default:50}")
+    private int defaultBudget;
+
+    // Keyed by HTTP method and request mapping pattern, e.g. {'GET /refund': 10}
+    @Value("#{${refund.sql-budget.endpoints:{:}}}")
+    private Map<String, Integer> endpointBudgets;
+
+    // Also the task decorator of the application task executor, which runs async requests such as the streamed report
+    @Bean
+    public SqlStatementRecorder sqlStatementRecorder() {
+        return new SqlStatementRecorder();
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlStatementRecordingDataSourcePostProcessor(ObjectProvider<SqlStatementRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    SqlStatementRecorder sqlStatementRecorder = recorder.getObject();
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(sqlStatementRecorder)
+                        .methodListener(sqlStatementRecorder)
+                        .proxyResultSet()
+                        .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlBudgetFilter sqlBudgetFilter(SqlStatementRecorder sqlStatementRecorder, MeterRegistry meterRegistry) {
+        return new SqlBudgetFilter(sqlStatementRecorder, meterRegistry, defaultBudget, endpointBudgets);
+    }
+}
@@ -0,0 +1,195 @@
+package uk.gov.hmcts.reform.refunds.config.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Function;
+
+/**
+ * Guards every call to one downstream with its circuit breaker and bulkhead.
+ *
+ * <p>The circuit breaker is checked first, so an open circuit fails immediately without waiting for a bulkhead
+ * permit. Connection errors, timeouts and 5xx responses count as failures; 4xx responses are the caller's problem
+ * and count as successes. A rejected call never reaches the downstream. Instead the fallback turns the rejection into
+ * the exception callers already handle for that downstream being unavailable, and it is counted in
+ * {@value #REJECTED_CALLS_COUNTER} tagged with the downstream and the reason.
+ *
+ * <p>A permitted call holds its bulkhead permit until the response is closed, and its duration runs until then too,
+ * so a downstream that answers quickly but streams its body slowly is still limited and recorded as slow. An error
+ * reading the body counts as a failure.
+ */
+public class ResilientRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String REJECTED_CALLS_COUNTER = "refunds.downstream.rejected";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResilientRequestInterceptor.class);
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Bulkhead bulkhead;
+
+    private final Function<Exception, RuntimeException> fallback;
+
+    private final Counter circuitOpenRejections;
+
+    private final Counter bulkheadFullRejections;
+
+    public ResilientRequestInterceptor(CircuitBreaker circuitBreaker, Bulkhead bulkhead, MeterRegistry meterRegistry,
+                                       Function<Exception, RuntimeException> fallback) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.fallback = fallback;
+        this.circuitOpenRejections = rejectionCounter(meterRegistry, circuitBreaker.getName(), "circuit-open");
+        this.bulkheadFullRejections = rejectionCounter(meterRegistry, circuitBreaker.getName(), "bulkhead-full");
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException {
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (CallNotPermittedException e) {
+            circuitOpenRejections.increment();
+            LOG.warn("Call to {} rejected, circuit breaker is {}", circuitBreaker.getName(), circuitBreaker.getState());
+            throw fallback.apply(e);
+        }
+        try {
+            bulkhead.acquirePermission();
+        } catch (BulkheadFullException e) {
+            circuitBreaker.releasePermission();
+            bulkheadFullRejections.increment();
+            LOG.warn("Call to {} rejected, {} calls already in flight", circuitBreaker.getName(),
+                     bulkhead.getBulkheadConfig().getMaxConcurrentCalls());
+            throw fallback.apply(e);
+        }
+
+        long start = circuitBreaker.getCurrentTimestamp();
+        try {
+            return new GuardedResponse(execution.execute(request, body), start);
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e);
+            bulkhead.onComplete();
+            throw e;
+        }
+    }
+
+    /**
+     * Result predicate for the circuit breaker, treating 5xx responses as failures.
+     */
+    public static boolean isServerError(Object result) {
+        if (result instanceof ClientHttpResponse response) {
+            try {
+                return response.getStatusCode().is5xxServerError();
+            } catch (IOException e) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Response that records the call with the circuit breaker and releases the bulkhead permit once it is closed.
+     */
+    private final class GuardedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+
+        private final long start;
+
+        private InputStream body;
+
+        private Exception bodyError;
+
+        private boolean closed;
+
+        private GuardedResponse(ClientHttpResponse response, long start) {
+            this.response = response;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(response.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        try {
+                            return super.read();
+                        } catch (IOException e) {
+                            bodyError = e;
+                            throw e;
+                        }
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        try {
+                            return super.read(buffer, offset, length);
+                        } catch (IOException e) {
+                            bodyError = e;
+                            throw e;
+                        }
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                response.close();
+            } finally {
+                long duration = circuitBreaker.getCurrentTimestamp() - start;
+                if (bodyError == null) {
+                    circuitBreaker.onResult(duration, circuitBreaker.getTimestampUnit(), response);
+                } else {
+                    circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(), bodyError);
+                }
+                bulkhead.onComplete();
+            }
+        }
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String downstream, String reason) {
+        return Counter.builder(REJECTED_CALLS_COUNTER)
+            .description("Calls to a downstream rejected by its circuit breaker or bulkhead")
+            .tag("downstream", downstream)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+}
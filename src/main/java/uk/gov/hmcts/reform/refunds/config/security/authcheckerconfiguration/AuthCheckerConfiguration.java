@@ -24,6 +24,8 @@ import java.util.stream.Stream;
 @Lazy
 public class AuthCheckerConfiguration {
 
+    private static final Pattern USER_ID_PATTERN = Pattern.compile("^/users/([^/]+)/.+$");
+
     @Bean
     public AuthTokenGenerator authTokenGenerator(
         @Value("${idam.s2s-auth.totp_secret}") final String secret,
@@ -41,8 +43,7 @@ public class AuthCheckerConfiguration {
     @Bean
     public Function<HttpServletRequest, Optional<String>> userIdExtractor() {
         return (request) -> {
-            Pattern pattern = Pattern.compile("^/users/([^/]+)/.+$");
-            Matcher matcher = pattern.matcher(request.getRequestURI());
+            Matcher matcher = USER_ID_PATTERN.matcher(request.getRequestURI());
             boolean matched = matcher.find();
             if (matched) {
                 return Optional.of(matcher.group(1));
@@ -9,6 +9,7 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.idam.client.models.UserInfo;
 import uk.gov.hmcts.reform.refunds.config.security.idam.IdamRepository;
+import uk.gov.hmcts.reform.refunds.config.security.utils.RequestUserContext;
 
 import java.util.Collection;
 import java.util.List;
@@ -24,9 +25,12 @@ public class RefundsJwtGrantedAuthoritiesConverter implements Converter<Jwt, Col
 
     private final IdamRepository idamRepository;
 
+    private final RequestUserContext requestUserContext;
+
     @Autowired
-    public RefundsJwtGrantedAuthoritiesConverter(IdamRepository idamRepository) {
+    public RefundsJwtGrantedAuthoritiesConverter(IdamRepository idamRepository, RequestUserContext requestUserContext) {
         this.idamRepository = idamRepository;
+        this.requestUserContext = requestUserContext;
     }
 
 
@@ -35,6 +39,7 @@ public class RefundsJwtGrantedAuthoritiesConverter implements Converter<Jwt, Col
     public Collection<GrantedAuthority> convert(Jwt jwt) {
         if (jwt.hasClaim(TOKEN_NAME) && jwt.getClaim(TOKEN_NAME).equals(ACCESS_TOKEN)) {
             UserInfo userInfo = idamRepository.getUserInfo(jwt.getTokenValue());
+            requestUserContext.publish(jwt.getTokenValue(), userInfo);
             return extractAuthorityFromClaims(userInfo.getRoles());
         }
         return List.of();
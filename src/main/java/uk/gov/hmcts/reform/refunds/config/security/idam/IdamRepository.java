@@ -6,6 +6,8 @@ import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.idam.client.IdamClient;
 import uk.gov.hmcts.reform.idam.client.models.UserInfo;
 
+import static uk.gov.hmcts.reform.refunds.config.CacheConfiguration.USER_INFO_CACHE;
+
 @Component
 public class IdamRepository {
 
@@ -16,7 +18,8 @@ public class IdamRepository {
         this.idamClient = idamClient;
     }
 
-    @Cacheable("userInfoCache")
+    @Cacheable(cacheNames = USER_INFO_CACHE,
+        key = "T(uk.gov.hmcts.reform.refunds.config.security.idam.UserInfoCacheKey).of(#jwtToken)")
     public UserInfo getUserInfo(String jwtToken) {
         return idamClient.getUserInfo("Bearer " + jwtToken);
     }
@@ -0,0 +1,52 @@
+package uk.gov.hmcts.reform.refunds.config.security.idam;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Expires user info entries at the earlier of the bearer token's {@code exp} and the
+ * configured maximum time to live.
+ */
+public class UserInfoCacheExpiry implements Expiry<Object, Object> {
+
+    private final Duration maximumTimeToLive;
+
+    private final Clock clock;
+
+    public UserInfoCacheExpiry(Duration maximumTimeToLive) {
+        this(maximumTimeToLive, Clock.systemUTC());
+    }
+
+    UserInfoCacheExpiry(Duration maximumTimeToLive, Clock clock) {
+        this.maximumTimeToLive = maximumTimeToLive;
+        this.clock = clock;
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        Duration timeToLive = maximumTimeToLive;
+        if (key instanceof UserInfoCacheKey userInfoCacheKey && userInfoCacheKey.expiresAt() != null) {
+            Duration untilTokenExpiry = Duration.between(Instant.now(clock), userInfoCacheKey.expiresAt());
+            if (untilTokenExpiry.isNegative()) {
+                return 0;
+            }
+            if (untilTokenExpiry.compareTo(timeToLive) < 0) {
+                timeToLive = untilTokenExpiry;
+            }
+        }
+        return timeToLive.toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
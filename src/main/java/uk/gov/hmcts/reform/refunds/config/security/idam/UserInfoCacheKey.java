@@ -0,0 +1,41 @@
+package uk.gov.hmcts.reform.refunds.config.security.idam;
+
+import com.nimbusds.jwt.JWTParser;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+
+/**
+ * Cache key for IDAM user info. Holds a SHA-256 digest of the bearer token rather than
+ * the token itself, together with the token's {@code exp} so the cache can expire the
+ * entry no later than the token.
+ */
+public record UserInfoCacheKey(String tokenHash, Instant expiresAt) {
+
+    public static UserInfoCacheKey of(String jwtToken) {
+        return new UserInfoCacheKey(sha256(jwtToken), getExpiry(jwtToken));
+    }
+
+    private static String sha256(String jwtToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(jwtToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Instant getExpiry(String jwtToken) {
+        try {
+            Date expirationTime = JWTParser.parse(jwtToken).getJWTClaimsSet().getExpirationTime();
+            return expirationTime == null ? null : expirationTime.toInstant();
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package uk.gov.hmcts.reform.refunds.config.security.utils;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import uk.gov.hmcts.reform.idam.client.models.UserInfo;
+
+import java.util.Optional;
+
+/**
+ * Holds the IDAM user resolved by the security chain for the current request so that the
+ * filters, controllers and services can read the caller's uid and roles without calling
+ * IDAM again. Outside of a request, or for a different bearer token, nothing is returned
+ * and callers fall back to IDAM.
+ */
+@Component
+public class RequestUserContext {
+
+    private static final String USER_ATTRIBUTE = RequestUserContext.class.getName() + ".USER";
+
+    public void publish(String jwtToken, UserInfo userInfo) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null && jwtToken != null && userInfo != null) {
+            requestAttributes.setAttribute(USER_ATTRIBUTE, new RequestUser(jwtToken, userInfo),
+                                           RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public Optional<UserInfo> getUserInfo(String jwtToken) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null || jwtToken == null) {
+            return Optional.empty();
+        }
+        Object requestUser = requestAttributes.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (requestUser instanceof RequestUser user && user.jwtToken().equals(jwtToken)) {
+            return Optional.of(user.userInfo());
+        }
+        return Optional.empty();
+    }
+
+    private record RequestUser(String jwtToken, UserInfo userInfo) {
+    }
+}
@@ -25,11 +25,14 @@ import java.util.stream.Stream;
 public class SecurityUtils {
     private final AuthTokenGenerator authTokenGenerator;
     private final IdamRepository idamRepository;
+    private final RequestUserContext requestUserContext;
 
     @Autowired
-    public SecurityUtils(AuthTokenGenerator authTokenGenerator, IdamRepository idamRepository) {
+    public SecurityUtils(AuthTokenGenerator authTokenGenerator, IdamRepository idamRepository,
+                         RequestUserContext requestUserContext) {
         this.authTokenGenerator = authTokenGenerator;
         this.idamRepository = idamRepository;
+        this.requestUserContext = requestUserContext;
     }
 
     public static boolean isAuthenticated() {
@@ -82,7 +85,9 @@ public class SecurityUtils {
     }
 
     public UserInfo getUserInfo() {
-        return idamRepository.getUserInfo(getUserToken());
+        String userToken = getUserToken();
+        return requestUserContext.getUserInfo(userToken)
+            .orElseGet(() -> idamRepository.getUserInfo(userToken));
     }
 
     public String getUserId() {
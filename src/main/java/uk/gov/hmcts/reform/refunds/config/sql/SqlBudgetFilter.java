@@ -0,0 +1,101 @@
+package uk.gov.hmcts.reform.refunds.config.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Publishes the SQL statements, rows and JDBC time of each request per endpoint and warns when an endpoint
+ * runs more statements than its budget.
+ *
+ * <p>The statistics are kept on the request rather than the thread, so a request that goes async, like the streamed
+ * refunds report, carries them through its async dispatch and is published once, when the last dispatch returns.
+ */
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SqlBudgetFilter.class);
+
+    static final String STATEMENTS_METRIC = "refunds.sql.statements";
+    static final String ROWS_METRIC = "refunds.sql.rows";
+    static final String JDBC_TIME_METRIC = "refunds.sql.jdbc.time";
+    private static final String ENDPOINT_TAG = "endpoint";
+    private static final String UNMAPPED = "UNMAPPED";
+    private static final String STATISTICS_ATTRIBUTE = SqlBudgetFilter.class.getName() + ".STATISTICS";
+
+    private final SqlStatementRecorder recorder;
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final Map<String, Integer> endpointBudgets;
+
+    public SqlBudgetFilter(SqlStatementRecorder recorder, MeterRegistry meterRegistry,
+                           int defaultBudget, Map<String, Integer> endpointBudgets) {
+        super();
+        this.recorder = recorder;
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.endpointBudgets = endpointBudgets;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        SqlStatistics statistics = (SqlStatistics) request.getAttribute(STATISTICS_ATTRIBUTE);
+        if (statistics == null) {
+            statistics = recorder.start();
+            request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+        } else {
+            recorder.resume(statistics);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statistics.close();
+            if (!request.isAsyncStarted()) {
+                publish(endpointOf(request), statistics);
+            }
+        }
+    }
+
+    private void publish(String endpoint, SqlStatistics statistics) {
+        DistributionSummary.builder(STATEMENTS_METRIC)
+            .tag(ENDPOINT_TAG, endpoint)
+            .register(meterRegistry)
+            .record(statistics.getStatements());
+        DistributionSummary.builder(ROWS_METRIC)
+            .tag(ENDPOINT_TAG, endpoint)
+            .register(meterRegistry)
+            .record(statistics.getRows());
+        Timer.builder(JDBC_TIME_METRIC)
+            .tag(ENDPOINT_TAG, endpoint)
+            .register(meterRegistry)
+            .record(statistics.getJdbcTime());
+
+        int budget = endpointBudgets.getOrDefault(endpoint, defaultBudget);
+        if (statistics.getStatements() > budget) {
+            LOG.warn("{} ran {} SQL statements returning {} rows in {} ms, over its budget of {}",
+                     endpoint, statistics.getStatements(), statistics.getRows(),
+                     statistics.getJdbcTime().toMillis(), budget);
+        }
+    }
+
+    private static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern == null ? UNMAPPED : pattern);
+    }
+}
@@ -0,0 +1,104 @@
+package uk.gov.hmcts.reform.refunds.config.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.core.task.TaskDecorator;
+
+import java.sql.ResultSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Datasource proxy listener adding every statement and result set row to the scopes open on the executing thread.
+ *
+ * <p>As a {@link TaskDecorator} it carries the scopes open on the submitting thread into the task, so statements run
+ * by async request processing and by fan-out workers count against the request that started them.
+ */
+public class SqlStatementRecorder implements QueryExecutionListener, MethodExecutionListener, TaskDecorator {
+
+    private static final ThreadLocal<Deque<SqlStatistics>> SCOPES = new ThreadLocal<>();
+
+    public SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics(this);
+        resume(statistics);
+        return statistics;
+    }
+
+    /**
+     * Records on the current thread into a scope opened earlier, possibly on another thread, until it is ended again.
+     */
+    void resume(SqlStatistics statistics) {
+        Deque<SqlStatistics> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+        scopes.push(statistics);
+    }
+
+    void end(SqlStatistics statistics) {
+        Deque<SqlStatistics> scopes = SCOPES.get();
+        if (scopes != null && scopes.remove(statistics) && scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        Deque<SqlStatistics> scopes = SCOPES.get();
+        if (scopes == null) {
+            return runnable;
+        }
+        List<SqlStatistics> inherited = List.copyOf(scopes);
+        return () -> {
+            Deque<SqlStatistics> previous = SCOPES.get();
+            SCOPES.set(new ArrayDeque<>(inherited));
+            try {
+                runnable.run();
+            } finally {
+                if (previous == null) {
+                    SCOPES.remove();
+                } else {
+                    SCOPES.set(previous);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // counted once the statement has completed
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Deque<SqlStatistics> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        for (SqlStatistics statistics : scopes) {
+            statistics.recordStatements(queryInfoList.size(), execInfo.getElapsedTime());
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+        // rows are counted from the result of ResultSet.next()
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        Deque<SqlStatistics> scopes = SCOPES.get();
+        if (scopes != null && executionContext.getTarget() instanceof ResultSet
+            && "next".equals(executionContext.getMethod().getName())
+            && Boolean.TRUE.equals(executionContext.getResult())) {
+            for (SqlStatistics statistics : scopes) {
+                statistics.recordRow();
+            }
+        }
+    }
+}
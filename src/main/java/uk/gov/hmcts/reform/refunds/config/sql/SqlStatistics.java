@@ -0,0 +1,61 @@
+package uk.gov.hmcts.reform.refunds.config.sql;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statements, rows and JDBC time recorded between {@link SqlStatementRecorder#start()} and {@link #close()}, on the
+ * thread that opened the scope and on any task that thread hands to an executor decorated by the recorder. Scopes can
+ * be nested, each one sees everything executed while it is open.
+ */
+public final class SqlStatistics implements AutoCloseable {
+
+    private final SqlStatementRecorder recorder;
+
+    private final LongAdder statements = new LongAdder();
+
+    private final LongAdder rows = new LongAdder();
+
+    private final LongAdder jdbcTimeMillis = new LongAdder();
+
+    SqlStatistics(SqlStatementRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    void recordStatements(int count, long elapsedMillis) {
+        statements.add(count);
+        jdbcTimeMillis.add(elapsedMillis);
+    }
+
+    void recordRow() {
+        rows.increment();
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public Duration getJdbcTime() {
+        return Duration.ofMillis(jdbcTimeMillis.sum());
+    }
+
+    /**
+     * Fails with an {@link AssertionError} when more statements ran than the budget allows, so tests can pin the
+     * number of queries an endpoint makes.
+     */
+    public void assertStatementsAtMost(long budget) {
+        long executed = getStatements();
+        if (executed > budget) {
+            throw new AssertionError("Expected at most " + budget + " SQL statements but " + executed + " were executed");
+        }
+    }
+
+    @Override
+    public void close() {
+        recorder.end(this);
+    }
+}
@@ -12,9 +12,13 @@ import org.apache.commons.validator.routines.checkdigit.CheckDigitException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.util.MultiValueMap;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -28,9 +32,8 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uk.gov.hmcts.reform.refunds.config.toggler.LaunchDarklyFeatureToggler;
-import uk.gov.hmcts.reform.refunds.dtos.RefundsReportDto;
-import uk.gov.hmcts.reform.refunds.dtos.RefundsReportResponse;
 import uk.gov.hmcts.reform.refunds.dtos.SupplementaryDetailsResponse;
 import uk.gov.hmcts.reform.refunds.dtos.enums.NotificationType;
 import uk.gov.hmcts.reform.refunds.dtos.requests.DocPreviewRequest;
@@ -60,6 +63,7 @@ import uk.gov.hmcts.reform.refunds.services.RefundNotificationService;
 import uk.gov.hmcts.reform.refunds.services.RefundReasonsService;
 import uk.gov.hmcts.reform.refunds.services.RefundReviewService;
 import uk.gov.hmcts.reform.refunds.services.RefundStatusService;
+import uk.gov.hmcts.reform.refunds.services.RefundsReportService;
 import uk.gov.hmcts.reform.refunds.services.RefundsService;
 import uk.gov.hmcts.reform.refunds.state.RefundEvent;
 import uk.gov.hmcts.reform.refunds.utils.RefundServiceRoleUtil;
@@ -72,6 +76,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.springframework.http.ResponseEntity.ok;
+import static uk.gov.hmcts.reform.refunds.services.IacService.IAC_SERVICE_NAME;
 import static uk.gov.hmcts.reform.refunds.utils.DateUtil.atEndOfDay;
 import static uk.gov.hmcts.reform.refunds.utils.DateUtil.atStartOfDay;
 import static uk.gov.hmcts.reform.refunds.utils.DateUtil.toDdMmYyyy;
@@ -86,7 +91,10 @@ public class RefundsController {
 
     private static final String REFUNDS_RELEASE = "refunds-release";
 
-    private static final String IAC_SERVICE_NAME = "Immigration and Asylum Appeals";
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
 
     @Autowired
     private RefundReasonsService refundReasonsService;
@@ -94,6 +102,9 @@ public class RefundsController {
     @Autowired
     private RefundsService refundsService;
 
+    @Autowired
+    private RefundsReportService refundsReportService;
+
     @Autowired
     private RefundStatusService refundStatusService;
 
@@ -166,7 +177,9 @@ public class RefundsController {
         @RequestHeader(required = false) MultiValueMap<String, String> headers,
         @RequestParam(required = false) String status,
         @RequestParam(required = false) String ccdCaseNumber,
-        @RequestParam(required = false) String excludeCurrentUser) {
+        @RequestParam(required = false) String excludeCurrentUser,
+        @RequestParam(required = false) Integer pageSize,
+        @RequestParam(required = false) String cursor) {
 
 
         if (featureToggler.getBooleanValue(REFUNDS_RELEASE,false)) {
@@ -181,7 +194,9 @@ public class RefundsController {
             status,
             headers,
             ccdCaseNumber,
-            excludeCurrentUser == null || excludeCurrentUser.isBlank() ? "false" : excludeCurrentUser
+            excludeCurrentUser == null || excludeCurrentUser.isBlank() ? "false" : excludeCurrentUser,
+            pageSize,
+            cursor
         );
         if (response.getRefundList().isEmpty()) {
             return ResponseEntity.noContent().build();  // HTTP 204 No Content
@@ -376,7 +391,6 @@ public class RefundsController {
         @ApiResponse(responseCode = "200", description = "Re-processed the failed email and letter notifications")
     })
     @PatchMapping("/jobs/refund-notification-update")
-    @Transactional
     public void processFailedNotifcations() throws JsonProcessingException {
         LOG.info("Job refund notification email update started ...");
         refundNotificationService.processFailedNotificationsEmail();
@@ -453,11 +467,13 @@ public class RefundsController {
         @ApiResponse(responseCode = "404", description = "No Data found to generate Report"),
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
-    @GetMapping("/refund/refunds-report")
-    public RefundsReportResponse retrieveRefundsReport(@RequestParam("date_from") String fromDateStr,
-                                                       @RequestParam("date_to") String toDateStr,
-                                                       @RequestHeader(required = false) MultiValueMap<String, String> headers,
-                                                       @RequestHeader("Authorization") String authorization) {
+    @GetMapping(value = "/refund/refunds-report", produces = {MediaType.APPLICATION_JSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<StreamingResponseBody> retrieveRefundsReport(@RequestParam("date_from") String fromDateStr,
+                                                                       @RequestParam("date_to") String toDateStr,
+                                                                       @RequestHeader(required = false) MultiValueMap<String, String> headers,
+                                                                       @RequestHeader("Authorization") String authorization,
+                                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                                       String accept) {
 
         LOG.info("Received refunds report request");
 
@@ -474,8 +490,38 @@ public class RefundsController {
         } catch (ParseException | IllegalArgumentException e) {
             throw new RefundReportException("Invalid date format. Use dd/MM/yyyy.");
         }
+        if (fromDate.after(toDate)) {
+            throw new RefundReportException("Start date cannot be greater than end date");
+        }
+
+        Date startDate = atStartOfDay(fromDate);
+        Date endDate = atEndOfDay(toDate);
+        MediaType mediaType = getRefundsReportMediaType(accept);
+        StreamingResponseBody body = outputStream ->
+            refundsReportService.writeRefundsReport(startDate, endDate, mediaType, outputStream);
+        return ResponseEntity.ok().contentType(mediaType).body(body);
+    }
 
-        List<RefundsReportDto> refundsReportDto =  refundsService.refundsReport(atStartOfDay(fromDate), atEndOfDay(toDate), headers);
-        return new RefundsReportResponse(refundsReportDto);
+    private MediaType getRefundsReportMediaType(String accept) {
+        if (StringUtils.isNotBlank(accept)) {
+            try {
+                List<MediaType> acceptedTypes = MediaType.parseMediaTypes(accept);
+                MimeTypeUtils.sortBySpecificity(acceptedTypes);
+                for (MediaType acceptedType : acceptedTypes) {
+                    if (acceptedType.isWildcardType()) {
+                        return MediaType.APPLICATION_JSON;
+                    }
+                    if (acceptedType.includes(TEXT_CSV)) {
+                        return TEXT_CSV;
+                    }
+                    if (acceptedType.includes(MediaType.APPLICATION_JSON)) {
+                        return MediaType.APPLICATION_JSON;
+                    }
+                }
+            } catch (InvalidMediaTypeException e) {
+                LOG.warn("Unable to parse Accept header for refunds report: {}", accept);
+            }
+        }
+        return MediaType.APPLICATION_JSON;
     }
 }
@@ -22,4 +22,5 @@ import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
 @JsonInclude(NON_NULL)
 public class RefundListDtoResponse {
     private List<RefundDto> refundList;
+    private String nextCursor;
 }
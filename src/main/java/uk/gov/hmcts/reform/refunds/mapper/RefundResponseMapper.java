@@ -20,9 +20,11 @@ import uk.gov.hmcts.reform.refunds.repository.RefundReasonRepository;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -81,6 +83,31 @@ public class RefundResponseMapper {
             .build();
     }
 
+    /**
+     * Joins refunds to their payments in a single pass, indexing the payments by payment reference.
+     * Refunds without a matching payment are left out, as before.
+     */
+    public List<RefundLiberata> getRefundLiberatas(List<Refund> refunds, List<PaymentDto> payments,
+                                                   Map<String, BigDecimal> groupByPaymentReference,
+                                                   Function<String, String> reasonNameResolver) {
+        Map<String, PaymentDto> paymentsByReference = new HashMap<>();
+        for (PaymentDto payment : payments) {
+            if (payment.getPaymentReference() != null) {
+                paymentsByReference.putIfAbsent(payment.getPaymentReference(), payment);
+            }
+        }
+
+        List<RefundLiberata> refundLiberatas = new ArrayList<>(refunds.size());
+        for (Refund refund : refunds) {
+            PaymentDto payment = paymentsByReference.get(refund.getPaymentReference());
+            if (payment != null) {
+                refundLiberatas.add(getRefundLibrata(refund, payment, groupByPaymentReference,
+                                                     reasonNameResolver.apply(refund.getReason())));
+            }
+        }
+        return refundLiberatas;
+    }
+
     public RefundLiberata getRefundLibrata(Refund refund, PaymentDto paymentDto, Map<String, BigDecimal> groupByPaymentReference,
                                            String reasonCode) {
 
@@ -138,13 +165,16 @@ public class RefundResponseMapper {
             feeDtoList.add(feeDto);
         }
 
-        return feeDtoList.stream().filter(pf -> refund.getRefundFees().stream().anyMatch(id -> id.getCode().equals(pf.getCode())))
-            .map(pf -> toFeeDto(pf,refund)).collect(Collectors.toList());
+        Map<String, BigDecimal> refundAmountByFeeCode = refund.getRefundFees().stream()
+            .collect(Collectors.groupingBy(RefundFees::getCode, Collectors2.summingBigDecimal(RefundFees::getRefundAmount)));
+
+        return feeDtoList.stream().filter(pf -> refundAmountByFeeCode.containsKey(pf.getCode()))
+            .map(pf -> toFeeDto(pf, refundAmountByFeeCode.get(pf.getCode()))).collect(Collectors.toList());
     }
 
-    private PaymentFeeLibarataResponse toFeeDto(FeeDto fee, Refund refund) {
+    private PaymentFeeLibarataResponse toFeeDto(FeeDto fee, BigDecimal creditAmount) {
         return PaymentFeeLibarataResponse.feeLibarataDtoWith()
-            .credit(toCreditAmount(refund,fee))
+            .credit(creditAmount)
             .code(fee.getCode())
             .jurisdiction1(fee.getJurisdiction1())
             .jurisdiction2(fee.getJurisdiction2())
@@ -155,32 +185,7 @@ public class RefundResponseMapper {
     }
 
     private BigDecimal availableFunds(Map<String, BigDecimal> groupByPaymentReference, PaymentDto paymentDto) {
-
-        BigDecimal avlAmount = BigDecimal.ZERO;
-
-        for (Map.Entry<String, BigDecimal> entry : groupByPaymentReference.entrySet()) {
-
-            if (entry.getKey().equals(paymentDto.getPaymentReference())) {
-                avlAmount =  paymentDto.getAmount().subtract(entry.getValue());
-            }
-
-        }
-        return avlAmount;
-    }
-
-
-    private BigDecimal toCreditAmount(Refund refund, FeeDto fee) {
-
-        Map<String, BigDecimal> groupByFeeCode =
-            refund.getRefundFees().stream().collect(Collectors.groupingBy(RefundFees::getCode,
-                                                                          Collectors2.summingBigDecimal(RefundFees::getRefundAmount)));
-
-        BigDecimal creditAmount = BigDecimal.ZERO;
-        for (Map.Entry<String, BigDecimal> entry : groupByFeeCode.entrySet()) {
-            if (fee.getCode().equals(entry.getKey())) {
-                creditAmount = entry.getValue();
-            }
-        }
-        return creditAmount;
+        BigDecimal refundedAmount = groupByPaymentReference.get(paymentDto.getPaymentReference());
+        return refundedAmount == null ? BigDecimal.ZERO : paymentDto.getAmount().subtract(refundedAmount);
     }
 }
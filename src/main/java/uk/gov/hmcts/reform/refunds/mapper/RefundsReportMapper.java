@@ -0,0 +1,26 @@
+package uk.gov.hmcts.reform.refunds.mapper;
+
+import jakarta.persistence.Tuple;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.refunds.dtos.RefundsReportDto;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+@Component
+public class RefundsReportMapper {
+
+    public RefundsReportDto getRefundsReportDto(Tuple tuple) {
+        return RefundsReportDto.refundsReportDtoWith()
+            .refundDateCreated(tuple.get("date_created", Date.class))
+            .refundDateUpdated(tuple.get("date_updated", Date.class))
+            .amount(tuple.get("amount", BigDecimal.class))
+            .refundReference(tuple.get("reference", String.class))
+            .paymentReference(tuple.get("payment_reference", String.class))
+            .ccdCaseNumber(tuple.get("ccd_case_number", String.class))
+            .serviceType(tuple.get("service_type", String.class))
+            .refundStatus(tuple.get("refund_status", String.class))
+            .notes(tuple.get("notes", String.class))
+            .build();
+    }
+}
@@ -0,0 +1,64 @@
+package uk.gov.hmcts.reform.refunds.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.sql.Timestamp;
+
+/**
+ * A refund notification waiting to be sent. Rows are written in the same transaction as the status change that
+ * triggers the notification and sent later by the outbox dispatcher.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Table(name = "notification_outbox")
+@Builder(builderMethodName = "notificationOutboxWith")
+public class NotificationOutbox {
+
+    public static final String PENDING = "PENDING";
+    public static final String DISPATCHED = "DISPATCHED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "refund_reference", nullable = false)
+    private String refundReference;
+
+    // Reference of the refund whose notification holds the contact details, the refund itself unless reissued
+    @Column(name = "original_refund_reference")
+    private String originalRefundReference;
+
+    // Reason used to pick the notification template
+    @Column(name = "reason")
+    private String reason;
+
+    @Builder.Default
+    @Column(name = "status", nullable = false)
+    private String status = PENDING;
+
+    @Builder.Default
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    @CreationTimestamp
+    @Column(name = "date_created")
+    private Timestamp dateCreated;
+
+    @UpdateTimestamp
+    @Column(name = "date_updated")
+    private Timestamp dateUpdated;
+}
@@ -0,0 +1,43 @@
+package uk.gov.hmcts.reform.refunds.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+/**
+ * Running total of the amount refunded, or in the process of being refunded, against one payment.
+ * Refunds in any status other than Closed or Rejected count towards the total.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Table(name = "payment_refund_ledger")
+@Builder(builderMethodName = "paymentRefundLedgerWith")
+public class PaymentRefundLedger {
+
+    @Id
+    @Column(name = "payment_reference", nullable = false)
+    private String paymentReference;
+
+    @Column(name = "refunded_amount", nullable = false)
+    private BigDecimal refundedAmount;
+
+    @CreationTimestamp
+    @Column(name = "date_created")
+    private Timestamp dateCreated;
+
+    @UpdateTimestamp
+    @Column(name = "date_updated")
+    private Timestamp dateUpdated;
+}
@@ -18,6 +18,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Type;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -87,12 +88,15 @@ public class Refund {
     @Column(columnDefinition = "json", name = "contact_details")
     private ContactDetails contactDetails;
 
+    // Collections of up to a full refund list page are initialised together in one query
     @ToString.Exclude
+    @BatchSize(size = 500)
     @OneToMany(cascade = CascadeType.ALL)
     @JoinColumn(name = "refunds_id", referencedColumnName = "id", nullable = false)
     private List<StatusHistory> statusHistories;
 
     @ToString.Exclude
+    @BatchSize(size = 500)
     @OneToMany(cascade = CascadeType.ALL)
     @JoinColumn(name = "refunds_id", referencedColumnName = "id", nullable = false)
     private List<RefundFees> refundFees;
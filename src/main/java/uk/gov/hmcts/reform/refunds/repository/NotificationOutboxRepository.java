@@ -0,0 +1,36 @@
+package uk.gov.hmcts.reform.refunds.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uk.gov.hmcts.reform.refunds.model.NotificationOutbox;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NotificationOutboxRepository extends CrudRepository<NotificationOutbox, Long> {
+
+    /**
+     * Locks the next page of pending notifications no dispatcher has claimed, skipping rows another node is
+     * claiming at the same time.
+     */
+    @Query(value = "SELECT o.id FROM notification_outbox o WHERE o.status = 'PENDING' "
+        + "AND (o.claimed_until IS NULL OR o.claimed_until < now()) "
+        + "ORDER BY o.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockUnclaimedPending(@Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE notification_outbox SET claimed_until = now() + :claimSeconds * interval '1 second' "
+        + "WHERE id IN (:ids)", nativeQuery = true)
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimSeconds") int claimSeconds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from NotificationOutbox o where o.id = :id and o.status = 'PENDING'")
+    Optional<NotificationOutbox> findPendingForUpdate(@Param("id") Long id);
+}
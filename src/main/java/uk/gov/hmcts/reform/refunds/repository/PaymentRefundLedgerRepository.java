@@ -0,0 +1,31 @@
+package uk.gov.hmcts.reform.refunds.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uk.gov.hmcts.reform.refunds.model.PaymentRefundLedger;
+
+import java.util.Optional;
+
+@Repository
+public interface PaymentRefundLedgerRepository extends CrudRepository<PaymentRefundLedger, String> {
+
+    /**
+     * Creates the ledger row for a payment not seen since the backfill, seeded from its existing refunds.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO payment_refund_ledger (payment_reference, refunded_amount, date_created, date_updated) "
+        + "SELECT :paymentReference, "
+        + "COALESCE(SUM(r.amount) FILTER (WHERE r.refund_status NOT IN ('Closed', 'Rejected')), 0), now(), now() "
+        + "FROM refunds r WHERE r.payment_reference = :paymentReference "
+        + "ON CONFLICT (payment_reference) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("paymentReference") String paymentReference);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from PaymentRefundLedger l where l.paymentReference = :paymentReference")
+    Optional<PaymentRefundLedger> findForUpdate(@Param("paymentReference") String paymentReference);
+}
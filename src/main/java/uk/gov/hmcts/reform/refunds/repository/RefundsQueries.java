@@ -0,0 +1,17 @@
+package uk.gov.hmcts.reform.refunds.repository;
+
+final class RefundsQueries {
+
+    static final String REFUNDS_REPORT = "SELECT r.date_created,r.date_updated,r.amount,"
+        + "r.reference,r.payment_reference,r.ccd_case_number,"
+        + "r.service_type,r.refund_status,sh.notes "
+        + "FROM refunds r "
+        + "INNER JOIN status_history sh ON r.id = sh.refunds_id AND r.refund_status = sh.status "
+        + "WHERE ( r.refund_status IN ('Accepted', 'Approved','Cancelled','Expired','Reissued','Closed') "
+        + "OR (r.refund_status = 'Rejected' and sh.created_by = 'Middle office provider') ) "
+        + "AND r.date_created BETWEEN :fromDate AND :toDate "
+        + "ORDER BY r.date_created ASC";
+
+    private RefundsQueries() {
+    }
+}
@@ -1,8 +1,16 @@
 package uk.gov.hmcts.reform.refunds.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import jakarta.persistence.Tuple;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.ListCrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,15 +18,18 @@ import uk.gov.hmcts.reform.refunds.exceptions.RefundNotFoundException;
 import uk.gov.hmcts.reform.refunds.model.Refund;
 import uk.gov.hmcts.reform.refunds.model.RefundStatus;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @SuppressWarnings({"PMD.TooManyMethods"})
 @Repository
 public interface RefundsRepository extends ListCrudRepository<Refund, Integer>, JpaSpecificationExecutor<Refund> {
     Optional<List<Refund>> findByPaymentReference(String paymentReference);
 
+    @EntityGraph(attributePaths = {"refundStatus", "refundFees"})
     Optional<List<Refund>> findByPaymentReferenceInAndRefundStatusNotIn(List<String> paymentReference, List<RefundStatus> refundStatus);
 
     Optional<Refund> findByReference(String reference);
@@ -28,40 +39,87 @@ public interface RefundsRepository extends ListCrudRepository<Refund, Integer>,
             "Refund not found for given reference"));
     }
 
+    /**
+     * Reads only the payment reference, so the refund itself is not loaded before its payment's ledger is locked.
+     */
+    @Query("select r.paymentReference from Refund r where r.reference = :reference")
+    Optional<String> findPaymentReferenceByReference(@Param("reference") String reference);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Refund r where r.reference = :reference")
+    Optional<Refund> findByReferenceForUpdate(@Param("reference") String reference);
+
+    @EntityGraph(attributePaths = {"refundStatus", "refundFees"})
     Optional<List<Refund>> findByRefundStatusAndUpdatedByIsNotAndServiceTypeInIgnoreCase(RefundStatus refundStatus,
                                                                         String updatedBy, List<String> serviceName);
 
+    @EntityGraph(attributePaths = {"refundStatus", "refundFees"})
     Optional<List<Refund>> findByCcdCaseNumberAndServiceTypeInIgnoreCase(String ccdCaseNumber, List<String> serviceName);
 
     Optional<List<Refund>> findByRefundStatus(RefundStatus refundStatus);
 
+    @EntityGraph(attributePaths = {"refundStatus", "refundFees"})
     Optional<List<Refund>> findByRefundStatusAndServiceTypeInIgnoreCase(RefundStatus refundStatus, List<String> serviceName);
 
+    @EntityGraph(attributePaths = {"refundStatus", "refundFees"})
     Optional<List<Refund>> findByCcdCaseNumber(String ccdCaseNumber);
 
     long deleteByReference(String reference);
 
-    Optional<List<Refund>> findByNotificationSentFlag(String notificationSentFlag);
-
-    @Query("select rf from Refund rf "
-        + "where rf.dateUpdated NOT between ?1 and ?2 AND (rf.refundStatus.name = 'Approved' or rf.refundStatus.name = 'Accepted')")
-    List<Refund> findByDatesBetween(Date fromDate, Date toDate);
+    /**
+     * First number of a fresh block of {@link uk.gov.hmcts.reform.refunds.utils.ReferenceUtil#BLOCK_SIZE} refund
+     * reference sequence numbers.
+     */
+    @Query(value = "SELECT nextval('refund_reference_seq')", nativeQuery = true)
+    long nextReferenceBlock();
+
+    /**
+     * Locks the next page of refunds with the given notification flag that no node has claimed, skipping rows
+     * another node is claiming at the same time.
+     */
+    @Query(value = "SELECT r.id FROM refunds r WHERE r.notification_sent_flag = :notificationSentFlag "
+        + "AND (r.notification_claimed_until IS NULL OR r.notification_claimed_until < now()) "
+        + "ORDER BY r.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Integer> lockUnclaimedByNotificationSentFlag(@Param("notificationSentFlag") String notificationSentFlag,
+                                                      @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE refunds SET notification_claimed_until = now() + :claimSeconds * interval '1 second' "
+        + "WHERE id IN (:ids)", nativeQuery = true)
+    int claimNotifications(@Param("ids") Collection<Integer> ids, @Param("claimSeconds") int claimSeconds);
+
+    Optional<Refund> findByIdAndNotificationSentFlag(Integer id, String notificationSentFlag);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Refund r where r.id = :id and r.notificationSentFlag = :notificationSentFlag")
+    Optional<Refund> findByIdAndNotificationSentFlagForUpdate(@Param("id") Integer id,
+                                                              @Param("notificationSentFlag") String notificationSentFlag);
+
+    @Override
+    @EntityGraph(attributePaths = {"refundStatus", "refundFees"})
+    List<Refund> findAll(Specification<Refund> spec);
+
+    @Query("select rf.paymentReference as paymentReference, sum(rf.amount) as amount from Refund rf "
+        + "where rf.paymentReference in :paymentReferences "
+        + "AND (rf.dateUpdated < :fromDate or rf.dateUpdated >= :toDate) "
+        + "AND (rf.refundStatus.name = 'Approved' or rf.refundStatus.name = 'Accepted') "
+        + "group by rf.paymentReference")
+    List<Tuple> sumAmountByPaymentReferenceOutsideDateRange(
+        @Param("paymentReferences") Collection<String> paymentReferences,
+        @Param("fromDate") Date fromDate,
+        @Param("toDate") Date toDate);
 
     @Query("select rf from Refund rf "
         + "where rf.paymentReference = ?1  AND (rf.refundStatus.name = 'Approved' or rf.refundStatus.name = 'Accepted')"
         + "AND rf.reference NOT IN(?2)")
     List<Refund> findAllByPaymentReference(String paymentReference,String reference);
 
-    @Query(value = "SELECT r.date_created,r.date_updated,r.amount,"
-        + "r.reference,r.payment_reference,r.ccd_case_number,"
-        + "r.service_type,r.refund_status,sh.notes "
-        + "FROM refunds r "
-        + "INNER JOIN status_history sh ON r.id = sh.refunds_id AND r.refund_status = sh.status "
-        + "WHERE ( r.refund_status IN ('Accepted', 'Approved','Cancelled','Expired','Reissued','Closed') "
-        + "OR (r.refund_status = 'Rejected' and sh.created_by = 'Middle office provider') ) "
-        + "AND r.date_created BETWEEN :fromDate AND :toDate "
-        + "ORDER BY r.date_created ASC", nativeQuery = true)
-    List<Tuple> findAllRefundsByDateCreatedBetween(
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = RefundsQueries.REFUNDS_REPORT, nativeQuery = true)
+    Stream<Tuple> streamAllRefundsByDateCreatedBetween(
         @Param("fromDate") Date fromDate,
         @Param("toDate") Date toDate);
 }
@@ -2,12 +2,21 @@ package uk.gov.hmcts.reform.refunds.services;
 
 import org.springframework.http.ResponseEntity;
 import uk.gov.hmcts.reform.refunds.dtos.SupplementaryDetailsResponse;
+import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentDto;
 import uk.gov.hmcts.reform.refunds.dtos.responses.RefundLiberata;
 
 import java.util.List;
 
 public interface IacService {
+
+    String IAC_SERVICE_NAME = "Immigration and Asylum Appeals";
+
     ResponseEntity<SupplementaryDetailsResponse> getIacSupplementaryDetails(List<RefundLiberata> refundsDtos, String serviceName);
 
+    /**
+     * Starts loading IAC case references for the IAC payments given, without waiting for them.
+     */
+    void prefetchCaseReferences(List<PaymentDto> payments, String serviceName);
+
     List<RefundLiberata> updateIacSupplementaryDetails(List<RefundLiberata> refundDtos, SupplementaryDetailsResponse supplementaryDetailsResponse);
 }
@@ -17,16 +17,27 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.refunds.cache.IacCaseReferenceCache;
+import uk.gov.hmcts.reform.refunds.dtos.MissingSupplementaryInfo;
 import uk.gov.hmcts.reform.refunds.dtos.SupplementaryDetails;
 import uk.gov.hmcts.reform.refunds.dtos.SupplementaryDetailsResponse;
 import uk.gov.hmcts.reform.refunds.dtos.SupplementaryInfo;
+import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentDto;
 import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentRefundDto;
 import uk.gov.hmcts.reform.refunds.dtos.responses.RefundLiberata;
 import uk.gov.hmcts.reform.refunds.model.IacSupplementaryRequest;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,9 +51,18 @@ public class IacServiceImpl implements IacService {
     @Qualifier("restTemplateIacSupplementaryInfo")
     private RestTemplate restTemplateIacSupplementaryInfo;
 
+    @Value("${iac.supplementary.chunk-size:100}")
+    private int iacLookupChunkSize;
+
+    @Value("${iac.supplementary.timeout:30s}")
+    private Duration iacLookupTimeout = Duration.ofSeconds(30);
+
     @Autowired
     private AuthTokenGenerator authTokenGenerator;
 
+    @Autowired
+    private IacCaseReferenceCache iacCaseReferenceCache;
+
     @Override
     public ResponseEntity<SupplementaryDetailsResponse> getIacSupplementaryDetails(List<RefundLiberata> refundsDtos, String serviceName) {
         HttpStatus iacResponseHttpStatus = HttpStatus.OK;
@@ -52,18 +72,30 @@ public class IacServiceImpl implements IacService {
         LOG.info("No of IAC refunds retrieved  : {}", iacRefunds.size());
 
         List<String> iacCcdCaseNos = iacRefunds.stream().map(refund -> refund.getPayment().getCcdCaseNumber())
+            .filter(Objects::nonNull)
+            .distinct()
             .collect(Collectors.toList());
 
         if (!iacCcdCaseNos.isEmpty()) {
-            LOG.info("List of IAC Ccd Case numbers : {}", iacCcdCaseNos.toString());
+            LOG.info("List of IAC Ccd Case numbers : {}", iacCcdCaseNos);
             try {
-                ResponseEntity<SupplementaryDetailsResponse> responseEntitySupplementaryInfo = getIacSupplementaryInfoResponse(iacCcdCaseNos);
-                supplementaryDetailsResponse = responseEntitySupplementaryInfo.getBody();
-            } catch (HttpClientErrorException ex) {
-                LOG.info("IAC Supplementary information could not be found, exception: {}", ex.getMessage());
+                Map<String, String> caseReferences = iacCaseReferenceCache.getAll(iacCcdCaseNos, this::getIacCaseReferences)
+                    .get(iacLookupTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                supplementaryDetailsResponse = toSupplementaryDetailsResponse(iacCcdCaseNos, caseReferences);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                LOG.info("Interrupted while retrieving IAC Supplementary Info information");
+                iacResponseHttpStatus = HttpStatus.PARTIAL_CONTENT;
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause() instanceof CompletionException ? ex.getCause().getCause() : ex.getCause();
+                if (cause instanceof HttpClientErrorException) {
+                    LOG.info("IAC Supplementary information could not be found, exception: {}", cause.getMessage());
+                } else {
+                    LOG.info("Unable to retrieve IAC Supplementary Info information, exception: {}", ex.getMessage());
+                }
                 iacResponseHttpStatus = HttpStatus.PARTIAL_CONTENT;
-            } catch (Exception ex) {
-                LOG.info("Unable to retrieve IAC Supplementary Info information, exception: {}", ex.getMessage());
+            } catch (TimeoutException ex) {
+                LOG.info("IAC Supplementary Info information not retrieved within {}", iacLookupTimeout);
                 iacResponseHttpStatus = HttpStatus.PARTIAL_CONTENT;
             }
         }
@@ -71,6 +103,72 @@ public class IacServiceImpl implements IacService {
         return new ResponseEntity<>(supplementaryDetailsResponse, iacResponseHttpStatus);
     }
 
+    @Override
+    public void prefetchCaseReferences(List<PaymentDto> payments, String serviceName) {
+        List<String> iacCcdCaseNos = payments.stream()
+            .filter(payment -> serviceName.equalsIgnoreCase(payment.getServiceName()))
+            .map(PaymentDto::getCcdCaseNumber)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+        if (iacCcdCaseNos.isEmpty()) {
+            return;
+        }
+        // Nothing waits on this; the reconciliation response picks the references up from the cache
+        iacCaseReferenceCache.getAll(iacCcdCaseNos, this::getIacCaseReferences)
+            .whenComplete((caseReferences, ex) -> {
+                if (ex != null) {
+                    LOG.info("Prefetch of IAC case references failed, exception: {}", ex.getMessage());
+                }
+            });
+    }
+
+    private Map<String, String> getIacCaseReferences(Set<? extends String> iacCcdCaseNos) {
+        List<String> ccdCaseNumbers = new ArrayList<>(iacCcdCaseNos);
+        int chunkSize = Math.max(1, iacLookupChunkSize);
+        Map<String, String> caseReferences = new HashMap<>();
+        for (int i = 0; i < ccdCaseNumbers.size(); i += chunkSize) {
+            SupplementaryDetailsResponse response =
+                getIacSupplementaryInfoResponse(ccdCaseNumbers.subList(i, Math.min(i + chunkSize, ccdCaseNumbers.size()))).getBody();
+            if (response == null || response.getSupplementaryInfo() == null) {
+                continue;
+            }
+            for (SupplementaryInfo supplementaryInfo : response.getSupplementaryInfo()) {
+                if (supplementaryInfo.getSupplementaryDetails() != null
+                    && supplementaryInfo.getSupplementaryDetails().getCaseReferenceNumber() != null) {
+                    caseReferences.put(supplementaryInfo.getCcdCaseNumber(),
+                                       supplementaryInfo.getSupplementaryDetails().getCaseReferenceNumber());
+                }
+            }
+        }
+        LOG.info("IAC case references found for {} of {} ccd case numbers", caseReferences.size(), ccdCaseNumbers.size());
+        return caseReferences;
+    }
+
+    private SupplementaryDetailsResponse toSupplementaryDetailsResponse(List<String> iacCcdCaseNos, Map<String, String> caseReferences) {
+        List<SupplementaryInfo> supplementaryInfo = new ArrayList<>();
+        List<String> missingCcdCaseNos = new ArrayList<>();
+        for (String ccdCaseNumber : iacCcdCaseNos) {
+            String caseReference = caseReferences.get(ccdCaseNumber);
+            if (caseReference == null) {
+                missingCcdCaseNos.add(ccdCaseNumber);
+            } else {
+                supplementaryInfo.add(SupplementaryInfo.supplementaryInfoWith()
+                                          .ccdCaseNumber(ccdCaseNumber)
+                                          .supplementaryDetails(SupplementaryDetails.supplementaryDetailsWith()
+                                                                    .caseReferenceNumber(caseReference)
+                                                                    .build())
+                                          .build());
+            }
+        }
+        return SupplementaryDetailsResponse.supplementaryDetailsResponseWith()
+            .supplementaryInfo(supplementaryInfo)
+            .missingSupplementaryInfo(MissingSupplementaryInfo.missingSupplementaryInfoWith()
+                                          .ccdCaseNumbers(missingCcdCaseNos)
+                                          .build())
+            .build();
+    }
+
     public List<RefundLiberata> updateIacSupplementaryDetails(List<RefundLiberata> refundDtos,
                                                               SupplementaryDetailsResponse supplementaryDetailsResponse) {
         Map<String, SupplementaryDetails> supplementaryDetailsMap = supplementaryDetailsResponse.getSupplementaryInfo().stream()
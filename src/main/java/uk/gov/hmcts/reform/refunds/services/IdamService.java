@@ -5,7 +5,9 @@ import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.IdamUserIdResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.UserIdentityDataDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface IdamService {
 
@@ -13,6 +15,12 @@ public interface IdamService {
 
     UserIdentityDataDto getUserIdentityData(MultiValueMap<String, String> headers, String uid);
 
+    /**
+     * Resolves a batch of IDAM user ids in as few lookups as possible.
+     * Ids that IDAM does not know about are absent from the returned map.
+     */
+    Map<String, UserIdentityDataDto> getUserIdentityDataForUids(MultiValueMap<String, String> headers, Collection<String> uids);
+
     List<UserIdentityDataDto> getUsersForRoles(MultiValueMap<String, String> headers, List<String> roles);
 
     IdamTokenResponse  getSecurityTokens();
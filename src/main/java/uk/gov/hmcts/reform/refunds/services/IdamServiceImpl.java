@@ -19,21 +19,30 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 import uk.gov.hmcts.reform.idam.client.IdamClient;
+import uk.gov.hmcts.reform.idam.client.models.UserInfo;
+import uk.gov.hmcts.reform.refunds.config.security.utils.RequestUserContext;
 import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.IdamUserIdResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.IdamUserInfoResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.UserIdentityDataDto;
 import uk.gov.hmcts.reform.refunds.exceptions.GatewayTimeoutException;
 import uk.gov.hmcts.reform.refunds.exceptions.UserNotFoundException;
+import uk.gov.hmcts.reform.refunds.utils.BoundedFanOut;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 import static org.springframework.http.HttpHeaders.EMPTY;
 
 @Service
-@SuppressWarnings("PMD.PreserveStackTrace")
+@SuppressWarnings({"PMD.PreserveStackTrace", "PMD.DoNotUseThreads"})
 public class IdamServiceImpl implements IdamService {
 
     public static final String USERID_ENDPOINT = "/o/userinfo";
@@ -44,6 +53,7 @@ public class IdamServiceImpl implements IdamService {
     private static final String LIBERATA_SYSTEM_USER_NAME = "System user";
     private static final String INTERNAL_SERVER_ERROR_MSG = "Internal Server error. Please, try again later";
     private static final String USER_DETAILS_NOT_FOUND_ERROR_MSG = "User details not found for these roles in IDAM";
+    private static final String USER_INFO_UNAVAILABLE_MSG = "Unable to retrieve User information. Please try again later";
 
     @Value("${idam.api.url}")
     private String idamBaseUrl;
@@ -51,6 +61,12 @@ public class IdamServiceImpl implements IdamService {
     @Value("${user.info.size}")
     private String userInfoSize;
 
+    @Value("${idam.bulk-lookup.chunk-size:50}")
+    private int bulkLookupChunkSize;
+
+    @Value("${idam.bulk-lookup.max-concurrency:4}")
+    private int bulkLookupMaxConcurrency;
+
     @Autowired()
     @Qualifier("restTemplateIdam")
     private RestTemplate restTemplateIdam;
@@ -79,9 +95,18 @@ public class IdamServiceImpl implements IdamService {
     @Autowired
     private IdamClient idamClient;
 
+    @Autowired
+    private RequestUserContext requestUserContext;
+
+    @Autowired
+    private BoundedFanOut boundedFanOut;
 
     @Override
     public IdamUserIdResponse getUserId(MultiValueMap<String, String> headers) {
+        Optional<UserInfo> requestUser = requestUserContext.getUserInfo(getUserToken(headers));
+        if (requestUser.isPresent()) {
+            return toIdamUserIdResponse(requestUser.get());
+        }
         try {
             ResponseEntity<IdamUserIdResponse> responseEntity = getResponseEntity(headers);
             if (responseEntity != null) {
@@ -97,7 +122,7 @@ public class IdamServiceImpl implements IdamService {
             throw new UserNotFoundException(INTERNAL_SERVER_ERROR_MSG);
         } catch (HttpServerErrorException e) {
             LOG.error("server err ", e);
-            throw new GatewayTimeoutException("Unable to retrieve User information. Please try again later");
+            throw new GatewayTimeoutException(USER_INFO_UNAVAILABLE_MSG);
         }
     }
 
@@ -118,9 +143,7 @@ public class IdamServiceImpl implements IdamService {
             "Content-Type",
             headers.get("content-type") == null ? List.of("application/json") : headers.get("content-type")
         );
-        String userAuthorization =
-            headers.get("authorization") == null ? headers.get("Authorization").get(0) : headers.get(
-                "authorization").get(0);
+        String userAuthorization = getUserAuthorization(headers);
         headerMultiValueMap.put(
             "Authorization", Collections.singletonList(userAuthorization.startsWith("Bearer ")
                                                            ? userAuthorization : "Bearer ".concat(userAuthorization))
@@ -129,6 +152,30 @@ public class IdamServiceImpl implements IdamService {
         return new HttpEntity<>(httpHeaders);
     }
 
+    private String getUserAuthorization(MultiValueMap<String, String> headers) {
+        return headers.get("authorization") == null ? headers.get("Authorization").get(0) : headers.get(
+            "authorization").get(0);
+    }
+
+    private String getUserToken(MultiValueMap<String, String> headers) {
+        if (headers == null || headers.get("authorization") == null && headers.get("Authorization") == null) {
+            return null;
+        }
+        String userAuthorization = getUserAuthorization(headers);
+        return userAuthorization.startsWith("Bearer ") ? userAuthorization.substring("Bearer ".length()) : userAuthorization;
+    }
+
+    private IdamUserIdResponse toIdamUserIdResponse(UserInfo userInfo) {
+        return IdamUserIdResponse.idamUserIdResponseWith()
+            .uid(userInfo.getUid())
+            .sub(userInfo.getSub())
+            .name(userInfo.getName())
+            .givenName(userInfo.getGivenName())
+            .familyName(userInfo.getFamilyName())
+            .roles(userInfo.getRoles())
+            .build();
+    }
+
 
     @Override
     public UserIdentityDataDto getUserIdentityData(MultiValueMap<String, String> headers, String uid) {
@@ -136,7 +183,7 @@ public class IdamServiceImpl implements IdamService {
             .queryParam("query", "id:" + uid);
         LOG.info("builder.toUriString() getUserIdentityData : {}", builder.toUriString());
 
-        if (LIBERATA_NAME.equals(uid) || LIBERATA_SYSTEM_USER_NAME.equalsIgnoreCase(uid)) {
+        if (isLiberataUser(uid)) {
             return UserIdentityDataDto.userIdentityDataWith()
                 .fullName(uid)
                 .build();
@@ -153,13 +200,7 @@ public class IdamServiceImpl implements IdamService {
             IdamUserInfoResponse[] idamArrayFullNameRetrievalResponse = idamFullNameResEntity.getBody();
 
             if (idamArrayFullNameRetrievalResponse != null && idamArrayFullNameRetrievalResponse.length > 0) {
-                IdamUserInfoResponse idamUserInfoResponse = idamArrayFullNameRetrievalResponse[0];
-                return UserIdentityDataDto.userIdentityDataWith()
-                    .id(idamUserInfoResponse.getId())
-                    .roles(idamUserInfoResponse.getRoles())
-                    .emailId(idamUserInfoResponse.getEmail())
-                    .fullName(idamUserInfoResponse.getForename() + " " + idamUserInfoResponse.getSurname())
-                    .build();
+                return toUserIdentityDataDto(idamArrayFullNameRetrievalResponse[0]);
             }
         }
 
@@ -167,6 +208,97 @@ public class IdamServiceImpl implements IdamService {
         throw new UserNotFoundException(USER_DETAILS_NOT_FOUND_ERROR_MSG);
     }
 
+    @Override
+    public Map<String, UserIdentityDataDto> getUserIdentityDataForUids(MultiValueMap<String, String> headers,
+                                                                       Collection<String> uids) {
+        Map<String, UserIdentityDataDto> userIdentityDataMap = new ConcurrentHashMap<>();
+        List<String> idamUids = new ArrayList<>();
+        for (String uid : new LinkedHashSet<>(uids)) {
+            if (uid == null) {
+                continue;
+            }
+            if (isLiberataUser(uid)) {
+                userIdentityDataMap.put(uid, UserIdentityDataDto.userIdentityDataWith().fullName(uid).build());
+            } else {
+                idamUids.add(uid);
+            }
+        }
+        if (idamUids.isEmpty()) {
+            return userIdentityDataMap;
+        }
+
+        int chunkSize = Math.max(1, bulkLookupChunkSize);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < idamUids.size(); i += chunkSize) {
+            chunks.add(idamUids.subList(i, Math.min(i + chunkSize, idamUids.size())));
+        }
+        LOG.info("Resolving {} IDAM users in {} lookups", idamUids.size(), chunks.size());
+
+        HttpEntity<String> entity = getEntity(headers);
+        if (chunks.size() == 1) {
+            getUsersForUidChunk(entity, chunks.get(0)).forEach(user -> userIdentityDataMap.put(user.getId(), user));
+            return userIdentityDataMap;
+        }
+
+        try {
+            boundedFanOut.map(chunks, bulkLookupMaxConcurrency, chunk -> getUsersForUidChunk(entity, chunk))
+                .forEach(users -> users.forEach(user -> userIdentityDataMap.put(user.getId(), user)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GatewayTimeoutException(USER_INFO_UNAVAILABLE_MSG);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new GatewayTimeoutException(USER_INFO_UNAVAILABLE_MSG);
+        }
+        return userIdentityDataMap;
+    }
+
+    private List<UserIdentityDataDto> getUsersForUidChunk(HttpEntity<String> entity, List<String> uids) {
+        UriComponents builder = UriComponentsBuilder.newInstance()
+            .fromUriString(idamBaseUrl + USER_FULL_NAME_ENDPOINT)
+            .query("query={query}")
+            .query("size={size}")
+            .buildAndExpand("id:(" + String.join(" OR ", uids) + ")", uids.size());
+
+        ResponseEntity<IdamUserInfoResponse[]> idamUserListResponseEntity;
+        try {
+            idamUserListResponseEntity = restTemplateIdam
+                .exchange(
+                    builder.toUriString(),
+                    HttpMethod.GET,
+                    entity, IdamUserInfoResponse[].class
+                );
+        } catch (HttpServerErrorException e) {
+            LOG.error("server err ", e);
+            throw new GatewayTimeoutException(USER_INFO_UNAVAILABLE_MSG);
+        }
+
+        List<UserIdentityDataDto> userIdentityDataDtoList = new ArrayList<>();
+        if (idamUserListResponseEntity != null && idamUserListResponseEntity.getBody() != null) {
+            for (IdamUserInfoResponse idamUserInfoResponse : idamUserListResponseEntity.getBody()) {
+                if (idamUserInfoResponse.getId() != null) {
+                    userIdentityDataDtoList.add(toUserIdentityDataDto(idamUserInfoResponse));
+                }
+            }
+        }
+        return userIdentityDataDtoList;
+    }
+
+    private static boolean isLiberataUser(String uid) {
+        return LIBERATA_NAME.equals(uid) || LIBERATA_SYSTEM_USER_NAME.equalsIgnoreCase(uid);
+    }
+
+    private static UserIdentityDataDto toUserIdentityDataDto(IdamUserInfoResponse idamUserInfoResponse) {
+        return UserIdentityDataDto.userIdentityDataWith()
+            .id(idamUserInfoResponse.getId())
+            .roles(idamUserInfoResponse.getRoles())
+            .emailId(idamUserInfoResponse.getEmail())
+            .fullName(idamUserInfoResponse.getForename() + " " + idamUserInfoResponse.getSurname())
+            .build();
+    }
+
     @Override
     public List<UserIdentityDataDto> getUsersForRoles(MultiValueMap<String, String> headers, List<String> roles) {
         List<UserIdentityDataDto> userIdentityDataDtoList = new ArrayList<>();
@@ -191,13 +323,7 @@ public class IdamServiceImpl implements IdamService {
             IdamUserInfoResponse[] idamUserListResponse = idamUserListResponseEntity.getBody();
 
             for (IdamUserInfoResponse idamUserInfoResponse : idamUserListResponse) {
-
-                userIdentityDataDtoList.add(UserIdentityDataDto.userIdentityDataWith()
-                                                .id(idamUserInfoResponse.getId())
-                                                .emailId(idamUserInfoResponse.getEmail())
-                                                .roles(idamUserInfoResponse.getRoles())
-                                                .fullName(idamUserInfoResponse.getForename() + " " + idamUserInfoResponse.getSurname())
-                                                .build());
+                userIdentityDataDtoList.add(toUserIdentityDataDto(idamUserInfoResponse));
             }
 
             return userIdentityDataDtoList;
@@ -0,0 +1,179 @@
+package uk.gov.hmcts.reform.refunds.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import uk.gov.hmcts.reform.refunds.cache.LiberataTokenManager;
+import uk.gov.hmcts.reform.refunds.dtos.responses.Notification;
+import uk.gov.hmcts.reform.refunds.model.ContactDetails;
+import uk.gov.hmcts.reform.refunds.model.NotificationOutbox;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+import uk.gov.hmcts.reform.refunds.repository.NotificationOutboxRepository;
+import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
+import uk.gov.hmcts.reform.refunds.utils.BoundedFanOut;
+import uk.gov.hmcts.reform.refunds.utils.RefundsUtil;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sends the notifications queued in {@code notification_outbox}, so status changes never wait on Notify.
+ *
+ * <p>Pages of pending rows are claimed with {@code FOR UPDATE SKIP LOCKED} and a claim that expires after
+ * {@code claim-seconds}, so several nodes can drain the outbox together. The claim keeps a row to one dispatcher, so
+ * the notification, Payment API and Notify calls are made outside any transaction and hold neither a row lock nor a
+ * connection. The outcome is then written in a short transaction which re-locks the row, checks it is still pending
+ * and updates the refund's notification flag. A row that throws is retried once its claim expires, up to
+ * {@code max-attempts} times, and then marked failed.
+ */
+@Component
+public class NotificationOutboxDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationOutboxDispatcher.class);
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private RefundsRepository refundsRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private LiberataTokenManager liberataTokenManager;
+
+    @Autowired
+    private BoundedFanOut boundedFanOut;
+
+    @Autowired
+    private RefundsUtil refundsUtil;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${refund.notification-outbox.page-size:50}")
+    private int pageSize;
+
+    @Value("${refund.notification-outbox.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${refund.notification-outbox.claim-seconds:300}")
+    private int claimSeconds;
+
+    @Value("${refund.notification-outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    public NotificationOutboxDispatcher(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(fixedDelayString = "${refund.notification-outbox.poll-interval:PT5S}")
+    public void poll() {
+        dispatchPending();
+    }
+
+    /**
+     * Sends every pending notification this node can claim. Returns the number of notifications claimed.
+     */
+    public int dispatchPending() {
+        int claimed = boundedFanOut.drain(this::claimPage, maxConcurrency, this::send);
+        if (claimed > 0) {
+            LOG.info("Dispatched {} refund notifications from the outbox", claimed);
+        }
+        return claimed;
+    }
+
+    private List<Long> claimPage() {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = notificationOutboxRepository.lockUnclaimedPending(Math.max(1, pageSize));
+            if (!ids.isEmpty()) {
+                notificationOutboxRepository.claim(ids, claimSeconds);
+            }
+            return ids;
+        });
+    }
+
+    private void send(Long id) {
+        MultiValueMap<String, String> headers;
+        try {
+            headers = getHttpHeaders();
+        } catch (RuntimeException e) {
+            LOG.error("Unable to get a token to send outbox notification {}, it will be retried", id, e);
+            return;
+        }
+
+        try {
+            notificationOutboxRepository.findById(id)
+                .filter(entry -> NotificationOutbox.PENDING.equals(entry.getStatus()))
+                .ifPresent(entry -> deliver(entry, headers));
+        } catch (RuntimeException e) {
+            LOG.error("Sending outbox notification {} failed", id, e);
+            transactionTemplate.executeWithoutResult(status -> notificationOutboxRepository.findPendingForUpdate(id)
+                .ifPresent(this::recordFailure));
+        }
+    }
+
+    private void deliver(NotificationOutbox entry, MultiValueMap<String, String> headers) {
+        Refund refund = refundsRepository.findByReferenceOrThrow(entry.getRefundReference());
+
+        Notification notificationDetails = notificationService.getNotificationDetails(headers, entry.getOriginalRefundReference());
+        if (notificationDetails == null) {
+            LOG.error("Notification not found. Not able to send notification.");
+        } else {
+            ContactDetails newContact = ContactDetails.contactDetailsWith()
+                .notificationType(notificationDetails.getNotificationType())
+                .postalCode(notificationDetails.getContactDetails().getPostalCode())
+                .city(notificationDetails.getContactDetails().getCity())
+                .country(notificationDetails.getContactDetails().getCountry())
+                .county(notificationDetails.getContactDetails().getCounty())
+                .addressLine(notificationDetails.getContactDetails().getAddressLine())
+                .email(notificationDetails.getContactDetails().getEmail())
+                .build();
+            refund.setContactDetails(newContact);
+        }
+
+        String templateId = refundsUtil.getTemplate(refund, entry.getReason());
+        notificationService.updateNotification(headers, refund, null, templateId);
+
+        transactionTemplate.executeWithoutResult(status -> notificationOutboxRepository.findPendingForUpdate(entry.getId())
+            .ifPresent(pending -> recordOutcome(pending, refund)));
+    }
+
+    private void recordOutcome(NotificationOutbox entry, Refund outcome) {
+        // Only the notification fields are copied, so a status change made while Notify was called is kept
+        Refund refund = refundsRepository.findByReferenceOrThrow(entry.getRefundReference());
+        refund.setNotificationSentFlag(outcome.getNotificationSentFlag());
+        refund.setContactDetails(outcome.getContactDetails());
+        refundsRepository.save(refund);
+
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setStatus(NotificationOutbox.DISPATCHED);
+        notificationOutboxRepository.save(entry);
+        LOG.info("Refund {} notification dispatched, notification flag {}", refund.getReference(), refund.getNotificationSentFlag());
+    }
+
+    private void recordFailure(NotificationOutbox entry) {
+        entry.setAttempts(entry.getAttempts() + 1);
+        if (entry.getAttempts() >= maxAttempts) {
+            entry.setStatus(NotificationOutbox.FAILED);
+            LOG.error("Giving up on notification for refund {} after {} attempts", entry.getRefundReference(), entry.getAttempts());
+        }
+        notificationOutboxRepository.save(entry);
+    }
+
+    private MultiValueMap<String, String> getHttpHeaders() {
+        MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+        headers.put("content-type", Collections.singletonList("application/json"));
+        headers.put("authorization", Collections.singletonList("Bearer " + liberataTokenManager.getAccessToken()));
+        return headers;
+    }
+}
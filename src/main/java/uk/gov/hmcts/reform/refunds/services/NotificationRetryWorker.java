@@ -0,0 +1,93 @@
+package uk.gov.hmcts.reform.refunds.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
+import uk.gov.hmcts.reform.refunds.utils.BoundedFanOut;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static uk.gov.hmcts.reform.refunds.dtos.requests.RefundNotificationFlag.SENT;
+
+/**
+ * Drains refunds whose notification failed, so any number of nodes can run the retry job at once.
+ *
+ * <p>Each node claims a page of refunds by locking unclaimed rows with {@code FOR UPDATE SKIP LOCKED} and
+ * stamping them with a claim that expires after {@code claim-seconds}. Rows claimed by one node are skipped by the
+ * others, so the claim alone keeps a refund from being sent twice. The Payment API, IDAM and Notify calls are made
+ * outside any transaction; only once Notify has accepted the notification is the row locked, just long enough to
+ * check the flag is unchanged and mark it sent. A refund that fails keeps its claim until it expires and is picked
+ * up by a later run.
+ */
+@Component
+public class NotificationRetryWorker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationRetryWorker.class);
+
+    @Autowired
+    private RefundsRepository refundsRepository;
+
+    @Autowired
+    private BoundedFanOut boundedFanOut;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${refund.notification-retry.page-size:50}")
+    private int pageSize;
+
+    @Value("${refund.notification-retry.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${refund.notification-retry.claim-seconds:600}")
+    private int claimSeconds;
+
+    public NotificationRetryWorker(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Sends every unclaimed refund carrying the given notification flag, running at most {@code max-concurrency}
+     * sends at a time. The sender returns whether the notification was accepted. Returns the number of refunds this
+     * node claimed.
+     */
+    public int retry(String notificationSentFlag, Predicate<Refund> sender) {
+        int claimed = boundedFanOut.drain(() -> claimPage(notificationSentFlag), maxConcurrency,
+                                          id -> send(id, notificationSentFlag, sender));
+        LOG.info("Retried {} refund notifications flagged {}", claimed, notificationSentFlag);
+        return claimed;
+    }
+
+    private List<Integer> claimPage(String notificationSentFlag) {
+        return transactionTemplate.execute(status -> {
+            List<Integer> ids = refundsRepository.lockUnclaimedByNotificationSentFlag(notificationSentFlag, Math.max(1, pageSize));
+            if (!ids.isEmpty()) {
+                refundsRepository.claimNotifications(ids, claimSeconds);
+            }
+            return ids;
+        });
+    }
+
+    private void send(Integer id, String notificationSentFlag, Predicate<Refund> sender) {
+        boolean sent = refundsRepository.findByIdAndNotificationSentFlag(id, notificationSentFlag)
+            .map(sender::test)
+            .orElse(false);
+        if (sent) {
+            transactionTemplate.executeWithoutResult(status -> refundsRepository
+                .findByIdAndNotificationSentFlagForUpdate(id, notificationSentFlag)
+                .ifPresent(refund -> {
+                    refund.setNotificationSentFlag(SENT.getFlag());
+                    refund.setContactDetails(null);
+                    refundsRepository.save(refund);
+                }));
+        }
+    }
+}
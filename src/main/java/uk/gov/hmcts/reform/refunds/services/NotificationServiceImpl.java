@@ -18,6 +18,7 @@ import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.refunds.cache.CustomerReferenceCache;
 import uk.gov.hmcts.reform.refunds.dtos.requests.DocPreviewRequest;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundNotificationEmailRequest;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundNotificationLetterRequest;
@@ -27,6 +28,7 @@ import uk.gov.hmcts.reform.refunds.dtos.responses.NotificationTemplatePreviewRes
 import uk.gov.hmcts.reform.refunds.dtos.responses.NotificationsDtoResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentGroupResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentResponse;
+import uk.gov.hmcts.reform.refunds.exceptions.GatewayTimeoutException;
 import uk.gov.hmcts.reform.refunds.exceptions.InvalidRefundNotificationResendRequestException;
 import uk.gov.hmcts.reform.refunds.mapper.RefundNotificationMapper;
 import uk.gov.hmcts.reform.refunds.model.ContactDetails;
@@ -35,7 +37,6 @@ import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
 import uk.gov.hmcts.reform.refunds.utils.RefundsUtil;
 import uk.gov.hmcts.reform.refunds.utils.StatusHistoryUtil;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -79,6 +80,9 @@ public class NotificationServiceImpl implements NotificationService {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private CustomerReferenceCache customerReferenceCache;
+
     @Autowired
     private StatusHistoryUtil statusHistoryUtil;
 
@@ -101,7 +105,7 @@ public class NotificationServiceImpl implements NotificationService {
                     new HttpEntity<>(refundNotificationEmailRequest, getFormatedHeaders(headers)),String.class);
         } catch (HttpClientErrorException exception) {
             handleHttpClientErrorException(exception);
-        } catch (HttpServerErrorException exception) {
+        } catch (HttpServerErrorException | GatewayTimeoutException exception) {
             log.error("Exception message {}",exception.getMessage());
             log.error("Notification service is unavailable. Please try again later. {}", exception);
         }
@@ -119,7 +123,7 @@ public class NotificationServiceImpl implements NotificationService {
                     getFormatedHeaders(headers)),String.class);
         } catch (HttpClientErrorException exception) {
             handleHttpClientErrorException(exception);
-        } catch (HttpServerErrorException exception) {
+        } catch (HttpServerErrorException | GatewayTimeoutException exception) {
             log.info("Notification service is unavailable. Please try again later.");
         }
         return new ResponseEntity<>("Notification service is unavailable",HttpStatus.SERVICE_UNAVAILABLE);
@@ -344,20 +348,19 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     public String retrieveCustomerReference(MultiValueMap<String, String> headers, String paymentReference) {
-        String customerReference = "";
-        List<String> paymentReferenceList = new ArrayList<>();
-        paymentReferenceList.add(paymentReference);
+        return customerReferenceCache.get(paymentReference, reference -> fetchCustomerReference(headers, reference));
+    }
 
+    private String fetchCustomerReference(MultiValueMap<String, String> headers, String paymentReference) {
         PaymentGroupResponse paymentData = paymentService.fetchPaymentGroupResponse(headers, paymentReference);
 
         // Loop through the payment responses to get the customer reference
         for (PaymentResponse paymentDtoResponse : paymentData.getPayments()) {
             if (paymentDtoResponse.getCustomerReference() != null) {
-                customerReference = paymentDtoResponse.getCustomerReference();
-                break;
+                return paymentDtoResponse.getCustomerReference();
             }
         }
-        return customerReference;
+        return "";
     }
 
     private String determineCorrectReasonForTemplate(Refund refund) {
@@ -6,6 +6,7 @@ import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentDto;
 import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentGroupResponse;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PaymentService {
     PaymentGroupResponse fetchPaymentGroupResponse(MultiValueMap<String, String> headers, String paymentReference);
@@ -14,4 +15,9 @@ public interface PaymentService {
                                           RefundResubmitPayhubRequest refundResubmitPayhubRequest);
 
     List<PaymentDto> fetchPaymentResponse(List<String> refunds);
+
+    /**
+     * As {@link #fetchPaymentResponse(List)}, handing each chunk of payments to the listener as soon as it arrives.
+     */
+    List<PaymentDto> fetchPaymentResponse(List<String> refunds, Consumer<List<PaymentDto>> chunkListener);
 }
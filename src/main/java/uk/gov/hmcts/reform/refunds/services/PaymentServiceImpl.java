@@ -1,5 +1,7 @@
 package uk.gov.hmcts.reform.refunds.services;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +19,7 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.refunds.cache.PaymentGroupCache;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundResubmitPayhubRequest;
 import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentDto;
 import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentGroupResponse;
@@ -24,15 +27,22 @@ import uk.gov.hmcts.reform.refunds.exceptions.InvalidRefundRequestException;
 import uk.gov.hmcts.reform.refunds.exceptions.PaymentInvalidRequestException;
 import uk.gov.hmcts.reform.refunds.exceptions.PaymentReferenceNotFoundException;
 import uk.gov.hmcts.reform.refunds.exceptions.PaymentServerException;
+import uk.gov.hmcts.reform.refunds.utils.BoundedFanOut;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
+@SuppressWarnings({"PMD.DoNotUseThreads"})
 public class PaymentServiceImpl implements PaymentService {
 
     public static final String CONTENT_TYPE = "content-type";
+    public static final String REFUND_PAYMENTS_FETCH_CHUNK_TIMER = "refunds.payments.fetch.chunk";
+    private static final String PAYMENT_SERVER_EXCEPTION_MSG = "Payment Server Exception";
     @Qualifier("restTemplatePayment")
     @Autowired()
     private RestTemplate restTemplatePayment;
@@ -40,14 +50,34 @@ public class PaymentServiceImpl implements PaymentService {
     @Value("${payments.api.url}")
     private String paymentApiUrl;
 
+    @Value("${payments.api.refund-payments.chunk-size:100}")
+    private int refundPaymentsChunkSize;
+
+    @Value("${payments.api.refund-payments.max-concurrency:4}")
+    private int refundPaymentsMaxConcurrency;
+
     @Autowired
     private AuthTokenGenerator authTokenGenerator;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PaymentGroupCache paymentGroupCache;
+
+    @Autowired
+    private BoundedFanOut boundedFanOut;
+
     private static Logger logger = LoggerFactory.getLogger(PaymentServiceImpl.class);
 
     @Override
     public PaymentGroupResponse fetchPaymentGroupResponse(MultiValueMap<String, String> headers,
                                                           String paymentReference) {
+        return paymentGroupCache.get(paymentReference, reference -> loadPaymentGroupResponse(headers, reference));
+    }
+
+    private PaymentGroupResponse loadPaymentGroupResponse(MultiValueMap<String, String> headers,
+                                                          String paymentReference) {
         try {
             ResponseEntity<PaymentGroupResponse> paymentGroupResponse =
                     fetchPaymentGroupDataFromPayhub(headers, paymentReference);
@@ -64,7 +94,7 @@ public class PaymentServiceImpl implements PaymentService {
             throw new PaymentInvalidRequestException("Invalid Request: Payhub", e);
         } catch (Exception e) {
             logger.error(e.getMessage());
-            throw new PaymentServerException("Payment Server Exception", e);
+            throw new PaymentServerException(PAYMENT_SERVER_EXCEPTION_MSG, e);
         }
     }
 
@@ -121,6 +151,9 @@ public class PaymentServiceImpl implements PaymentService {
         } catch (Exception exception) {
             logger.error("Update Remission Server Exception",exception);
             throw new PaymentServerException("Payment server unavailable. Please try again.", exception);
+        } finally {
+            // The payment may have changed even when the call failed
+            paymentGroupCache.invalidate(paymentReference);
         }
         return false;
     }
@@ -181,16 +214,74 @@ public class PaymentServiceImpl implements PaymentService {
 
     @Override
     public List<PaymentDto> fetchPaymentResponse(List<String> paymentReference) {
+        return fetchPaymentResponse(paymentReference, chunkPayments -> { });
+    }
 
+    @Override
+    public List<PaymentDto> fetchPaymentResponse(List<String> paymentReference, Consumer<List<PaymentDto>> chunkListener) {
+        int chunkSize = Math.max(1, refundPaymentsChunkSize);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < paymentReference.size(); i += chunkSize) {
+            chunks.add(paymentReference.subList(i, Math.min(i + chunkSize, paymentReference.size())));
+        }
+        if (chunks.size() <= 1) {
+            List<PaymentDto> payments = fetchPaymentResponseChunk(paymentReference);
+            notifyChunkListener(chunkListener, payments);
+            return payments;
+        }
+        logger.info("Fetching {} payments from Payment API in {} chunks", paymentReference.size(), chunks.size());
+
+        List<PaymentDto> payments = new ArrayList<>(paymentReference.size());
+        try {
+            // A failed chunk fails the whole fetch, and cancels the chunks still in flight
+            boundedFanOut.map(chunks, refundPaymentsMaxConcurrency, chunk -> {
+                List<PaymentDto> chunkPayments = fetchPaymentResponseChunk(chunk);
+                notifyChunkListener(chunkListener, chunkPayments);
+                return chunkPayments;
+            }).forEach(chunkPayments -> {
+                if (chunkPayments != null) {
+                    payments.addAll(chunkPayments);
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentServerException(PAYMENT_SERVER_EXCEPTION_MSG, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PaymentServerException paymentServerException) {
+                throw paymentServerException;
+            }
+            throw new PaymentServerException(PAYMENT_SERVER_EXCEPTION_MSG, e.getCause());
+        }
+        return payments;
+    }
+
+    private void notifyChunkListener(Consumer<List<PaymentDto>> chunkListener, List<PaymentDto> chunkPayments) {
+        if (chunkPayments == null || chunkPayments.isEmpty()) {
+            return;
+        }
+        try {
+            chunkListener.accept(chunkPayments);
+        } catch (RuntimeException e) {
+            logger.warn("Payment chunk listener failed", e);
+        }
+    }
+
+    private List<PaymentDto> fetchPaymentResponseChunk(List<String> paymentReference) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
         try {
             ResponseEntity<List<PaymentDto>> paymentResponse =
                 fetchRefundPaymentFromPayhub(paymentReference);
             logger.info("payment Response status code {}", paymentResponse.getStatusCode());
+            outcome = "success";
             return  paymentResponse.getBody();
         } catch (Exception e) {
-            throw new PaymentServerException("Payment Server Exception", e);
+            throw new PaymentServerException(PAYMENT_SERVER_EXCEPTION_MSG, e);
+        } finally {
+            sample.stop(Timer.builder(REFUND_PAYMENTS_FETCH_CHUNK_TIMER)
+                            .description("Time taken to fetch one chunk of refund payments from Payment API")
+                            .tag("outcome", outcome)
+                            .register(meterRegistry));
         }
     }
-
-
 }
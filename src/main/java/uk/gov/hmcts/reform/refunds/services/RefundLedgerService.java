@@ -0,0 +1,38 @@
+package uk.gov.hmcts.reform.refunds.services;
+
+import uk.gov.hmcts.reform.refunds.model.Refund;
+import uk.gov.hmcts.reform.refunds.model.RefundStatus;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface RefundLedgerService {
+
+    /**
+     * Locks the payment's ledger row until the surrounding transaction ends and returns its refunded total.
+     * Every change to a refund's amount or status locks the ledger first, so concurrent changes to refunds
+     * against the same payment are applied one at a time.
+     */
+    BigDecimal lockRefundedAmount(String paymentReference);
+
+    /**
+     * Locks the ledger row of the refund's payment and then the refund row, and returns the refund as read under
+     * both locks. Changes to a refund must be validated and counted against this copy, not one read before the
+     * lock, or two concurrent changes could both apply the same delta.
+     */
+    Optional<Refund> lockRefund(String reference);
+
+    /**
+     * Applies the change in a refund's counted amount to its payment's ledger, which must already be locked.
+     */
+    void recordRefundedAmountChange(String paymentReference, BigDecimal previousAmount, BigDecimal currentAmount);
+
+    static BigDecimal countedAmount(Refund refund) {
+        if (refund.getAmount() == null || refund.getRefundStatus() == null
+            || RefundStatus.CLOSED.getName().equals(refund.getRefundStatus().getName())
+            || RefundStatus.REJECTED.getName().equals(refund.getRefundStatus().getName())) {
+            return BigDecimal.ZERO;
+        }
+        return refund.getAmount();
+    }
+}
@@ -0,0 +1,63 @@
+package uk.gov.hmcts.reform.refunds.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uk.gov.hmcts.reform.refunds.model.PaymentRefundLedger;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+import uk.gov.hmcts.reform.refunds.repository.PaymentRefundLedgerRepository;
+import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@Service
+public class RefundLedgerServiceImpl implements RefundLedgerService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RefundLedgerServiceImpl.class);
+
+    @Autowired
+    private PaymentRefundLedgerRepository paymentRefundLedgerRepository;
+
+    @Autowired
+    private RefundsRepository refundsRepository;
+
+    @Override
+    @Transactional
+    public BigDecimal lockRefundedAmount(String paymentReference) {
+        paymentRefundLedgerRepository.insertIfAbsent(paymentReference);
+        return paymentRefundLedgerRepository.findForUpdate(paymentReference)
+            .map(PaymentRefundLedger::getRefundedAmount)
+            .orElse(BigDecimal.ZERO);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Refund> lockRefund(String reference) {
+        return refundsRepository.findPaymentReferenceByReference(reference)
+            .flatMap(paymentReference -> {
+                lockRefundedAmount(paymentReference);
+                return refundsRepository.findByReferenceForUpdate(reference);
+            });
+    }
+
+    @Override
+    @Transactional
+    public void recordRefundedAmountChange(String paymentReference, BigDecimal previousAmount, BigDecimal currentAmount) {
+        BigDecimal change = currentAmount.subtract(previousAmount);
+        if (change.signum() == 0) {
+            return;
+        }
+        Optional<PaymentRefundLedger> ledgerEntry = paymentRefundLedgerRepository.findForUpdate(paymentReference);
+        if (ledgerEntry.isEmpty()) {
+            LOG.warn("No refund ledger entry for payment {}, change of {} not recorded", paymentReference, change);
+            return;
+        }
+        PaymentRefundLedger ledger = ledgerEntry.get();
+        ledger.setRefundedAmount(ledger.getRefundedAmount().add(change));
+        paymentRefundLedgerRepository.save(ledger);
+        LOG.info("Refunded amount for payment {} changed by {}", paymentReference, change);
+    }
+}
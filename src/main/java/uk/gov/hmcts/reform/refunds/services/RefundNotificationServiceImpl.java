@@ -1,8 +1,6 @@
 package uk.gov.hmcts.reform.refunds.services;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,11 +12,11 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.refunds.cache.ServiceAccountTokenManager;
 import uk.gov.hmcts.reform.refunds.dtos.enums.NotificationType;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundNotificationEmailRequest;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundNotificationLetterRequest;
 import uk.gov.hmcts.reform.refunds.dtos.requests.ResendNotificationRequest;
-import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
 import uk.gov.hmcts.reform.refunds.exceptions.InvalidRefundNotificationResendRequestException;
 import uk.gov.hmcts.reform.refunds.exceptions.RefundIdamNotificationException;
 import uk.gov.hmcts.reform.refunds.mapper.RefundNotificationMapper;
@@ -27,11 +25,7 @@ import uk.gov.hmcts.reform.refunds.model.Refund;
 import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
 import uk.gov.hmcts.reform.refunds.utils.StateUtil;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 import static uk.gov.hmcts.reform.refunds.dtos.enums.NotificationType.EMAIL;
 import static uk.gov.hmcts.reform.refunds.dtos.enums.NotificationType.LETTER;
@@ -58,7 +52,7 @@ public class RefundNotificationServiceImpl extends StateUtil implements RefundNo
     private static final Logger LOG = LoggerFactory.getLogger(RefundNotificationServiceImpl.class);
 
     @Autowired
-    private IdamService idamService;
+    private ServiceAccountTokenManager serviceAccountTokenManager;
 
     @Autowired
     private AuthTokenGenerator authTokenGenerator;
@@ -66,6 +60,9 @@ public class RefundNotificationServiceImpl extends StateUtil implements RefundNo
     @Autowired
     PaymentService paymentService;
 
+    @Autowired
+    private NotificationRetryWorker notificationRetryWorker;
+
     @Override
     public ResponseEntity<String> resendRefundNotification(ResendNotificationRequest resendNotificationRequest,
                                                            MultiValueMap<String, String> headers) {
@@ -130,83 +127,48 @@ public class RefundNotificationServiceImpl extends StateUtil implements RefundNo
 
     @Override
     public void processFailedNotificationsEmail() throws JsonProcessingException {
-        String notificationSentFlag = "EMAIL_NOT_SENT";
-        Optional<List<Refund>> refundList;
-        LOG.info("process failed notification email fetching refund list ...");
-        refundList =  refundsRepository.findByNotificationSentFlag(notificationSentFlag);
-        List<Refund> refundListAll = new ArrayList<>();
-        if (refundList.isPresent()) {
-            refundListAll = refundList.get();
-        }
-        LOG.info("process failed notification email refund list all -> {}", refundListAll.size());
-        refundListAll.stream().collect(Collectors.toList())
-            .forEach(refund -> {
-
-                LOG.info("Refund object : {}",  refund.toString());
-                if (null != refund.getContactDetails() && refund.getContactDetails()
-                        .getNotificationType().equalsIgnoreCase("email")) {
-                    refund.setNotificationSentFlag("EMAIL_NOT_SENT");
-
-                    String customerReference = notificationService.retrieveCustomerReference(getHttpHeaders(), refund.getPaymentReference());
-
-                    RefundNotificationEmailRequest refundNotificationEmailRequest = refundNotificationMapper
-                        .getRefundNotificationEmailRequestApproveJourney(refund, customerReference);
-                    ResponseEntity<String> responseEntity;
-                    LOG.info("Refund Notification Email Request {}", refundNotificationEmailRequest);
-                    responseEntity = notificationService.postEmailNotificationData(getHttpHeaders(),
-                        refundNotificationEmailRequest);
-                    LOG.info("Response Code from Notification service Email {}", responseEntity.getStatusCode());
-                    if (responseEntity.getStatusCode().is2xxSuccessful()) {
-                        refund.setNotificationSentFlag("SENT");
-                        refund.setContactDetails(null);
-                    }
-                    refundsRepository.save(refund);
-                    LOG.info("Refund notification email update saved..");
-                }
-            });
+        LOG.info("process failed notification email ...");
+        notificationRetryWorker.retry(EMAILNOTSENT.getFlag(), this::retryEmailNotification);
     }
 
     @Override
     public void processFailedNotificationsLetter() throws JsonProcessingException {
-        String notificationSentFlag = "LETTER_NOT_SENT";
-        Optional<List<Refund>> refundList;
-        List<Refund> refundListAll = new ArrayList<>();
-        LOG.info("process failed notification letter fetching refund list ...");
-        refundList =  refundsRepository.findByNotificationSentFlag(notificationSentFlag);
-        if (refundList.isPresent()) {
-            refundListAll = refundList.get();
+        LOG.info("process failed notification letter ...");
+        notificationRetryWorker.retry(LETTERNOTSENT.getFlag(), this::retryLetterNotification);
+    }
+
+    private boolean retryEmailNotification(Refund refund) {
+        if (null == refund.getContactDetails() || !refund.getContactDetails()
+                .getNotificationType().equalsIgnoreCase("email")) {
+            return false;
+        }
+        MultiValueMap<String, String> httpHeaders = getHttpHeaders();
+        String customerReference = notificationService.retrieveCustomerReference(httpHeaders, refund.getPaymentReference());
+
+        RefundNotificationEmailRequest refundNotificationEmailRequest = refundNotificationMapper
+            .getRefundNotificationEmailRequestApproveJourney(refund, customerReference);
+        LOG.info("Refund Notification Email Request {}", refundNotificationEmailRequest);
+        ResponseEntity<String> responseEntity = notificationService.postEmailNotificationData(httpHeaders,
+            refundNotificationEmailRequest);
+        LOG.info("Response Code from Notification service Email {}", responseEntity.getStatusCode());
+        return responseEntity.getStatusCode().is2xxSuccessful();
+    }
+
+    private boolean retryLetterNotification(Refund refund) {
+        if (null == refund.getContactDetails() || !refund.getContactDetails()
+                .getNotificationType().equalsIgnoreCase("letter")) {
+            return false;
         }
-        LOG.info("process failed notification letter refund list all -> {}", refundListAll.size());
-        refundListAll.stream().collect(Collectors.toList())
-            .forEach(refund -> {
-
-                ObjectWriter ow = new ObjectMapper().writer().withDefaultPrettyPrinter();
-                try {
-                    ow.writeValueAsString(refund);
-                } catch (JsonProcessingException e) {
-                    LOG.error("RJsonProcessingException. {}", e);
-                }
-                if (null != refund.getContactDetails() && refund.getContactDetails()
-                        .getNotificationType().equalsIgnoreCase("letter")) {
-                    refund.setNotificationSentFlag("LETTER_NOT_SENT");
-
-                    String customerReference = notificationService.retrieveCustomerReference(getHttpHeaders(), refund.getPaymentReference());
-
-                    RefundNotificationLetterRequest refundNotificationLetterRequest = refundNotificationMapper
-                        .getRefundNotificationLetterRequestApproveJourney(refund, customerReference);
-                    ResponseEntity<String> responseEntity;
-                    LOG.info("Refund Notification Letter Request {}", refundNotificationLetterRequest);
-                    responseEntity = notificationService.postLetterNotificationData(getHttpHeaders(),
-                        refundNotificationLetterRequest);
-                    LOG.info("Response Code from Notification service Letter {}", responseEntity.getStatusCode());
-                    if (responseEntity.getStatusCode().is2xxSuccessful()) {
-                        refund.setNotificationSentFlag("SENT");
-                        refund.setContactDetails(null);
-                    }
-                    refundsRepository.save(refund);
-                    LOG.info("Refund notification letter update saved..");
-                }
-            });
+        MultiValueMap<String, String> httpHeaders = getHttpHeaders();
+        String customerReference = notificationService.retrieveCustomerReference(httpHeaders, refund.getPaymentReference());
+
+        RefundNotificationLetterRequest refundNotificationLetterRequest = refundNotificationMapper
+            .getRefundNotificationLetterRequestApproveJourney(refund, customerReference);
+        LOG.info("Refund Notification Letter Request {}", refundNotificationLetterRequest);
+        ResponseEntity<String> responseEntity = notificationService.postLetterNotificationData(httpHeaders,
+            refundNotificationLetterRequest);
+        LOG.info("Response Code from Notification service Letter {}", responseEntity.getStatusCode());
+        return responseEntity.getStatusCode().is2xxSuccessful();
     }
 
     private MultiValueMap<String,String> getHttpHeaders() {
@@ -229,8 +191,6 @@ public class RefundNotificationServiceImpl extends StateUtil implements RefundNo
     }
 
     private String getAccessToken() {
-        IdamTokenResponse idamTokenResponse = idamService.getSecurityTokens();
-        LOG.info("idamTokenResponse {}",idamTokenResponse.getAccessToken());
-        return idamTokenResponse.getAccessToken();
+        return serviceAccountTokenManager.getAccessToken();
     }
 }
@@ -12,6 +12,7 @@ import uk.gov.hmcts.reform.refunds.dtos.responses.IdamUserIdResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentGroupResponse;
 import uk.gov.hmcts.reform.refunds.exceptions.ForbiddenToApproveRefundException;
 import uk.gov.hmcts.reform.refunds.exceptions.InvalidRefundReviewRequestException;
+import uk.gov.hmcts.reform.refunds.exceptions.RefundNotFoundException;
 import uk.gov.hmcts.reform.refunds.mappers.RefundReviewMapper;
 import uk.gov.hmcts.reform.refunds.model.Refund;
 import uk.gov.hmcts.reform.refunds.model.RefundStatus;
@@ -23,6 +24,7 @@ import uk.gov.hmcts.reform.refunds.utils.RefundServiceRoleUtil;
 import uk.gov.hmcts.reform.refunds.utils.RefundsUtil;
 import uk.gov.hmcts.reform.refunds.utils.StateUtil;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -56,6 +58,9 @@ public class RefundReviewServiceImpl extends StateUtil implements RefundReviewSe
 
     @Autowired
     private RefundsUtil refundsUtil;
+
+    @Autowired
+    private RefundLedgerService refundLedgerService;
     private static final String NOTES = "Refund cancelled due to payment failure";
     private static final String REFUND_CANCELLED = "Refund cancelled";
     private static final String CANCELLED = "Cancelled";
@@ -119,6 +124,7 @@ public class RefundReviewServiceImpl extends StateUtil implements RefundReviewSe
             RefundStatus.REJECTED,
             RefundStatus.CANCELLED
         );
+        refundLedgerService.lockRefundedAmount(paymentReference);
         List<Refund> refundList = refundsService.getRefundsForPaymentReference(paymentReference);
         List<StatusHistory> statusHistories = new LinkedList<>();
         for (Refund refund : refundList) {
@@ -138,7 +144,9 @@ public class RefundReviewServiceImpl extends StateUtil implements RefundReviewSe
     }
 
     private Refund validatedAndGetRefundForGivenReference(String reference, String userId) {
-        Refund refund = refundsService.getRefundForReference(reference);
+        // validated under the ledger lock, so of two concurrent reviews only the first sees the refund submitted
+        Refund refund = refundLedgerService.lockRefund(reference)
+            .orElseThrow(() -> new RefundNotFoundException("Refunds not found for " + reference));
 
         if (refund.getUpdatedBy().equals(userId)) {
             throw new ForbiddenToApproveRefundException("User cannot approve this refund.");
@@ -154,7 +162,12 @@ public class RefundReviewServiceImpl extends StateUtil implements RefundReviewSe
         RefundState updateStatusAfterAction = getRefundState(refund.getRefundStatus().getName());
         // State transition logic
         RefundState newState = updateStatusAfterAction.nextState(refundEvent);
+        // the caller read the refund under its payment's ledger lock
+        BigDecimal previousAmount = RefundLedgerService.countedAmount(refund);
         refund.setRefundStatus(newState.getRefundStatus());
-        return refundsRepository.save(refund);
+        Refund savedRefund = refundsRepository.save(refund);
+        refundLedgerService.recordRefundedAmountChange(refund.getPaymentReference(), previousAmount,
+                                                       RefundLedgerService.countedAmount(refund));
+        return savedRefund;
     }
 }
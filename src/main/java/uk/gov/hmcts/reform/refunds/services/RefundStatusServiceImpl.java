@@ -3,26 +3,24 @@ package uk.gov.hmcts.reform.refunds.services;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MultiValueMap;
-import uk.gov.hmcts.reform.idam.client.IdamClient;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundStatusUpdateRequest;
-import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
-import uk.gov.hmcts.reform.refunds.dtos.responses.Notification;
-import uk.gov.hmcts.reform.refunds.model.ContactDetails;
+import uk.gov.hmcts.reform.refunds.exceptions.RefundNotFoundException;
+import uk.gov.hmcts.reform.refunds.model.NotificationOutbox;
 import uk.gov.hmcts.reform.refunds.model.Refund;
 import uk.gov.hmcts.reform.refunds.model.RefundStatus;
 import uk.gov.hmcts.reform.refunds.model.StatusHistory;
+import uk.gov.hmcts.reform.refunds.repository.NotificationOutboxRepository;
 import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
 import uk.gov.hmcts.reform.refunds.utils.RefundsUtil;
 import uk.gov.hmcts.reform.refunds.utils.StateUtil;
 import uk.gov.hmcts.reform.refunds.utils.StatusHistoryUtil;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
-import java.util.Collections;
 
 @Service
 public class RefundStatusServiceImpl extends StateUtil implements RefundStatusService {
@@ -44,22 +42,10 @@ public class RefundStatusServiceImpl extends StateUtil implements RefundStatusSe
     private StatusHistoryUtil statusHistoryUtil;
 
     @Autowired
-    private NotificationService notificationService;
+    private NotificationOutboxRepository notificationOutboxRepository;
 
     @Autowired
-    private IdamService idamService;
-
-    @Autowired
-    RefundsUtil refundsUtil;
-
-    @Autowired
-    private IdamClient idamClient;
-
-    @Value("${liberataUser.username}")
-    private String liberataUsername;
-
-    @Value("${liberataUser.password}")
-    private String liberataPassword;
+    private RefundLedgerService refundLedgerService;
 
     private StatusHistory getStatusHistoryEntity(String uid, RefundStatus refundStatus, String reason) {
         return StatusHistory.statusHistoryWith()
@@ -73,7 +59,10 @@ public class RefundStatusServiceImpl extends StateUtil implements RefundStatusSe
     public ResponseEntity updateRefundStatus(String reference, RefundStatusUpdateRequest statusUpdateRequest, MultiValueMap<String, String> headers) {
         LOG.info("statusUpdateRequest: {}", statusUpdateRequest);
 
-        Refund refund = refundsRepository.findByReferenceOrThrow(reference);
+        // read under the ledger lock, so a retried callback sees the status the first one set
+        Refund refund = refundLedgerService.lockRefund(reference)
+            .orElseThrow(() -> new RefundNotFoundException("Refund not found for given reference"));
+        final BigDecimal previousAmount = RefundLedgerService.countedAmount(refund);
         final boolean isAClonedRefund = statusHistoryUtil.isAClonedRefund(refund);
 
         if (statusUpdateRequest.getStatus().getCode().equals(ACCEPTED)) {
@@ -99,30 +88,12 @@ public class RefundStatusServiceImpl extends StateUtil implements RefundStatusSe
                 LIBERATA_REASON)
             ));
 
-            IdamTokenResponse idamTokenResponse = idamService.getSecurityTokens(liberataUsername, liberataPassword);
-            String authorization =  "Bearer " + idamTokenResponse.getAccessToken();
-            headers.put("authorization", Collections.singletonList(authorization));
-
-            Notification notificationDetails = notificationService.getNotificationDetails(headers, originalRefundReference);
-
-            if (notificationDetails == null) {
-                LOG.error("Notification not found. Not able to send notification.");
-            } else {
-                ContactDetails newContact = ContactDetails.contactDetailsWith()
-                    .notificationType(notificationDetails.getNotificationType())
-                    .postalCode(notificationDetails.getContactDetails().getPostalCode())
-                    .city(notificationDetails.getContactDetails().getCity())
-                    .country(notificationDetails.getContactDetails().getCountry())
-                    .county(notificationDetails.getContactDetails().getCounty())
-                    .addressLine(notificationDetails.getContactDetails().getAddressLine())
-                    .email(notificationDetails.getContactDetails().getEmail())
-                    .build();
-                refund.setContactDetails(newContact);
-            }
-
-
-            String templateId =  refundsUtil.getTemplate(refund, statusUpdateRequest.getReason());
-            notificationService.updateNotification(headers, refund, null, templateId);
+            // Notify is called by the outbox dispatcher once this transaction commits
+            notificationOutboxRepository.save(NotificationOutbox.notificationOutboxWith()
+                                                  .refundReference(refund.getReference())
+                                                  .originalRefundReference(originalRefundReference)
+                                                  .reason(statusUpdateRequest.getReason())
+                                                  .build());
 
         } else if (statusUpdateRequest.getStatus().getCode().equals(EXPIRED)) {
             refund.setRefundStatus(RefundStatus.EXPIRED);
@@ -157,6 +128,8 @@ public class RefundStatusServiceImpl extends StateUtil implements RefundStatusSe
                 ));
             }
         }
+        refundLedgerService.recordRefundedAmountChange(refund.getPaymentReference(), previousAmount,
+                                                       RefundLedgerService.countedAmount(refund));
         return new ResponseEntity<>("Refund status updated successfully", HttpStatus.NO_CONTENT);
     }
 }
@@ -0,0 +1,16 @@
+package uk.gov.hmcts.reform.refunds.services;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+
+public interface RefundsReportService {
+
+    /**
+     * Writes the refunds report for the given date range to the output stream as JSON, or as CSV
+     * when the media type is {@code text/csv}, reading the rows as a stream rather than a list.
+     */
+    void writeRefundsReport(Date startDate, Date endDate, MediaType mediaType, OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,117 @@
+package uk.gov.hmcts.reform.refunds.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import uk.gov.hmcts.reform.refunds.dtos.RefundsReportDto;
+import uk.gov.hmcts.reform.refunds.mapper.RefundsReportMapper;
+import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class RefundsReportServiceImpl implements RefundsReportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RefundsReportServiceImpl.class);
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String REPORT_LIST_FIELD = "refunds_report_list";
+
+    private static final String CSV_HEADER = "date_created,date_updated,amount,RF_reference,payment_reference,"
+        + "ccd_case_number,service_type,refund_status,refund_status_reason";
+
+    @Autowired
+    private RefundsRepository refundsRepository;
+
+    @Autowired
+    private RefundsReportMapper refundsReportMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void writeRefundsReport(Date startDate, Date endDate, MediaType mediaType, OutputStream outputStream)
+        throws IOException {
+        try (Stream<Tuple> refundsTuples = refundsRepository.streamAllRefundsByDateCreatedBetween(startDate, endDate)) {
+            Iterator<RefundsReportDto> rows = refundsTuples.map(refundsReportMapper::getRefundsReportDto).iterator();
+            long rowCount = TEXT_CSV.isCompatibleWith(mediaType) ? writeCsv(rows, outputStream) : writeJson(rows, outputStream);
+            LOG.info("Refunds report streamed with {} rows", rowCount);
+        }
+    }
+
+    private long writeJson(Iterator<RefundsReportDto> rows, OutputStream outputStream) throws IOException {
+        ObjectWriter rowWriter = objectMapper.writerFor(RefundsReportDto.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long rowCount = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeFieldName(REPORT_LIST_FIELD);
+            generator.writeStartArray();
+            while (rows.hasNext()) {
+                rowWriter.writeValue(generator, rows.next());
+                rowCount++;
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return rowCount;
+    }
+
+    private long writeCsv(Iterator<RefundsReportDto> rows, OutputStream outputStream) throws IOException {
+        DateFormat dateFormat = (DateFormat) objectMapper.getDateFormat().clone();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long rowCount = 0;
+        while (rows.hasNext()) {
+            RefundsReportDto row = rows.next();
+            writer.write(String.join(
+                ",",
+                csvValue(row.getRefundDateCreated() == null ? null : dateFormat.format(row.getRefundDateCreated())),
+                csvValue(row.getRefundDateUpdated() == null ? null : dateFormat.format(row.getRefundDateUpdated())),
+                csvValue(row.getAmount() == null ? null : row.getAmount().toPlainString()),
+                csvValue(row.getRefundReference()),
+                csvValue(row.getPaymentReference()),
+                csvValue(row.getCcdCaseNumber()),
+                csvValue(row.getServiceType()),
+                csvValue(row.getRefundStatus()),
+                csvValue(row.getNotes())
+            ));
+            writer.write('\n');
+            rowCount++;
+        }
+        writer.flush();
+        return rowCount;
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
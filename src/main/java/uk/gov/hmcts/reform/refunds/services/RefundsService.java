@@ -2,7 +2,6 @@ package uk.gov.hmcts.reform.refunds.services;
 
 import org.apache.commons.validator.routines.checkdigit.CheckDigitException;
 import org.springframework.util.MultiValueMap;
-import uk.gov.hmcts.reform.refunds.dtos.RefundsReportDto;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundRequest;
 import uk.gov.hmcts.reform.refunds.dtos.requests.ResubmitRefundRequest;
 import uk.gov.hmcts.reform.refunds.dtos.responses.IdamUserIdResponse;
@@ -16,7 +15,6 @@ import uk.gov.hmcts.reform.refunds.dtos.responses.StatusHistoryResponseDto;
 import uk.gov.hmcts.reform.refunds.model.Refund;
 import uk.gov.hmcts.reform.refunds.state.RefundEvent;
 
-import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,6 +30,9 @@ public interface RefundsService {
     RefundListDtoResponse getRefundList(String status, MultiValueMap<String, String> headers, String ccdCaseNumber,
                                         String excludeCurrentUser);
 
+    RefundListDtoResponse getRefundList(String status, MultiValueMap<String, String> headers, String ccdCaseNumber,
+                                        String excludeCurrentUser, Integer pageSize, String cursor);
+
     Optional<List<Refund>> getPaymentFailureReport(List<String> paymentReference);
 
     PaymentFailureReportDtoResponse getPaymentFailureDtoResponse(List<Refund> refundList);
@@ -50,5 +51,4 @@ public interface RefundsService {
 
     RefundResponse initiateReissueRefund(String refundReference, MultiValueMap<String, String> headers, IdamUserIdResponse idamUserIdResponse);
 
-    List<RefundsReportDto> refundsReport(Date startDate, Date endDate, MultiValueMap<String, String> headers);
 }
@@ -4,6 +4,7 @@ import jakarta.persistence.Tuple;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import org.apache.commons.lang3.EnumUtils;
@@ -15,20 +16,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.PathVariable;
-import uk.gov.hmcts.reform.refunds.config.ContextStartListener;
-import uk.gov.hmcts.reform.refunds.dtos.RefundsReportDto;
+import uk.gov.hmcts.reform.refunds.cache.UserDirectory;
 import uk.gov.hmcts.reform.refunds.dtos.requests.Notification;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundRequest;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundResubmitPayhubRequest;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundSearchCriteria;
 import uk.gov.hmcts.reform.refunds.dtos.requests.ResubmitRefundRequest;
-import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.IdamUserIdResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentDto;
 import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentFailureDto;
@@ -47,9 +46,7 @@ import uk.gov.hmcts.reform.refunds.exceptions.ActionNotFoundException;
 import uk.gov.hmcts.reform.refunds.exceptions.InvalidRefundRequestException;
 import uk.gov.hmcts.reform.refunds.exceptions.LargePayloadException;
 import uk.gov.hmcts.reform.refunds.exceptions.RefundNotFoundException;
-import uk.gov.hmcts.reform.refunds.exceptions.RefundReportException;
 import uk.gov.hmcts.reform.refunds.exceptions.ReissueExpiredRefundException;
-import uk.gov.hmcts.reform.refunds.exceptions.UserNotFoundException;
 import uk.gov.hmcts.reform.refunds.mapper.PaymentFailureResponseMapper;
 import uk.gov.hmcts.reform.refunds.mapper.RefundFeeMapper;
 import uk.gov.hmcts.reform.refunds.mapper.RefundResponseMapper;
@@ -70,6 +67,7 @@ import uk.gov.hmcts.reform.refunds.state.RefundEvent;
 import uk.gov.hmcts.reform.refunds.state.RefundState;
 import uk.gov.hmcts.reform.refunds.utils.DateUtil;
 import uk.gov.hmcts.reform.refunds.utils.ReferenceUtil;
+import uk.gov.hmcts.reform.refunds.utils.RefundListCursor;
 import uk.gov.hmcts.reform.refunds.utils.RefundServiceRoleUtil;
 import uk.gov.hmcts.reform.refunds.utils.StateUtil;
 import uk.gov.hmcts.reform.refunds.utils.StatusHistoryUtil;
@@ -83,6 +81,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -98,9 +97,10 @@ import static uk.gov.hmcts.reform.refunds.model.RefundStatus.APPROVED;
 import static uk.gov.hmcts.reform.refunds.model.RefundStatus.REISSUED;
 import static uk.gov.hmcts.reform.refunds.model.RefundStatus.SENTFORAPPROVAL;
 import static uk.gov.hmcts.reform.refunds.model.RefundStatus.UPDATEREQUIRED;
+import static uk.gov.hmcts.reform.refunds.services.IacService.IAC_SERVICE_NAME;
 
 @Service
-@SuppressWarnings({"PMD.PreserveStackTrace", "PMD.ExcessiveImports","PMD.TooManyMethods","PMD.GodClass"})
+@SuppressWarnings({"PMD.PreserveStackTrace", "PMD.ExcessiveImports","PMD.TooManyMethods","PMD.GodClass","PMD.TooManyFields"})
 public class RefundsServiceImpl extends StateUtil implements RefundsService {
 
     private static final Logger LOG = LoggerFactory.getLogger(RefundsServiceImpl.class);
@@ -112,7 +112,6 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
     private static final String ROLEPATTERN = "^payments-refund(?:-approver?)?$";
     private static final String RETROSPECTIVE_REMISSION_REASON = "RR036";
     private static int reasonPrefixLength = 6;
-    private static final String PAYMENT_REFUND = "payments-refund";
 
     private static int amountCompareValue = 1;
 
@@ -135,16 +134,25 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
     private static final String REFUND_APPROVED_BY_SYSTEM = "Refund approved by system";
 
     private static final Predicate[] REF = new Predicate[0];
+    private static final Sort REFUND_LIST_ORDER = Sort.by(Sort.Direction.DESC, "dateUpdated", "id");
 
     DateUtil dateUtil = new DateUtil();
 
     private long daysDifference;
 
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final int PAYMENT_REFERENCE_BATCH_SIZE = 1000;
     private static final int REASON_CODE_END = 6;
 
     @Value("${refund.search.days}")
     private Integer numberOfDays;
 
+    @Value("${refund.list.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${refund.list.max-page-size:500}")
+    private int maxPageSize;
+
     private final DateTimeFormatter formatter = dateUtil.getIsoDateTimeFormatter();
 
     @Autowired
@@ -166,6 +174,9 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private IacService iacService;
+
     @Autowired
     private RefundReasonRepository refundReasonRepository;
 
@@ -185,7 +196,7 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
     private StatusHistoryUtil statusHistoryUtil;
 
     @Autowired
-    private ContextStartListener contextStartListener;
+    private UserDirectory userDirectory;
 
     @Autowired
     private RefundFeeMapper refundFeeMapper;
@@ -196,6 +207,9 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
     @Autowired
     private RefundFeesRepository refundFeesRepository;
 
+    @Autowired
+    private RefundLedgerService refundLedgerService;
+
 
     private static final String REFUND_INITIATED_AND_SENT_TO_TEAM_LEADER = "Refund initiated and sent to team leader";
 
@@ -237,6 +251,8 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
 
         Refund refund = initiateRefundEntity(refundRequest, idamUserIdResponse.getUid(), instructionType);
         refundsRepository.save(refund);
+        refundLedgerService.recordRefundedAmountChange(refund.getPaymentReference(), BigDecimal.ZERO,
+                                                       RefundLedgerService.countedAmount(refund));
         LOG.info("Refund saved");
         return RefundResponse.buildRefundResponseWith()
             .refundReference(refund.getReference())
@@ -264,8 +280,8 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
             RefundStatus refundStatus = RefundStatus.getRefundStatus(status);
 
             //get the refund list except the self uid
-            refundList = SENTFORAPPROVAL.getName().equalsIgnoreCase(status) && "true".equalsIgnoreCase(
-                excludeCurrentUser) ? refundsRepository.findByRefundStatusAndUpdatedByIsNotAndServiceTypeInIgnoreCase(
+            refundList = isExcludeCurrentUser(status, excludeCurrentUser)
+                ? refundsRepository.findByRefundStatusAndUpdatedByIsNotAndServiceTypeInIgnoreCase(
                 refundStatus,
                 idamUserIdResponse.getUid(),
                 serviceList
@@ -275,6 +291,84 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
         return getRefundListDto(headers, refundList, idamUserIdResponse);
     }
 
+    @Override
+    public RefundListDtoResponse getRefundList(String status, MultiValueMap<String, String> headers,
+                                               String ccdCaseNumber, String excludeCurrentUser,
+                                               Integer pageSize, String cursor) {
+        if (pageSize == null && StringUtils.isBlank(cursor)) {
+            return getRefundList(status, headers, ccdCaseNumber, excludeCurrentUser);
+        }
+
+        int limit = pageSize == null ? defaultPageSize : pageSize;
+        if (limit < 1 || limit > maxPageSize) {
+            throw new InvalidRefundRequestException("Page size should be between 1 and " + maxPageSize);
+        }
+        RefundListCursor after = StringUtils.isBlank(cursor) ? null : RefundListCursor.decode(cursor);
+
+        IdamUserIdResponse idamUserIdResponse = idamService.getUserId(headers);
+        List<String> serviceList = refundServiceRoleUtil.getServiceNameFromUserRoles(idamUserIdResponse.getRoles());
+
+        Specification<Refund> specification = refundListSpecification(
+            status,
+            ccdCaseNumber,
+            isExcludeCurrentUser(status, excludeCurrentUser) ? idamUserIdResponse.getUid() : null,
+            serviceList,
+            after
+        );
+        // Fetch one row beyond the page to find out whether another page follows
+        List<Refund> refunds = refundsRepository.findBy(
+            specification,
+            query -> query.sortBy(REFUND_LIST_ORDER).limit(limit + 1).all()
+        );
+
+        String nextCursor = null;
+        if (refunds.size() > limit) {
+            refunds = refunds.subList(0, limit);
+            nextCursor = RefundListCursor.of(refunds.get(limit - 1)).encode();
+        }
+
+        RefundListDtoResponse response = getRefundListDto(headers, Optional.of(refunds), idamUserIdResponse);
+        response.setNextCursor(nextCursor);
+        return response;
+    }
+
+    private boolean isExcludeCurrentUser(String status, String excludeCurrentUser) {
+        return SENTFORAPPROVAL.getName().equalsIgnoreCase(status) && "true".equalsIgnoreCase(excludeCurrentUser);
+    }
+
+    private Specification<Refund> refundListSpecification(String status, String ccdCaseNumber, String excludedUpdatedBy,
+                                                          List<String> serviceList, RefundListCursor after) {
+        return (root, query, cb) -> {
+            // Only the status is joined: fetching a collection here would make Hibernate apply the page limit in memory
+            if (Refund.class.equals(query.getResultType())) {
+                root.fetch("refundStatus");
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            if (StringUtils.isNotBlank(ccdCaseNumber)) {
+                predicates.add(cb.equal(root.get("ccdCaseNumber"), ccdCaseNumber));
+            } else {
+                predicates.add(cb.equal(root.get("refundStatus"), RefundStatus.getRefundStatus(status)));
+                if (excludedUpdatedBy != null) {
+                    predicates.add(cb.notEqual(root.get("updatedBy"), excludedUpdatedBy));
+                }
+            }
+            if (!serviceList.isEmpty()) {
+                predicates.add(cb.upper(root.get("serviceType")).in(
+                    serviceList.stream().map(StringUtils::upperCase).collect(Collectors.toList())));
+            } else if (StringUtils.isBlank(ccdCaseNumber)) {
+                predicates.add(cb.disjunction());
+            }
+            if (after != null) {
+                Expression<Timestamp> dateUpdated = root.get("dateUpdated");
+                predicates.add(cb.or(
+                    cb.lessThan(dateUpdated, after.dateUpdated()),
+                    cb.and(cb.equal(dateUpdated, after.dateUpdated()), cb.lessThan(root.<Integer>get("id"), after.id()))
+                ));
+            }
+            return cb.and(predicates.toArray(REF));
+        };
+    }
+
 
     public RefundListDtoResponse getRefundListDto(MultiValueMap<String, String> headers,
                                                   Optional<List<Refund>> refundList, IdamUserIdResponse idamUserIdResponse) {
@@ -313,93 +407,55 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
         List<RefundReason> refundReasonList = refundReasonRepository.findAll();
 
         if (!roles.isEmpty()) {
-            Set<UserIdentityDataDto> userIdentityDataDtoSet = getUserIdentityDataDtoSet();
             LOG.info("Roles are not empty in getRefundResponseDtoList");
-            // Filter Refunds List based on Refunds Roles and Update the user full name for created by
-            List<String> userIdsWithGivenRoles = userIdentityDataDtoSet.stream().map(UserIdentityDataDto::getId).collect(
-                Collectors.toList());
-
-            refundList.forEach(refund -> {
-                if (!userIdsWithGivenRoles.contains(refund.getCreatedBy())) {
-                    UserIdentityDataDto userIdentityDataDto;
-                    try {
-                        userIdentityDataDto =
-                            idamService.getUserIdentityData(headers, refund.getCreatedBy());
-
-                    } catch (UserNotFoundException userNotFoundException) {
-                        LOG.warn("Refund {} created by UID {} not available for case {}",
-                                 refund.getId(), refund.getCreatedBy(), refund.getCcdCaseNumber());
-                        userIdentityDataDto = new UserIdentityDataDto(
-                            IDAM_USER_NOT_FOUND_MSG,
-                            IDAM_USER_NOT_FOUND_MSG,
-                            refund.getCreatedBy(),
-                            Collections.<String>emptyList()
-                        );
-                    }
-                    contextStartListener.addUserToMap(PAYMENT_REFUND, userIdentityDataDto);
-                    userIdentityDataDtoSet.add(userIdentityDataDto);
-                    userIdsWithGivenRoles.add(userIdentityDataDto.getId());
+            // Update the user full name for created by
+            Map<String, UserIdentityDataDto> creatorIdentities = getRefundCreatorIdentities(headers, refundList);
+            for (Refund refund : refundList) {
+                UserIdentityDataDto userIdentityDataDto = creatorIdentities.get(refund.getCreatedBy());
+                if (userIdentityDataDto != null && refund.getCreatedBy().equals(userIdentityDataDto.getId())) {
+                    refundListDto.add(refundResponseMapper.getRefundListDto(
+                        refund,
+                        userIdentityDataDto,
+                        getRefundReason(refund.getReason(), refundReasonList)
+                    ));
                 }
-            });
-            if (null != userIdsWithGivenRoles) {
-                LOG.info("userIdsWithGivenRoles size {}", userIdsWithGivenRoles.size());
             }
-            refundListDto =
-                populateRefundListDto(refundList, userIdsWithGivenRoles, refundReasonList, userIdentityDataDtoSet,
-                                      refundListDto
-                );
+            LOG.info("refundListDto size in getRefundResponseDtoList {}", refundListDto.size());
         }
         return refundListDto;
     }
 
-    @SuppressWarnings({"PMD.ConfusingTernary"})
-    private Set<UserIdentityDataDto> getUserIdentityDataDtoSet() {
-        Set<UserIdentityDataDto> userIdentityDataDtoSet;
-        Map<String, List<UserIdentityDataDto>> userMap = new ConcurrentHashMap<>();
-        if (null != contextStartListener.getUserMap() && null != contextStartListener.getUserMap().get(PAYMENT_REFUND)) {
-            userIdentityDataDtoSet = contextStartListener.getUserMap().get(PAYMENT_REFUND).stream().collect(
-                Collectors.toSet());
-        } else {
-            List<UserIdentityDataDto> userIdentityDataDtoList = idamService.getUsersForRoles(
-                getAuthenticationHeaders(),
-                Arrays.asList(
-                    PAYMENT_REFUND,
-                    "payments-refund-approver"
-                )
-            );
-            userMap.put(PAYMENT_REFUND, userIdentityDataDtoList);
-
-            userIdentityDataDtoSet = userMap.get(PAYMENT_REFUND).stream().collect(Collectors.toSet());
+    private Map<String, UserIdentityDataDto> getRefundCreatorIdentities(MultiValueMap<String, String> headers,
+                                                                        List<Refund> refundList) {
+        Set<String> creators = refundList.stream().map(Refund::getCreatedBy).filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        return resolveUsers(headers, creators);
+    }
 
+    /**
+     * Resolves users from the user directory, looking up the rest from IDAM in one bulk lookup. UIDs IDAM does not
+     * know are remembered by the directory and get a "User not found" placeholder without asking IDAM again.
+     */
+    private Map<String, UserIdentityDataDto> resolveUsers(MultiValueMap<String, String> headers, Set<String> uids) {
+        Map<String, UserIdentityDataDto> users = new HashMap<>(userDirectory.getAllPresent(uids));
+
+        Set<String> unknownUsers = uids.stream()
+            .filter(uid -> uid != null && !users.containsKey(uid) && !userDirectory.isNotFound(uid))
+            .collect(Collectors.toSet());
+        if (!unknownUsers.isEmpty()) {
+            Map<String, UserIdentityDataDto> resolvedUsers = idamService.getUserIdentityDataForUids(headers, unknownUsers);
+            userDirectory.putAll(resolvedUsers.values());
+            userDirectory.putNotFound(unknownUsers.stream().filter(uid -> !resolvedUsers.containsKey(uid)).toList());
+            users.putAll(resolvedUsers);
         }
-        LOG.info("userIdentityDataDtoSet size in getUserIdentityDataDtoSet {}",userIdentityDataDtoSet.stream().count());
-        return userIdentityDataDtoSet;
-    }
 
-    private List<RefundDto> populateRefundListDto(List<Refund> refundList, List<String> userIdsWithGivenRoles,
-                                                  List<RefundReason> refundReasonList,
-                                                  Set<UserIdentityDataDto> userIdentityDataDtoSet,
-                                                  List<RefundDto> refundListDto) {
-        for (Refund refund : refundList.stream()
-            .filter(e -> userIdsWithGivenRoles.stream()
-                .anyMatch(id -> id.equals(e.getCreatedBy())))
-            .collect(Collectors.toList())) {
-            String reason = getRefundReason(refund.getReason(), refundReasonList);
-            Optional<UserIdentityDataDto> found = Optional.empty();
-            for (UserIdentityDataDto dto : userIdentityDataDtoSet) {
-                if (refund.getCreatedBy().equals(dto.getId())) {
-                    found = Optional.of(dto);
-                    break;
-                }
+        for (String uid : uids) {
+            if (uid != null && !users.containsKey(uid)) {
+                LOG.warn("User with UID {} not available in IdAM", uid);
+                users.put(uid, getUserNotFoundIdentity(uid));
             }
-            found.ifPresent(userIdentityDataDto -> refundListDto.add(refundResponseMapper.getRefundListDto(
-                refund,
-                userIdentityDataDto,
-                reason
-            )));
         }
-        LOG.info("refundListDto size in populateRefundListDto {}",refundList.size());
-        return refundListDto;
+        return users;
     }
 
     @Override
@@ -448,9 +504,10 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
     public ResubmitRefundResponseDto resubmitRefund(String reference, ResubmitRefundRequest request,
                                                     MultiValueMap<String, String> headers) {
 
-        Refund refund = refundsRepository.findByReferenceOrThrow(reference);
-
         IdamUserIdResponse idamUserIdResponse = idamService.getUserId(headers);
+
+        Refund refund = refundLedgerService.lockRefund(reference)
+            .orElseThrow(() -> new RefundNotFoundException("Refund not found for given reference"));
         refundServiceRoleUtil.validateRefundRoleWithServiceName(idamUserIdResponse.getRoles(), refund.getServiceType());
 
         RefundState currentRefundState = getRefundState(refund.getRefundStatus().getName());
@@ -461,16 +518,18 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
             String refundReason = RETROSPECTIVE_REMISSION_REASON.equals(refund.getReason()) ? RETROSPECTIVE_REMISSION_REASON :
                 validateRefundReasonForNonRetroRemission(request.getRefundReason(), refund);
             LOG.info("Refund Reason in resubmitRefund {}", refundReason);
+            BigDecimal refundedAmount = refundLedgerService.lockRefundedAmount(refund.getPaymentReference());
+            BigDecimal previousAmount = RefundLedgerService.countedAmount(refund);
             refund.setAmount(request.getAmount());
+            BigDecimal totalRefundedAmount = refundedAmount.subtract(previousAmount).add(RefundLedgerService.countedAmount(refund));
+            refundLedgerService.recordRefundedAmountChange(refund.getPaymentReference(), previousAmount,
+                                                           RefundLedgerService.countedAmount(refund));
 
             if (!(refund.getReason().equals(RETROSPECTIVE_REMISSION_REASON)) && !(RETROSPECTIVE_REMISSION_REASON.equals(
                 refundReason))) {
                 refund.setReason(refundReason);
             }
 
-            BigDecimal refundAmount = getTotalRefundedAmountIssueRefund(refund.getPaymentReference());
-            refundAmount = refundAmount.subtract(refund.getAmount());
-            BigDecimal totalRefundedAmount = refundAmount.add(request.getAmount());
             // Remission update in payhub
             RefundResubmitPayhubRequest refundResubmitPayhubRequest = RefundResubmitPayhubRequest
                 .refundResubmitRequestPayhubWith()
@@ -521,10 +580,11 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
     @Override
     @Transactional
     public void deleteRefund(String reference) {
-        long records = refundsRepository.deleteByReference(reference);
-        if (records == 0) {
-            throw new RefundNotFoundException("No records found for given refund reference");
-        }
+        Refund refund = refundLedgerService.lockRefund(reference)
+            .orElseThrow(() -> new RefundNotFoundException("No records found for given refund reference"));
+        BigDecimal previousAmount = RefundLedgerService.countedAmount(refund);
+        refundsRepository.deleteByReference(reference);
+        refundLedgerService.recordRefundedAmountChange(refund.getPaymentReference(), previousAmount, BigDecimal.ZERO);
     }
 
     @Override
@@ -581,7 +641,7 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
             }
 
             // Map UID -> User full name
-            Map<String, UserIdentityDataDto> userFullNameMap = getIdamUserDetails(headers, distintUidSet);
+            Map<String, UserIdentityDataDto> userFullNameMap = resolveUsers(headers, distintUidSet);
             for (StatusHistory statusHistory : statusHistories) {
                 statusHistoryDtos.add(statusHistoryResponseMapper.getStatusHistoryDto(
                     statusHistory,
@@ -595,31 +655,13 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
             .build();
     }
 
-    // DTRJ
-    private Map<String, UserIdentityDataDto> getIdamUserDetails(MultiValueMap<String, String> headers, Set<String> distintUidSet) {
-        Map<String, UserIdentityDataDto> userFullNameMap = new ConcurrentHashMap<>();
-        for (String userId : distintUidSet) {
-            UserIdentityDataDto userIdentityDataDto;
-            try {
-                userIdentityDataDto =
-                    idamService.getUserIdentityData(headers, userId);
-
-            } catch (UserNotFoundException userNotFoundException) {
-                LOG.warn("User with UID {} not available in IdAM", userId);
-                userIdentityDataDto = new UserIdentityDataDto(
-                    IDAM_USER_NOT_FOUND_MSG,
-                    IDAM_USER_NOT_FOUND_MSG,
-                    userId,
-                    Collections.<String>emptyList()
-                );
-            }
-
-            userFullNameMap.put(
-                userId,
-                userIdentityDataDto
-            );
-        }
-        return userFullNameMap;
+    private static UserIdentityDataDto getUserNotFoundIdentity(String userId) {
+        return new UserIdentityDataDto(
+            IDAM_USER_NOT_FOUND_MSG,
+            IDAM_USER_NOT_FOUND_MSG,
+            userId,
+            Collections.<String>emptyList()
+        );
     }
 
     private Refund initiateRefundEntity(RefundRequest refundRequest, String uid, String instructionType) throws CheckDigitException {
@@ -667,17 +709,6 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
         return rawReason;
     }
 
-    private MultiValueMap<String, String> getAuthenticationHeaders() {
-        MultiValueMap<String, String> inputHeaders = new LinkedMultiValueMap<>();
-        inputHeaders.add("Authorization", getAccessToken());
-        return inputHeaders;
-    }
-
-    private String getAccessToken() {
-        IdamTokenResponse idamTokenResponse = idamService.getSecurityTokens();
-        return idamTokenResponse.getAccessToken();
-    }
-
     @Override
     public Optional<List<Refund>> getPaymentFailureReport(List<String> paymentReferenceList) {
 
@@ -716,7 +747,7 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
             throw new InvalidRefundRequestException("The amount to refund can not be more than" + " " + "£" + refundRequest.getPaymentAmount());
         }
 
-        BigDecimal refundAmount = getTotalRefundedAmountIssueRefund(refundRequest.getPaymentReference());
+        BigDecimal refundAmount = refundLedgerService.lockRefundedAmount(refundRequest.getPaymentReference());
 
         refundEligibleAmount = refundRequest.getPaymentAmount().subtract(refundAmount);
         totalRefundedAmount = refundAmount.add(refundRequest.getRefundAmount());
@@ -727,17 +758,6 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
         }
     }
 
-    private BigDecimal getTotalRefundedAmountIssueRefund(String paymentReference) {
-        return refundsRepository.findByPaymentReference(paymentReference)
-            .orElse(Collections.emptyList())
-            .stream()
-            .filter(refund -> !refund.getRefundStatus().getName().equals(RefundStatus.CLOSED.getName())
-                && !refund.getRefundStatus().getName().equals(RefundStatus.REJECTED.getName())
-            ).map(Refund::getAmount)
-            .filter(Objects::nonNull)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
     @SuppressWarnings({"PMD"})
     private void validateContactDetails(ContactDetails contactDetails) {
         Matcher matcher = null;
@@ -785,7 +805,6 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
         List<String> referenceList = new ArrayList<>();
         List<RefundLiberata> refundLiberatas = new ArrayList<>();
         List<Refund> refundListWithAccepted;
-        List<Refund> refundListNotInDateRange;
 
         refundValidator.validate(startDateTimeString, endDateTimeString);
 
@@ -817,17 +836,28 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
             throw new RefundNotFoundException("No refunds available for the given date range");
         }
 
+        Map<String, BigDecimal> groupByPaymentReferenceForNotInDateRange;
         if (startDateTimeString.isPresent() && endDateTimeString.isPresent()) {
-            refundListNotInDateRange = refundsRepository.findByDatesBetween(fromDateTime, toDateTime);
+            groupByPaymentReferenceForNotInDateRange =
+                sumRefundedAmountOutsideDateRange(referenceList, toRangeStart(fromDateTime), toRangeEnd(toDateTime));
         } else {
 
-            refundListNotInDateRange = refundsRepository.findAllByPaymentReference(
+            List<Refund> refundListNotInDateRange = refundsRepository.findAllByPaymentReference(
                 refundListWithAccepted.get(0).getPaymentReference(),
                 refundListWithAccepted.get(0).getReference()
             );
+            groupByPaymentReferenceForNotInDateRange =
+                refundListNotInDateRange.stream().collect(Collectors.groupingBy(
+                    Refund::getPaymentReference,
+                    Collectors2.summingBigDecimal(Refund::getAmount)
+                ));
         }
 
-        List<PaymentDto> paymentData = paymentService.fetchPaymentResponse(referenceList);
+        // IAC case references are looked up while the remaining payment chunks are still being fetched
+        List<PaymentDto> paymentData = paymentService.fetchPaymentResponse(
+            referenceList,
+            payments -> iacService.prefetchCaseReferences(payments, IAC_SERVICE_NAME)
+        );
 
         Map<String, BigDecimal> groupByPaymentReference =
             refundListWithAccepted.stream().collect(Collectors.groupingBy(
@@ -835,31 +865,18 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
                 Collectors2.summingBigDecimal(Refund::getAmount)
             ));
 
-        Map<String, BigDecimal> groupByPaymentReferenceForNotInDateRange =
-            refundListNotInDateRange.stream().collect(Collectors.groupingBy(
-                Refund::getPaymentReference,
-                Collectors2.summingBigDecimal(Refund::getAmount)
-            ));
-
         Map<String, BigDecimal> avlBalance;
 
         avlBalance = calculateAvailableBalance(groupByPaymentReference, groupByPaymentReferenceForNotInDateRange);
 
-        Map<String, BigDecimal> finalAvlBalance = avlBalance;
-        refundListWithAccepted.stream()
-            .filter(e -> paymentData.stream()
-                .anyMatch(id -> id.getPaymentReference().equals(e.getPaymentReference())))
-            .collect(Collectors.toList())
-            .forEach(refund -> {
-                LOG.info("refund: {}", refund);
-                refundLiberatas.add(refundResponseMapper.getRefundLibrata(
-                    refund,
-                    paymentData.stream()
-                        .filter(dto -> refund.getPaymentReference().equals(dto.getPaymentReference()))
-                        .findAny().get(),
-                    finalAvlBalance,toRefundReason(refund.getReason())
-                ));
-            });
+        // Reason names are looked up once per distinct code rather than once per refund
+        Map<String, String> refundReasonNames = new HashMap<>();
+        refundLiberatas.addAll(refundResponseMapper.getRefundLiberatas(
+            refundListWithAccepted,
+            paymentData,
+            avlBalance,
+            reasonCode -> refundReasonNames.computeIfAbsent(reasonCode, this::toRefundReason)
+        ));
         return refundLiberatas;
     }
 
@@ -874,27 +891,47 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
         RefundSearchCriteria searchCriteria, CriteriaQuery<?> query) {
         List<Predicate> predicates = new ArrayList<>();
 
-        final Expression<Date> dateUpdatedExpr = cb.function(
-            "date_trunc",
-            Date.class,
-            cb.literal("seconds"),
-            root.get("dateUpdated")
-        );
-
         if (searchCriteria.getStartDate() != null && searchCriteria.getEndDate() != null) {
-            predicates.add(cb.between(
-                dateUpdatedExpr,
-                searchCriteria.getStartDate(),
-                searchCriteria.getEndDate()
+            // Half-open range on the bare column so ix_refunds_date_updated can serve it
+            Path<Date> dateUpdated = root.get("dateUpdated");
+            predicates.add(cb.and(
+                cb.greaterThanOrEqualTo(dateUpdated, toRangeStart(searchCriteria.getStartDate())),
+                cb.lessThan(dateUpdated, toRangeEnd(searchCriteria.getEndDate()))
             ));
         }
         if (null != searchCriteria.getRefundReference()) {
             predicates.add(cb.equal(root.get("reference"), searchCriteria.getRefundReference()));
         }
-        query.groupBy(root.get("id"));
         return cb.or(predicates.toArray(REF));
     }
 
+    /**
+     * Start of the half-open range covering every date_updated whose whole second is on or after the start date.
+     */
+    private static Date toRangeStart(Date startDate) {
+        return new Date(Math.ceilDiv(startDate.getTime(), MILLIS_PER_SECOND) * MILLIS_PER_SECOND);
+    }
+
+    /**
+     * End of the half-open range covering every date_updated whose whole second is on or before the end date.
+     */
+    private static Date toRangeEnd(Date endDate) {
+        return new Date(Math.floorDiv(endDate.getTime(), MILLIS_PER_SECOND) * MILLIS_PER_SECOND + MILLIS_PER_SECOND);
+    }
+
+    private Map<String, BigDecimal> sumRefundedAmountOutsideDateRange(List<String> paymentReferences, Date fromDate, Date toDate) {
+        List<String> distinctPaymentReferences = paymentReferences.stream().distinct().collect(Collectors.toList());
+        Map<String, BigDecimal> refundedAmounts = new HashMap<>();
+        for (int i = 0; i < distinctPaymentReferences.size(); i += PAYMENT_REFERENCE_BATCH_SIZE) {
+            List<String> batch = distinctPaymentReferences.subList(
+                i, Math.min(i + PAYMENT_REFERENCE_BATCH_SIZE, distinctPaymentReferences.size()));
+            for (Tuple tuple : refundsRepository.sumAmountByPaymentReferenceOutsideDateRange(batch, fromDate, toDate)) {
+                refundedAmounts.put(tuple.get("paymentReference", String.class), tuple.get("amount", BigDecimal.class));
+            }
+        }
+        return refundedAmounts;
+    }
+
     private Date getFromDateTime(@PathVariable(name = "start_date") Optional<String> startDateTimeString) {
         return Optional.ofNullable(startDateTimeString.map(formatter::parseLocalDateTime).orElse(null))
             .map(org.joda.time.LocalDateTime::toDate)
@@ -956,14 +993,12 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
         //Create Refund response List
         List<RefundDto> refundListDto = new ArrayList<>();
         List<RefundReason> refundReasonList = refundReasonRepository.findAll();
+        Map<String, UserIdentityDataDto> creatorIdentities = getRefundCreatorIdentities(headers, refundList);
         for (Refund refund : refundList) {
-            UserIdentityDataDto userIdentityDataDto = idamService.getUserIdentityData(
-                headers,
-                refund.getCreatedBy()
-            );
+            UserIdentityDataDto userIdentityDataDto = creatorIdentities.get(refund.getCreatedBy());
 
             String reason = getRefundReason(refund.getReason(), refundReasonList);
-            if (refund.getCreatedBy().equals(userIdentityDataDto.getId())) {
+            if (userIdentityDataDto != null && refund.getCreatedBy().equals(userIdentityDataDto.getId())) {
                 refundListDto.add(refundResponseMapper.getRefundListDto(
                     refund,
                     userIdentityDataDto,
@@ -1034,9 +1069,11 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
     public RefundResponse initiateReissueRefund(String refundReference, MultiValueMap<String, String> headers,
                                                 IdamUserIdResponse idamUserIdResponse) {
         try {
-            Refund expiredRefund = refundsRepository.findByReferenceOrThrow(refundReference);
+            Refund expiredRefund = refundLedgerService.lockRefund(refundReference)
+                .orElseThrow(() -> new RefundNotFoundException("Refund not found for given reference"));
             refundServiceRoleUtil.validateRefundRoleWithServiceName(idamUserIdResponse.getRoles(), expiredRefund.getServiceType());
             validateCurrentRefund(expiredRefund);
+            BigDecimal previousAmount = RefundLedgerService.countedAmount(expiredRefund);
             expiredRefund.setRefundStatus(RefundStatus.CLOSED);
             expiredRefund.setUpdatedBy(idamUserIdResponse.getUid());
             List<StatusHistory> statusHistories = new ArrayList<>(expiredRefund.getStatusHistories());
@@ -1048,6 +1085,7 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
             expiredRefund.setStatusHistories(statusHistories);
             LOG.info("Refund closed for reissue with reference: {}", expiredRefund.getReference());
             refundsRepository.save(expiredRefund);
+            refundLedgerService.recordRefundedAmountChange(expiredRefund.getPaymentReference(), previousAmount, BigDecimal.ZERO);
             return initiateRefundProcess(expiredRefund, idamUserIdResponse);
 
         } catch (RefundNotFoundException | ActionNotAllowedException exception) {
@@ -1117,37 +1155,12 @@ public class RefundsServiceImpl extends StateUtil implements RefundsService {
             ).build();
 
         refundsRepository.save(refund);
+        refundLedgerService.recordRefundedAmountChange(refund.getPaymentReference(), BigDecimal.ZERO,
+                                                       RefundLedgerService.countedAmount(refund));
         LOG.info("Reissued Refund saved");
         return RefundResponse.buildRefundResponseWith()
             .refundReference(refund.getReference())
             .build();
     }
-
-    @Override
-    public List<RefundsReportDto> refundsReport(Date startDate, Date endDate, MultiValueMap<String, String> headers) {
-        LOG.info("Enter refundsReport method");
-
-        if (startDate.after(endDate)) {
-            throw new RefundReportException("Start date cannot be greater than end date");
-        }
-
-        List<Tuple> refundsTuples = refundsRepository.findAllRefundsByDateCreatedBetween(startDate, endDate);
-
-        List<RefundsReportDto> refundsReportDto = refundsTuples.stream()
-            .map(tup -> RefundsReportDto.refundsReportDtoWith()
-                .refundDateCreated(tup.get("date_created", Date.class))
-                .refundDateUpdated(tup.get("date_updated", Date.class))
-                .amount(tup.get("amount", BigDecimal.class))
-                .refundReference(tup.get("reference", String.class))
-                .paymentReference(tup.get("payment_reference", String.class))
-                .ccdCaseNumber(tup.get("ccd_case_number", String.class))
-                .serviceType(tup.get("service_type", String.class))
-                .refundStatus(tup.get("refund_status", String.class))
-                .notes(tup.get("notes", String.class))
-                .build())
-            .toList();
-
-        return refundsReportDto;
-    }
 }
 
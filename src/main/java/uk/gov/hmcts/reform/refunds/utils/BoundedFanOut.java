@@ -0,0 +1,114 @@
+package uk.gov.hmcts.reform.refunds.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent blocking calls on virtual threads, at most {@code maxConcurrency} at a time.
+ *
+ * <p>Tasks go through the application's {@link TaskDecorator}, so the SQL they run counts against the request that
+ * started them.
+ */
+@Component
+@SuppressWarnings({"PMD.DoNotUseThreads"})
+public class BoundedFanOut {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BoundedFanOut.class);
+
+    private final TaskDecorator taskDecorator;
+
+    @Autowired
+    public BoundedFanOut(ObjectProvider<TaskDecorator> taskDecorator) {
+        this(taskDecorator.getIfUnique(() -> runnable -> runnable));
+    }
+
+    public BoundedFanOut(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    /**
+     * Applies the task to every item and returns the results in item order. Results are collected as they complete,
+     * so the first task to fail cancels the rest, interrupting those still running, and its exception is the cause
+     * of the {@link ExecutionException}.
+     */
+    public <T, R> List<R> map(List<T> items, int maxConcurrency, Function<T, R> task)
+        throws InterruptedException, ExecutionException {
+        Semaphore permits = new Semaphore(Math.max(1, maxConcurrency));
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<R> completions =
+                new ExecutorCompletionService<>(runnable -> executor.execute(taskDecorator.decorate(runnable)));
+            try {
+                for (T item : items) {
+                    futures.add(completions.submit(() -> {
+                        permits.acquire();
+                        try {
+                            return task.apply(item);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                }
+                for (int completed = 0; completed < futures.size(); completed++) {
+                    completions.take().get();
+                }
+                List<R> results = new ArrayList<>(items.size());
+                for (Future<R> future : futures) {
+                    results.add(future.get());
+                }
+                return results;
+            } finally {
+                // cancelled before the executor is closed, as closing waits for every task still running
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+    }
+
+    /**
+     * Claims pages of work until none is left and runs the task for every claimed item. A failing item is logged and
+     * does not stop the rest of its page; it is picked up again once its claim expires. Returns the number of items
+     * claimed.
+     */
+    public <T> int drain(Supplier<List<T>> claimPage, int maxConcurrency, Consumer<T> task) {
+        int claimed = 0;
+        List<T> page = claimPage.get();
+        while (!page.isEmpty()) {
+            claimed += page.size();
+            try {
+                map(page, maxConcurrency, item -> {
+                    try {
+                        task.accept(item);
+                    } catch (RuntimeException e) {
+                        LOG.error("Processing claimed item {} failed, it will be retried once its claim expires", item, e);
+                    }
+                    return null;
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.warn("Interrupted after claiming {} items, the rest are left for the next run", claimed);
+                return claimed;
+            } catch (ExecutionException e) {
+                LOG.error("Processing claimed items failed", e.getCause());
+            }
+            page = claimPage.get();
+        }
+        return claimed;
+    }
+}
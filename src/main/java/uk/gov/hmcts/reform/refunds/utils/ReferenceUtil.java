@@ -1,36 +1,123 @@
 package uk.gov.hmcts.reform.refunds.utils;
 
-import org.apache.commons.validator.routines.checkdigit.CheckDigit;
 import org.apache.commons.validator.routines.checkdigit.CheckDigitException;
-import org.apache.commons.validator.routines.checkdigit.LuhnCheckDigit;
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
 
 import java.security.SecureRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
 
+/**
+ * Generates refund references of the form {@code RF-9nns-ssss-ssss-sssc}: a scheme digit, a two digit node
+ * discriminator, a twelve digit sequence number and a Luhn check digit.
+ *
+ * <p>Uniqueness comes from the sequence number. Each node takes blocks of {@link #BLOCK_SIZE} numbers from the
+ * {@code refund_reference_seq} database sequence and hands them out from memory, so the database is only asked
+ * once per block. The node discriminator tells which pod issued a reference. References created before this
+ * scheme start with the creation time in tenths of a second, so they begin with 1 and cannot clash with the
+ * scheme digit.
+ */
 @Component
 public class ReferenceUtil {
 
-    private static final String REFUND_REF_REGEX = "(?<=\\G.{4})";
+    // Must match the increment of refund_reference_seq
+    public static final int BLOCK_SIZE = 1000;
+
+    private static final char SCHEME_DIGIT = '9';
+    private static final int NODE_LIMIT = 100;
+    private static final int PAYLOAD_DIGITS = 15;
+    private static final int REFERENCE_DIGITS = PAYLOAD_DIGITS + 1;
+    private static final int DIGITS_PER_GROUP = 4;
+    private static final int FIRST_SEQUENCE_DIGIT = 3;
+    private static final long SEQUENCE_LIMIT = 1_000_000_000_000L;
+    private static final int RADIX = 10;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final LongSupplier blockAllocator;
+
+    private final int nodeId;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long nextSequence;
+
+    private long blockLimit;
+
+    @Autowired
+    public ReferenceUtil(RefundsRepository refundsRepository, @Value("${refund.reference.node-id:-1}") int nodeId) {
+        this(refundsRepository::nextReferenceBlock, nodeId);
+    }
+
+    /**
+     * Creates a generator taking its blocks from the given allocator, which must return the first number of a
+     * fresh block of {@link #BLOCK_SIZE} numbers on each call. A negative node id picks one at random.
+     */
+    public ReferenceUtil(LongSupplier blockAllocator, int nodeId) {
+        this.blockAllocator = blockAllocator;
+        this.nodeId = nodeId < 0 ? RANDOM.nextInt(NODE_LIMIT) : nodeId % NODE_LIMIT;
+    }
 
     public String getNext(String prefix) throws CheckDigitException {
-        DateTime dateTime = new DateTime(DateTimeZone.UTC);
-        long timeInMillis = dateTime.getMillis() / 100;
+        return format(prefix, nextSequence());
+    }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append(timeInMillis);
+    private long nextSequence() {
+        lock.lock();
+        try {
+            if (nextSequence == blockLimit) {
+                long blockStart = blockAllocator.getAsLong();
+                nextSequence = blockStart;
+                blockLimit = blockStart + BLOCK_SIZE;
+            }
+            return nextSequence++;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        // append the random 4 characters
-        SecureRandom random = new SecureRandom();
-        sb.append(String.format("%04d", random.nextInt(10_000)));
+    private String format(String prefix, long sequence) {
+        if (sequence < 0 || sequence >= SEQUENCE_LIMIT) {
+            throw new IllegalStateException("Refund reference sequence out of range: " + sequence);
+        }
+        int prefixLength = prefix.length();
+        char[] reference = new char[prefixLength + REFERENCE_DIGITS + REFERENCE_DIGITS / DIGITS_PER_GROUP];
+        prefix.getChars(0, prefixLength, reference, 0);
+        for (int group = 0; group < REFERENCE_DIGITS / DIGITS_PER_GROUP; group++) {
+            reference[prefixLength + group * (DIGITS_PER_GROUP + 1)] = '-';
+        }
 
-        CheckDigit checkDigit = new LuhnCheckDigit();
-        sb.append(checkDigit.calculate(sb.toString()));
+        reference[position(prefixLength, 0)] = SCHEME_DIGIT;
+        reference[position(prefixLength, 1)] = (char) ('0' + nodeId / RADIX);
+        reference[position(prefixLength, 2)] = (char) ('0' + nodeId % RADIX);
+        long remaining = sequence;
+        for (int digit = PAYLOAD_DIGITS - 1; digit >= FIRST_SEQUENCE_DIGIT; digit--) {
+            reference[position(prefixLength, digit)] = (char) ('0' + remaining % RADIX);
+            remaining /= RADIX;
+        }
 
-        String[] parts = sb.toString().split(REFUND_REF_REGEX);
+        // Luhn: double every second digit counting leftwards from the one next to the check digit
+        int sum = 0;
+        boolean doubled = true;
+        for (int digit = PAYLOAD_DIGITS - 1; digit >= 0; digit--) {
+            int value = reference[position(prefixLength, digit)] - '0';
+            if (doubled) {
+                value *= 2;
+                if (value >= RADIX) {
+                    value -= RADIX - 1;
+                }
+            }
+            sum += value;
+            doubled = !doubled;
+        }
+        reference[position(prefixLength, PAYLOAD_DIGITS)] = (char) ('0' + (RADIX - sum % RADIX) % RADIX);
+        return new String(reference);
+    }
 
-        return prefix + "-" + String.join("-", parts);
+    private static int position(int prefixLength, int digit) {
+        return prefixLength + 1 + digit + digit / DIGITS_PER_GROUP;
     }
 }
-
@@ -0,0 +1,39 @@
+package uk.gov.hmcts.reform.refunds.utils;
+
+import uk.gov.hmcts.reform.refunds.exceptions.InvalidRefundRequestException;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for the refund list, ordered by {@code date_updated} then {@code id}, both descending.
+ */
+public record RefundListCursor(Timestamp dateUpdated, Integer id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static RefundListCursor of(Refund refund) {
+        return new RefundListCursor(refund.getDateUpdated(), refund.getId());
+    }
+
+    public static RefundListCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.lastIndexOf(SEPARATOR);
+            return new RefundListCursor(
+                Timestamp.from(Instant.parse(decoded.substring(0, separatorIndex))),
+                Integer.valueOf(decoded.substring(separatorIndex + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new InvalidRefundRequestException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String position = dateUpdated.toInstant() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,85 +1,71 @@
 package uk.gov.hmcts.reform.refunds.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.refunds.exceptions.ActionNotAllowedException;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
+/**
+ * Resolves the services a caller can act on from their IDAM roles. Callers share a handful of distinct role sets,
+ * so each set is parsed once and the result cached; checks on the request path are then set lookups.
+ */
 @Component
 public class RefundServiceRoleUtil {
 
     private static final String SERVICE_NAME_REFUND_ROLE = "payments-refund";
     private static final String SERVICE_NAME_REFUND_APPROVAL_ROLE = "payments-refund-approver";
 
-    private static final String AUTHORISED_REFUNDS_ROLE_REGEX = "^[payments]+-[refund]+-[a-zA-Z.-]+";
-    private static final String AUTHORISED_REFUNDS_APPROVER_ROLE_REGEX = "^[payments]+-[refund]+-[approver]+-[a-zA-Z.-]+";
+    // payments-refund-<service> or payments-refund-approver-<service>, where <service> is dash separated words
+    private static final Pattern SERVICE_REFUND_ROLE_PATTERN = Pattern.compile(
+        "^payments-refund-(?:approver-)?([a-z0-9.-]+)$",
+        Pattern.CASE_INSENSITIVE
+    );
 
-    private static final Logger LOG = LoggerFactory.getLogger(RefundServiceRoleUtil.class);
+    private static final int MAXIMUM_ROLE_SETS = 1000;
 
-    public boolean validateRefundRoleWithServiceName(List<String> roles, String serviceName) {
+    private static final Logger LOG = LoggerFactory.getLogger(RefundServiceRoleUtil.class);
 
-        LOG.info("Validate Refund Role With Service Name ---> roles {}", roles.toString());
-        LOG.info("Validate Refund Role With Service Name ---> serviceName {}", serviceName);
-        String serviceNameRefundRole = SERVICE_NAME_REFUND_ROLE + "-" + serviceName.replace(" ","-");
-        String serviceNameRefundApprovalRole = SERVICE_NAME_REFUND_APPROVAL_ROLE + "-" + serviceName.replace(" ","-");
-        LOG.info("Validate Refund Role With Service Name ---> roles {}", roles.toString());
-        LOG.info("Validate Refund Role With Service Name ---> serviceName {}", serviceName);
-        List<String> refundServiceRoles = roles.stream().filter(role ->
-                                               role.toLowerCase().contains(serviceNameRefundRole.toLowerCase())
-                                               || role.toLowerCase().contains(serviceNameRefundApprovalRole.toLowerCase()))
-                                               .collect(Collectors.toList());
+    private final Cache<Set<String>, RefundServiceRoles> serviceRolesByRoleSet = Caffeine.newBuilder()
+        .maximumSize(MAXIMUM_ROLE_SETS)
+        .build();
 
-        LOG.info("Validate Refund Role With Service Name ---> roles {}", roles.toString());
-        LOG.info("Validate Refund Role With Service Name ---> serviceName {}", serviceName);
-        LOG.info("Validate Refund Role With Service Name ---> refundServiceRoles {}", refundServiceRoles.toString());
-        if (refundServiceRoles == null || refundServiceRoles.isEmpty()) {
+    public boolean validateRefundRoleWithServiceName(List<String> roles, String serviceName) {
+        if (!resolve(roles).canRefund(serviceName)) {
+            LOG.info("Refund action on service {} not allowed for roles {}", serviceName, roles);
             throw new ActionNotAllowedException("Action not allowed to user for given service name");
         }
         return true;
     }
 
     public List<String> getServiceNameFromUserRoles(List<String> roles) {
+        return resolve(roles).serviceNames();
+    }
 
-        HashSet<String> serviceNameSet = new HashSet<>();
-
-        Pattern refundRolePattern = Pattern.compile(
-            AUTHORISED_REFUNDS_ROLE_REGEX,
-            Pattern.CASE_INSENSITIVE
-        );
-
-        Pattern refundApproverRolePattern = Pattern.compile(
-            AUTHORISED_REFUNDS_APPROVER_ROLE_REGEX,
-            Pattern.CASE_INSENSITIVE
-        );
+    public RefundServiceRoles resolve(List<String> roles) {
+        return serviceRolesByRoleSet.get(Set.copyOf(roles), RefundServiceRoleUtil::parse);
+    }
 
-        String tempRole;
+    private static RefundServiceRoles parse(Set<String> roles) {
+        Set<String> services = new HashSet<>();
         for (String role : roles) {
-            if (!role.equalsIgnoreCase(SERVICE_NAME_REFUND_ROLE) && !role.equalsIgnoreCase(SERVICE_NAME_REFUND_APPROVAL_ROLE)) {
-                Matcher matcherApprover = refundApproverRolePattern.matcher(role);
-                if (matcherApprover != null && matcherApprover.find()) {
-                    tempRole = role.toLowerCase().split("approver-")[1];
-                    tempRole = tempRole.replace("-", " ");
-                    serviceNameSet.add(tempRole);
-                } else {
-                    Matcher matcherRefundRole = refundRolePattern.matcher(role);
-                    if (matcherRefundRole != null && matcherRefundRole.find()) {
-                        tempRole = role.toLowerCase().split("refund-")[1];
-                        tempRole = tempRole.replace("-", " ");
-                        serviceNameSet.add(tempRole);
-                    }
-                }
+            if (role.equalsIgnoreCase(SERVICE_NAME_REFUND_ROLE) || role.equalsIgnoreCase(SERVICE_NAME_REFUND_APPROVAL_ROLE)) {
+                continue;
+            }
+            Matcher matcher = SERVICE_REFUND_ROLE_PATTERN.matcher(role);
+            if (matcher.matches()) {
+                services.add(RefundServiceRoles.normalise(matcher.group(1)));
             }
         }
-        List<String> returnList =  new ArrayList<>();
-        returnList.addAll(serviceNameSet);
-        LOG.info("service name list from roles returnList---> {} ", returnList);
-        return returnList;
+        RefundServiceRoles serviceRoles = new RefundServiceRoles(services);
+        LOG.info("Refund services {} resolved from roles {}", serviceRoles.serviceNames(), roles);
+        return serviceRoles;
     }
 }
@@ -0,0 +1,25 @@
+package uk.gov.hmcts.reform.refunds.utils;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Services a caller may raise or approve refunds for, resolved once from their IDAM roles. Service names are held
+ * lower case with words separated by spaces, so {@code payments-refund-Civil-Money-Claims} gives
+ * {@code civil money claims}.
+ */
+public record RefundServiceRoles(Set<String> services, List<String> serviceNames) {
+
+    public RefundServiceRoles(Set<String> services) {
+        this(Set.copyOf(services), List.copyOf(services));
+    }
+
+    public boolean canRefund(String serviceName) {
+        return services.contains(normalise(serviceName));
+    }
+
+    static String normalise(String serviceName) {
+        return serviceName.toLowerCase(Locale.ROOT).replace('-', ' ');
+    }
+}
@@ -0,0 +1,58 @@
+package uk.gov.hmcts.reform.refunds.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CustomerReferenceCacheTest {
+
+    private MeterRegistry meterRegistry;
+
+    private CustomerReferenceCache customerReferenceCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        customerReferenceCache = new CustomerReferenceCache(meterRegistry, 2, Duration.ofDays(1));
+    }
+
+    @Test
+    void secondLookupDoesNotCallTheLoader() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("CUST-1", customerReferenceCache.get("RC-1", ref -> "CUST-" + loads.incrementAndGet()));
+        assertEquals("CUST-1", customerReferenceCache.get("RC-1", ref -> "CUST-" + loads.incrementAndGet()));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void missingCustomerReferenceIsCachedAsEmpty() {
+        AtomicInteger loads = new AtomicInteger();
+
+        customerReferenceCache.get("RC-1", ref -> {
+            loads.incrementAndGet();
+            return "";
+        });
+        assertEquals("", customerReferenceCache.get("RC-1", ref -> "CUST-1"));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void hitsAndMissesArePublished() {
+        customerReferenceCache.get("RC-1", ref -> "CUST-1");
+        customerReferenceCache.get("RC-1", ref -> "CUST-1");
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", CustomerReferenceCache.CACHE_NAME)
+            .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", CustomerReferenceCache.CACHE_NAME)
+            .tag("result", "miss").functionCounter().count());
+    }
+}
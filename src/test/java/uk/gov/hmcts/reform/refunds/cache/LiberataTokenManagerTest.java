@@ -0,0 +1,54 @@
+package uk.gov.hmcts.reform.refunds.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
+import uk.gov.hmcts.reform.refunds.services.IdamService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LiberataTokenManagerTest {
+
+    @Mock
+    private IdamService idamService;
+
+    private MeterRegistry meterRegistry;
+
+    private LiberataTokenManager tokenManager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenManager = new LiberataTokenManager(idamService, meterRegistry, "liberata-user", "liberata-pass",
+                                                Duration.ofSeconds(60), Duration.ofMinutes(5),
+                                                Clock.fixed(Instant.parse("2024-01-01T10:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    void liberataTokenIsFetchedOnceWithTheLiberataCredentials() {
+        when(idamService.getSecurityTokens("liberata-user", "liberata-pass")).thenReturn(
+            IdamTokenResponse.idamFullNameRetrivalResponseWith().accessToken("liberata-token").expiresIn("3600").build());
+
+        assertEquals("liberata-token", tokenManager.getAccessToken());
+        assertEquals("liberata-token", tokenManager.getAccessToken());
+
+        verify(idamService, times(1)).getSecurityTokens("liberata-user", "liberata-pass");
+        verify(idamService, never()).getSecurityTokens();
+        assertEquals(1.0, meterRegistry.get("idam.service.token.refreshes").tag("account", "liberata").counter().count());
+    }
+}
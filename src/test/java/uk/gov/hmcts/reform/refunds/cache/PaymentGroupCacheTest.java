@@ -0,0 +1,106 @@
+package uk.gov.hmcts.reform.refunds.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentGroupResponse;
+import uk.gov.hmcts.reform.refunds.exceptions.PaymentServerException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PaymentGroupCacheTest {
+
+    private static final String PAYMENT_REFERENCE = "RC-1628-5241-9956-2315";
+
+    private MeterRegistry meterRegistry;
+
+    private PaymentGroupCache paymentGroupCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, PaymentGroupResponse> loader = reference -> {
+        loads.incrementAndGet();
+        return PaymentGroupResponse.paymentGroupDtoWith().paymentGroupReference("PG-" + loads.get()).build();
+    };
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        paymentGroupCache = new PaymentGroupCache(meterRegistry, 10, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void secondLookupDoesNotCallPaymentApi() {
+        PaymentGroupResponse first = paymentGroupCache.get(PAYMENT_REFERENCE, loader);
+
+        assertSame(first, paymentGroupCache.get(PAYMENT_REFERENCE, loader));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidatedPaymentGroupIsFetchedAgain() {
+        paymentGroupCache.get(PAYMENT_REFERENCE, loader);
+
+        paymentGroupCache.invalidate(PAYMENT_REFERENCE);
+
+        assertEquals("PG-2", paymentGroupCache.get(PAYMENT_REFERENCE, loader).getPaymentGroupReference());
+    }
+
+    @Test
+    void failedLookupIsNotCached() {
+        assertThrows(PaymentServerException.class, () -> paymentGroupCache.get(PAYMENT_REFERENCE, reference -> {
+            throw new PaymentServerException("Payment Server Exception", null);
+        }));
+
+        assertEquals("PG-1", paymentGroupCache.get(PAYMENT_REFERENCE, loader).getPaymentGroupReference());
+    }
+
+    @Test
+    void concurrentLookupsShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<PaymentGroupResponse> first = CompletableFuture.supplyAsync(
+            () -> paymentGroupCache.get(PAYMENT_REFERENCE, reference -> {
+                loading.countDown();
+                awaitQuietly(release);
+                return loader.apply(reference);
+            }));
+        loading.await(10, TimeUnit.SECONDS);
+
+        CompletableFuture<PaymentGroupResponse> second = CompletableFuture.supplyAsync(
+            () -> paymentGroupCache.get(PAYMENT_REFERENCE, loader));
+        release.countDown();
+
+        assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void hitsAndMissesArePublished() {
+        paymentGroupCache.get(PAYMENT_REFERENCE, loader);
+        paymentGroupCache.get(PAYMENT_REFERENCE, loader);
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", PaymentGroupCache.CACHE_NAME)
+            .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", PaymentGroupCache.CACHE_NAME)
+            .tag("result", "miss").functionCounter().count());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
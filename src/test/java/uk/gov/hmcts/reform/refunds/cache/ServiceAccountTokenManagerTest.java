@@ -0,0 +1,165 @@
+package uk.gov.hmcts.reform.refunds.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
+import uk.gov.hmcts.reform.refunds.services.IdamService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceAccountTokenManagerTest {
+
+    @Mock
+    private IdamService idamService;
+
+    private MeterRegistry meterRegistry;
+
+    private MutableClock clock;
+
+    private ServiceAccountTokenManager tokenManager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
+        tokenManager = new ServiceAccountTokenManager(idamService, meterRegistry, Duration.ofSeconds(60),
+                                                      Duration.ofMinutes(5), clock);
+    }
+
+    @Test
+    void tokenIsReusedUntilRefreshWindow() {
+        when(idamService.getSecurityTokens()).thenReturn(token("first", "3600"), token("second", "3600"));
+
+        assertEquals("first", tokenManager.getAccessToken());
+        clock.advance(Duration.ofMinutes(58));
+        assertEquals("first", tokenManager.getAccessToken());
+
+        clock.advance(Duration.ofMinutes(1).plusSeconds(1));
+        assertEquals("second", tokenManager.getAccessToken());
+
+        verify(idamService, times(2)).getSecurityTokens();
+        assertEquals(2.0, meterRegistry.get("idam.service.token.refreshes").counter().count());
+    }
+
+    @Test
+    void defaultTimeToLiveIsUsedWhenExpiresInIsMissing() {
+        when(idamService.getSecurityTokens()).thenReturn(token("first", null), token("second", null));
+
+        assertEquals("first", tokenManager.getAccessToken());
+        clock.advance(Duration.ofMinutes(3));
+        assertEquals("first", tokenManager.getAccessToken());
+        clock.advance(Duration.ofMinutes(1).plusSeconds(1));
+        assertEquals("second", tokenManager.getAccessToken());
+    }
+
+    @Test
+    void currentTokenIsKeptWhenRefreshFailsBeforeExpiry() {
+        when(idamService.getSecurityTokens())
+            .thenReturn(token("first", "3600"))
+            .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        tokenManager.getAccessToken();
+        clock.advance(Duration.ofMinutes(59).plusSeconds(30));
+
+        assertEquals("first", tokenManager.getAccessToken());
+        assertEquals(1.0, meterRegistry.get("idam.service.token.refresh.failures").counter().count());
+    }
+
+    @Test
+    void refreshFailureIsPropagatedOnceTokenHasExpired() {
+        when(idamService.getSecurityTokens())
+            .thenReturn(token("first", "3600"))
+            .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        tokenManager.getAccessToken();
+        clock.advance(Duration.ofHours(2));
+
+        assertThrows(HttpServerErrorException.class, () -> tokenManager.getAccessToken());
+    }
+
+    @Test
+    void concurrentCallersShareOneRefresh() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(idamService.getSecurityTokens()).thenAnswer(invocation -> {
+            release.await();
+            return token("shared", "3600");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            Callable<String> caller = tokenManager::getAccessToken;
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(caller));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("shared", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(idamService, times(1)).getSecurityTokens();
+    }
+
+    private static IdamTokenResponse token(String accessToken, String expiresIn) {
+        return IdamTokenResponse.idamFullNameRetrivalResponseWith()
+            .accessToken(accessToken)
+            .expiresIn(expiresIn)
+            .build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
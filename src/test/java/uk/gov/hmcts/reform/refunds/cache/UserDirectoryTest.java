@@ -0,0 +1,89 @@
+package uk.gov.hmcts.reform.refunds.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.refunds.dtos.responses.UserIdentityDataDto;
+import uk.gov.hmcts.reform.refunds.services.IdamService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class UserDirectoryTest {
+
+    @Mock
+    private IdamService idamService;
+
+    @Mock
+    private ServiceAccountTokenManager serviceAccountTokenManager;
+
+    private MeterRegistry meterRegistry;
+
+    private UserDirectory userDirectory;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userDirectory = new UserDirectory(idamService, serviceAccountTokenManager, meterRegistry, 2, Duration.ofHours(1),
+                                          Duration.ofMinutes(30), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void getAllPresentReturnsOnlyKnownUsers() {
+        UserIdentityDataDto user = UserIdentityDataDto.userIdentityDataWith().id("AA").fullName("A One").build();
+        userDirectory.putAll(List.of(user));
+
+        Map<String, UserIdentityDataDto> result = userDirectory.getAllPresent(List.of("AA", "BB"));
+
+        assertEquals(Map.of("AA", user), result);
+        verifyNoInteractions(idamService);
+    }
+
+    @Test
+    void putAllIgnoresUsersWithoutId() {
+        userDirectory.putAll(List.of(UserIdentityDataDto.userIdentityDataWith().fullName("System user").build()));
+
+        assertEquals(0, userDirectory.size());
+    }
+
+    @Test
+    void usersNotFoundAreRememberedUntilFound() {
+        userDirectory.putNotFound(List.of("AA"));
+
+        assertTrue(userDirectory.isNotFound("AA"));
+        assertFalse(userDirectory.isNotFound("BB"));
+
+        userDirectory.putAll(List.of(UserIdentityDataDto.userIdentityDataWith().id("AA").fullName("A One").build()));
+
+        assertFalse(userDirectory.isNotFound("AA"));
+    }
+
+    @Test
+    void evictionsArePublished() {
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", UserDirectory.CACHE_NAME).functionCounter());
+    }
+
+    @Test
+    void hitsAndMissesArePublished() {
+        userDirectory.putAll(List.of(UserIdentityDataDto.userIdentityDataWith().id("AA").build()));
+
+        userDirectory.getAllPresent(List.of("AA", "BB"));
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", UserDirectory.CACHE_NAME)
+            .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", UserDirectory.CACHE_NAME)
+            .tag("result", "miss").functionCounter().count());
+    }
+}
@@ -0,0 +1,83 @@
+package uk.gov.hmcts.reform.refunds.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RestTemplateConfigurationTest {
+
+    private MeterRegistry meterRegistry;
+
+    private RestTemplateConfiguration restTemplateConfiguration;
+
+    @BeforeEach
+    void setUp() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+            "http-clients.defaults.max-total", "40",
+            "http-clients.defaults.max-per-route", "10",
+            "http-clients.payment.max-per-route", "25",
+            "http-clients.defaults.bulkhead.max-concurrent-calls", "20")));
+        meterRegistry = new SimpleMeterRegistry();
+        restTemplateConfiguration = new RestTemplateConfiguration(environment, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        restTemplateConfiguration.closePooledHttpClients();
+    }
+
+    @Test
+    void downstreamSettingsOverrideDefaults() {
+        restTemplateConfiguration.restTemplatePayment();
+        restTemplateConfiguration.restTemplateNotify();
+
+        assertEquals(40.0, poolGauge("httpcomponents.httpclient.pool.total.max", "payment"));
+        assertEquals(25.0, poolGauge("httpcomponents.httpclient.pool.route.max.default", "payment"));
+        assertEquals(10.0, poolGauge("httpcomponents.httpclient.pool.route.max.default", "notify"));
+    }
+
+    @Test
+    void poolUsageIsPublishedPerDownstream() {
+        restTemplateConfiguration.restTemplateIdam();
+
+        assertEquals(0.0, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+            .tag("httpclient", "idam").tag("state", "leased").gauge().value());
+        assertEquals(0.0, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+            .tag("httpclient", "idam").tag("state", "available").gauge().value());
+        assertEquals(0.0, poolGauge("httpcomponents.httpclient.pool.total.pending", "idam"));
+    }
+
+    @Test
+    void circuitBreakerAndBulkheadArePublishedPerDownstream() {
+        restTemplateConfiguration.restTemplateIacSupplementaryInfo();
+
+        assertEquals(1.0, meterRegistry.get("resilience4j.circuitbreaker.state")
+            .tag("name", "iac").tag("state", "closed").gauge().value());
+        assertEquals(10.0, meterRegistry.get("resilience4j.bulkhead.max.allowed.concurrent.calls")
+            .tag("name", "iac").gauge().value());
+    }
+
+    @Test
+    void bulkheadIsCappedAtMaxPerRoute() {
+        restTemplateConfiguration.restTemplateIacSupplementaryInfo();
+        restTemplateConfiguration.restTemplatePayment();
+
+        assertEquals(10.0, meterRegistry.get("resilience4j.bulkhead.max.allowed.concurrent.calls")
+            .tag("name", "iac").gauge().value());
+        assertEquals(20.0, meterRegistry.get("resilience4j.bulkhead.max.allowed.concurrent.calls")
+            .tag("name", "payment").gauge().value());
+    }
+
+    private double poolGauge(String name, String downstream) {
+        return meterRegistry.get(name).tag("httpclient", downstream).gauge().value();
+    }
+}
@@ -0,0 +1,188 @@
+package uk.gov.hmcts.reform.refunds.config.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import uk.gov.hmcts.reform.refunds.exceptions.GatewayTimeoutException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResilientRequestInterceptorTest {
+
+    private static final byte[] BODY = new byte[0];
+
+    private final HttpRequest request = mock(HttpRequest.class);
+
+    private final ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+
+    private MeterRegistry meterRegistry;
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = CircuitBreaker.of("payment", CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .recordResult(ResilientRequestInterceptor::isServerError)
+            .ignoreExceptions(BulkheadFullException.class)
+            .build());
+    }
+
+    @Test
+    void serverErrorsOpenTheCircuitAndLaterCallsFailFast() throws IOException {
+        ResilientRequestInterceptor interceptor = interceptor(Bulkhead.ofDefaults("payment"));
+        ClientHttpResponse serverError = response(HttpStatus.INTERNAL_SERVER_ERROR);
+        when(execution.execute(any(), any())).thenReturn(serverError);
+
+        for (int i = 0; i < 4; i++) {
+            try (ClientHttpResponse response = interceptor.intercept(request, BODY, execution)) {
+                assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+            }
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(GatewayTimeoutException.class, () -> interceptor.intercept(request, BODY, execution));
+        verify(execution, times(4)).execute(any(), any());
+        assertEquals(1.0, rejections("circuit-open"));
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheCircuit() throws IOException {
+        ResilientRequestInterceptor interceptor = interceptor(Bulkhead.ofDefaults("payment"));
+        ClientHttpResponse notFound = response(HttpStatus.NOT_FOUND);
+        when(execution.execute(any(), any())).thenReturn(notFound);
+
+        for (int i = 0; i < 4; i++) {
+            interceptor.intercept(request, BODY, execution).close();
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void timeoutsCountAsFailures() throws IOException {
+        ResilientRequestInterceptor interceptor = interceptor(Bulkhead.ofDefaults("payment"));
+        when(execution.execute(any(), any())).thenThrow(new SocketTimeoutException("Read timed out"));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(SocketTimeoutException.class, () -> interceptor.intercept(request, BODY, execution));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void callsBeyondTheBulkheadAreRejected() throws Exception {
+        ResilientRequestInterceptor interceptor = interceptor(Bulkhead.of("payment", BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build()));
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ClientHttpResponse ok = response(HttpStatus.OK);
+        when(execution.execute(any(), any())).thenAnswer(invocation -> {
+            inFlight.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return ok;
+        });
+
+        CompletableFuture<ClientHttpResponse> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return interceptor.intercept(request, BODY, execution);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        inFlight.await(10, TimeUnit.SECONDS);
+
+        assertThrows(GatewayTimeoutException.class, () -> interceptor.intercept(request, BODY, execution));
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS).close();
+        assertEquals(1.0, rejections("bulkhead-full"));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void bulkheadPermitIsHeldUntilTheResponseIsClosed() throws IOException {
+        Bulkhead bulkhead = Bulkhead.of("payment", BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        ResilientRequestInterceptor interceptor = interceptor(bulkhead);
+        ClientHttpResponse ok = response(HttpStatus.OK);
+        when(execution.execute(any(), any())).thenReturn(ok);
+
+        ClientHttpResponse response = interceptor.intercept(request, BODY, execution);
+        assertEquals(0, bulkhead.getMetrics().getAvailableConcurrentCalls());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+
+        response.close();
+        response.close();
+        verify(ok).close();
+        assertEquals(1, bulkhead.getMetrics().getAvailableConcurrentCalls());
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
+    }
+
+    @Test
+    void errorsReadingTheBodyCountAsFailures() throws IOException {
+        ResilientRequestInterceptor interceptor = interceptor(Bulkhead.ofDefaults("payment"));
+        ClientHttpResponse ok = response(HttpStatus.OK);
+        InputStream body = mock(InputStream.class);
+        when(body.read(any(), anyInt(), anyInt())).thenThrow(new SocketTimeoutException("Read timed out"));
+        when(ok.getBody()).thenReturn(body);
+        when(execution.execute(any(), any())).thenReturn(ok);
+
+        for (int i = 0; i < 4; i++) {
+            try (ClientHttpResponse response = interceptor.intercept(request, BODY, execution)) {
+                assertThrows(SocketTimeoutException.class, () -> response.getBody().readAllBytes());
+            }
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private ResilientRequestInterceptor interceptor(Bulkhead bulkhead) {
+        return new ResilientRequestInterceptor(circuitBreaker, bulkhead, meterRegistry,
+                                               e -> new GatewayTimeoutException("Payment is unavailable"));
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.get(ResilientRequestInterceptor.REJECTED_CALLS_COUNTER)
+            .tag("downstream", "payment").tag("reason", reason).counter().count();
+    }
+
+    private static ClientHttpResponse response(HttpStatus status) throws IOException {
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        when(response.getStatusCode()).thenReturn(status);
+        return response;
+    }
+}
@@ -0,0 +1,73 @@
+package uk.gov.hmcts.reform.refunds.config.security.idam;
+
+import com.nimbusds.jose.PlainHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.PlainJWT;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserInfoCacheExpiryTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+    private final UserInfoCacheExpiry expiry =
+        new UserInfoCacheExpiry(Duration.ofMinutes(30), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void keyHashesTokenAndReadsExpiry() {
+        String token = tokenExpiringAt(NOW.plusSeconds(300));
+
+        UserInfoCacheKey key = UserInfoCacheKey.of(token);
+
+        assertThat(key.tokenHash()).hasSize(64).doesNotContain(token);
+        assertThat(key.expiresAt()).isEqualTo(NOW.plusSeconds(300));
+        assertThat(UserInfoCacheKey.of(token)).isEqualTo(key);
+    }
+
+    @Test
+    void keyWithoutParsableExpiryHasNoExpiresAt() {
+        assertThat(UserInfoCacheKey.of("not-a-jwt").expiresAt()).isNull();
+    }
+
+    @Test
+    void entryExpiresWithTokenWhenSoonerThanMaximum() {
+        UserInfoCacheKey key = UserInfoCacheKey.of(tokenExpiringAt(NOW.plusSeconds(300)));
+
+        assertThat(expiry.expireAfterCreate(key, "user", 0L)).isEqualTo(Duration.ofSeconds(300).toNanos());
+    }
+
+    @Test
+    void entryIsCappedAtMaximumTimeToLive() {
+        UserInfoCacheKey key = UserInfoCacheKey.of(tokenExpiringAt(NOW.plus(Duration.ofHours(8))));
+
+        assertThat(expiry.expireAfterCreate(key, "user", 0L)).isEqualTo(Duration.ofMinutes(30).toNanos());
+    }
+
+    @Test
+    void expiredTokenIsNotRetained() {
+        UserInfoCacheKey key = UserInfoCacheKey.of(tokenExpiringAt(NOW.minusSeconds(1)));
+
+        assertThat(expiry.expireAfterCreate(key, "user", 0L)).isZero();
+    }
+
+    @Test
+    void tokenWithoutExpiryUsesMaximumTimeToLive() {
+        assertThat(expiry.expireAfterCreate(UserInfoCacheKey.of("not-a-jwt"), "user", 0L))
+            .isEqualTo(Duration.ofMinutes(30).toNanos());
+    }
+
+    private static String tokenExpiringAt(Instant expiresAt) {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .subject("user@hmcts.net")
+            .expirationTime(Date.from(expiresAt))
+            .build();
+        return new PlainJWT(new PlainHeader(), claims).serialize();
+    }
+}
@@ -40,7 +40,9 @@ import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
-import uk.gov.hmcts.reform.refunds.config.ContextStartListener;
+import uk.gov.hmcts.reform.refunds.cache.UserDirectory;
+import uk.gov.hmcts.reform.refunds.config.sql.SqlStatementRecorder;
+import uk.gov.hmcts.reform.refunds.config.sql.SqlStatistics;
 import uk.gov.hmcts.reform.refunds.config.toggler.LaunchDarklyFeatureToggler;
 import uk.gov.hmcts.reform.refunds.dtos.SupplementaryDetailsResponse;
 import uk.gov.hmcts.reform.refunds.dtos.enums.NotificationType;
@@ -86,6 +88,7 @@ import uk.gov.hmcts.reform.refunds.model.RefundReason;
 import uk.gov.hmcts.reform.refunds.model.RefundStatus;
 import uk.gov.hmcts.reform.refunds.model.RejectionReason;
 import uk.gov.hmcts.reform.refunds.model.StatusHistory;
+import uk.gov.hmcts.reform.refunds.repository.PaymentRefundLedgerRepository;
 import uk.gov.hmcts.reform.refunds.repository.RefundReasonRepository;
 import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
 import uk.gov.hmcts.reform.refunds.repository.RejectionReasonRepository;
@@ -113,8 +116,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -130,12 +135,15 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
 
@@ -400,7 +408,7 @@ class RefundControllerTest {
     private RejectionReasonRepository rejectionReasonRepository;
 
     @MockBean
-    private ContextStartListener contextStartListener;
+    private UserDirectory userDirectory;
 
     @Mock
     private IdamServiceImpl idamServiceImpl;
@@ -452,6 +460,12 @@ class RefundControllerTest {
     @MockBean
     private IacService iacService;
 
+    @Autowired
+    private PaymentRefundLedgerRepository paymentRefundLedgerRepository;
+
+    @Autowired
+    private SqlStatementRecorder sqlStatementRecorder;
+
     @MockBean
     private Specification<Refund> mockSpecification;
 
@@ -486,13 +500,25 @@ class RefundControllerTest {
     @BeforeEach
     void setUp() {
         mockMvc = webAppContextSetup(webApplicationContext).build();
+        // refunds are mocked here, so ledger totals written by earlier requests would never be released
+        paymentRefundLedgerRepository.deleteAll();
+        // status changes read the refund through the ledger's locking queries, answered here from the find stubs
+        when(refundsRepository.findPaymentReferenceByReference(anyString()))
+            .thenAnswer(invocation -> stubbedRefund(invocation.getArgument(0)).map(Refund::getPaymentReference));
+        when(refundsRepository.findByReferenceForUpdate(anyString()))
+            .thenAnswer(invocation -> stubbedRefund(invocation.getArgument(0)));
+    }
+
+    private Optional<Refund> stubbedRefund(String reference) {
+        Optional<Refund> refund = refundsRepository.findByReference(reference);
+        return refund.isPresent() ? refund : Optional.ofNullable(refundsRepository.findByReferenceOrThrow(reference));
     }
 
     @Test
     void givenBlankCcdCaseNumberAndStatus_whenGetRefundList_thenRefundListEmptyExceptionIsReceived() {
         Exception exception = assertThrows(
             RefundListEmptyException.class,
-            () -> refundsController.getRefundList(null, null, "", "", null)
+            () -> refundsController.getRefundList(null, null, "", "", null, null, null)
         );
         String actualMessage = exception.getMessage();
         assertTrue(actualMessage.contains(
@@ -515,14 +541,11 @@ class RefundControllerTest {
             .thenReturn(Optional.ofNullable(List.of(
                 Utility.refundListSupplierBasedOnCCDCaseNumber1.get())));
 
-        Map<String, List<UserIdentityDataDto>> userMap = new ConcurrentHashMap<>();
-        userMap.put(
-            "payments-refund",
-                 Collections
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(
+            Collections
                         .singletonList(UserIdentityDataDto.userIdentityDataWith().id(Utility.GET_REFUND_LIST_CCD_CASE_USER_ID1)
                                 .fullName("mock-Forename mock-Surname").emailId("mockfullname@gmail.com").build())
-        );
-        when(contextStartListener.getUserMap()).thenReturn(userMap);
+        ));
         when(refundReasonRepository.findByCode(anyString())).thenReturn(Optional.of(RefundReason.refundReasonWith().name(
             "refund reason").build()));
 
@@ -570,14 +593,11 @@ class RefundControllerTest {
         //mock repository call
         List<String> list = List.of("cmc");
 
-        Map<String, List<UserIdentityDataDto>> userMap = new ConcurrentHashMap<>();
-        userMap.put(
-            "payments-refund",
-                 Collections
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(
+            Collections
                         .singletonList(UserIdentityDataDto.userIdentityDataWith().id(Utility.GET_REFUND_LIST_CCD_CASE_USER_ID1)
                                 .fullName("mock-Forename mock-Surname").emailId("mockfullname@gmail.com").build())
-        );
-        when(contextStartListener.getUserMap()).thenReturn(userMap);
+        ));
         when(refundReasonRepository.findByCode(anyString())).thenReturn(Optional.of(RefundReason.refundReasonWith().name(
             "refund reason").build()));
 
@@ -606,14 +626,11 @@ class RefundControllerTest {
             Arrays.asList("refund-approver", "refund-admin"),
             idamFullNameCCDSearchRefundListSupplier.get()
         );
-        Map<String, List<UserIdentityDataDto>> userMap = new ConcurrentHashMap<>();
-        userMap.put(
-            "payments-refund",
-                Collections.singletonList(
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(
+            Collections.singletonList(
                         UserIdentityDataDto.userIdentityDataWith().id(Utility.GET_REFUND_LIST_CCD_CASE_USER_ID1)
                                 .fullName("mock-Forename mock-Surname").emailId("mockfullname@gmail.com").build())
-        );
-        when(contextStartListener.getUserMap()).thenReturn(userMap);
+        ));
 
 
         //mock repository call
@@ -699,14 +716,11 @@ class RefundControllerTest {
             idamFullNameCCDSearchRefundListSupplier1.get()
         );
 
-        Map<String, List<UserIdentityDataDto>> userMap = new ConcurrentHashMap<>();
-        userMap.put(
-            "payments-refund",
-                Collections.singletonList(
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(
+            Collections.singletonList(
                         UserIdentityDataDto.userIdentityDataWith().id("1f2b7025-0f91-4737-92c6-b7a9baef14c6")
                                 .fullName("mock-Forename mock-Surname").emailId("mockfullname@gmail.com").build())
-        );
-        when(contextStartListener.getUserMap()).thenReturn(userMap);
+        ));
 
         //mock repository call
 
@@ -765,14 +779,11 @@ class RefundControllerTest {
         )).thenReturn(Optional.ofNullable(List.of(
             Utility.refundListSupplierForSendBackStatus.get())));
 
-        Map<String, List<UserIdentityDataDto>> userMap = new ConcurrentHashMap<>();
-        userMap.put(
-            "payments-refund",
-                Collections.singletonList(UserIdentityDataDto.userIdentityDataWith().id(
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(
+            Collections.singletonList(UserIdentityDataDto.userIdentityDataWith().id(
                         Utility.GET_REFUND_LIST_SENDBACK_REFUND_CCD_CASE_USER_ID)
                         .fullName("mock2-Forename mock2-Surname").emailId("mock2fullname@gmail.com").build())
-        );
-        when(contextStartListener.getUserMap()).thenReturn(userMap);
+        ));
 
         MvcResult mvcResult = mockMvc.perform(get("/refund")
                                                   .header("Authorization", "user")
@@ -798,6 +809,10 @@ class RefundControllerTest {
         assertEquals("mock2-Forename mock2-Surname", refundListDtoResponse.getRefundList().get(0).getUserFullName());
     }
 
+    private static Map<String, UserIdentityDataDto> directoryOf(List<UserIdentityDataDto> users) {
+        return users.stream().collect(Collectors.toMap(UserIdentityDataDto::getId, Function.identity()));
+    }
+
     public void mockUserinfoCall(IdamUserIdResponse idamUserIdResponse) {
         UriComponentsBuilder builderForUserInfo = UriComponentsBuilder.fromUriString(idamBaseUrl + IdamServiceImpl.USERID_ENDPOINT);
         ResponseEntity<IdamUserIdResponse> responseEntity = new ResponseEntity<>(idamUserIdResponse, HttpStatus.OK);
@@ -864,37 +879,42 @@ class RefundControllerTest {
                                        eq(IdamUserIdResponse.class)
         )).thenReturn(responseEntity);
 
-        MvcResult result = mockMvc.perform(post("/refund")
-                                               .content(asJsonString(RefundRequest.refundRequestWith()
-                                                                         .paymentReference("RC-1234-1234-1234-1234")
-                                                                         .refundAmount(new BigDecimal(100))
-                                                                         .paymentAmount(new BigDecimal(100))
-                                                                         .refundReason("RR035-Other-Reason")
-                                                                         .ccdCaseNumber("1111222233334444")
-                                                                         .feeIds("1")
-                                                                         .refundFees(Collections.singletonList(
-                                                                                 RefundFeeDto.refundFeeRequestWith()
-                                                                                         .feeId(1)
-                                                                                         .code("RR001")
-                                                                                         .version("1")
-                                                                                         .volume(1)
-                                                                                         .refundAmount(
-                                                                                                 new BigDecimal(100))
-                                                                                         .build()))
-                                                                         .serviceType("cmc")
-                                                                         .paymentMethod("cash")
-                                                                         .paymentChannel("bulk scan")
-                                                                         .contactDetails(ContactDetails.contactDetailsWith()
-                                                                                 .email("abc@abc.com")
-                                                                                 .notificationType("EMAIL")
-                                                                                 .build())
-                                                                         .build()))
-                                               .header("Authorization", "user")
-                                               .header("ServiceAuthorization", "Services")
-                                               .contentType(MediaType.APPLICATION_JSON)
-                                               .accept(MediaType.APPLICATION_JSON))
-            .andExpect(status().isCreated())
-            .andReturn();
+        MvcResult result;
+        // locking, reading back and updating the payment's ledger row
+        try (SqlStatistics sqlStatistics = sqlStatementRecorder.start()) {
+            result = mockMvc.perform(post("/refund")
+                                         .content(asJsonString(RefundRequest.refundRequestWith()
+                                                                   .paymentReference("RC-1234-1234-1234-1234")
+                                                                   .refundAmount(new BigDecimal(100))
+                                                                   .paymentAmount(new BigDecimal(100))
+                                                                   .refundReason("RR035-Other-Reason")
+                                                                   .ccdCaseNumber("1111222233334444")
+                                                                   .feeIds("1")
+                                                                   .refundFees(Collections.singletonList(
+                                                                           RefundFeeDto.refundFeeRequestWith()
+                                                                                   .feeId(1)
+                                                                                   .code("RR001")
+                                                                                   .version("1")
+                                                                                   .volume(1)
+                                                                                   .refundAmount(
+                                                                                           new BigDecimal(100))
+                                                                                   .build()))
+                                                                   .serviceType("cmc")
+                                                                   .paymentMethod("cash")
+                                                                   .paymentChannel("bulk scan")
+                                                                   .contactDetails(ContactDetails.contactDetailsWith()
+                                                                           .email("abc@abc.com")
+                                                                           .notificationType("EMAIL")
+                                                                           .build())
+                                                                   .build()))
+                                         .header("Authorization", "user")
+                                         .header("ServiceAuthorization", "Services")
+                                         .contentType(MediaType.APPLICATION_JSON)
+                                         .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn();
+            sqlStatistics.assertStatementsAtMost(4);
+        }
 
         ObjectMapper mapper = new ObjectMapper();
         RefundResponse refundResponse = mapper.readValue(
@@ -2032,6 +2052,7 @@ class RefundControllerTest {
     void givenValidReference_whenDeleteRefund_thenRefundNotFoundException() throws Exception {
 
         long records = 1;
+        when(refundsRepository.findByReference(anyString())).thenReturn(Optional.of(getRefund()));
         when(refundsRepository.deleteByReference(anyString())).thenReturn(records);
 
         mockMvc.perform(delete("/refund/RF-1234-1234-1234-1234")
@@ -2486,7 +2507,7 @@ class RefundControllerTest {
         );
 
         List<String> referenceList = List.of("RC-1111-2234-1077-1123");
-        when(paymentService.fetchPaymentResponse(referenceList)).thenReturn(getPayments());
+        when(paymentService.fetchPaymentResponse(eq(referenceList), any())).thenReturn(getPayments());
 
         SupplementaryDetailsResponse supplementaryDetailsResponse = SupplementaryDetailsResponse.supplementaryDetailsResponseWith().build();
         when(iacService.getIacSupplementaryDetails(any(), any())).thenReturn(
@@ -2617,32 +2638,67 @@ class RefundControllerTest {
 
     @Test
     void retrieveRefundsReport_returnsOk_withReportList() throws Exception {
-        Tuple tuple = mock(Tuple.class);
-        when(tuple.get(eq("date_created"), eq(Date.class))).thenReturn(new Date());
-        when(tuple.get(eq("date_updated"), eq(Date.class))).thenReturn(new Date());
-        when(tuple.get(eq("amount"), eq(BigDecimal.class))).thenReturn(BigDecimal.valueOf(100));
-        when(tuple.get(eq("reference"), eq(String.class))).thenReturn("RF-1111-2234-1077-1123");
-        when(tuple.get(eq("payment_reference"), eq(String.class))).thenReturn("RC-1111-2234-1077-1123");
-        when(tuple.get(eq("ccd_case_number"), eq(String.class))).thenReturn("1111222233334444");
-        when(tuple.get(eq("service_type"), eq(String.class))).thenReturn("cmc");
-        when(tuple.get(eq("refund_status"), eq(String.class))).thenReturn("Approved");
-        when(tuple.get(eq("notes"), eq(String.class))).thenReturn("notes");
+        when(refundsRepository.streamAllRefundsByDateCreatedBetween(any(), any()))
+            .thenReturn(Stream.of(getRefundsReportTuple("notes")));
 
-        when(refundsRepository.findAllRefundsByDateCreatedBetween(any(), any()))
-            .thenReturn(List.of(tuple));
-
-        mockMvc.perform(get("/refund/refunds-report")
+        MvcResult result = mockMvc.perform(get("/refund/refunds-report")
                             .queryParam("date_from", "01/12/2025")
                             .queryParam("date_to", "13/12/2025")
                             .header("Authorization", "user")
                             .header("ServiceAuthorization", "Services")
                             .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.refunds_report_list", hasSize(1)))
             .andExpect(jsonPath("$.refunds_report_list[0].RF_reference").value("RF-1111-2234-1077-1123"))
             .andExpect(jsonPath("$.refunds_report_list[0].payment_reference").value("RC-1111-2234-1077-1123"));
 
-        verify(refundsRepository, times(1)).findAllRefundsByDateCreatedBetween(any(), any());
+        verify(refundsRepository, times(1)).streamAllRefundsByDateCreatedBetween(any(), any());
+    }
+
+    @Test
+    void retrieveRefundsReport_returnsCsv_whenCsvAccepted() throws Exception {
+        when(refundsRepository.streamAllRefundsByDateCreatedBetween(any(), any()))
+            .thenReturn(Stream.of(getRefundsReportTuple("Refund rejected, \"wrong\" account")));
+
+        MvcResult result = mockMvc.perform(get("/refund/refunds-report")
+                            .queryParam("date_from", "01/12/2025")
+                            .queryParam("date_to", "13/12/2025")
+                            .header("Authorization", "user")
+                            .header("ServiceAuthorization", "Services")
+                            .accept("text/csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String csv = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andReturn().getResponse().getContentAsString();
+
+        String[] lines = csv.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("date_created,date_updated,amount,RF_reference,payment_reference,ccd_case_number,service_type,"
+                         + "refund_status,refund_status_reason", lines[0]);
+        assertTrue(lines[1].endsWith(",100,RF-1111-2234-1077-1123,RC-1111-2234-1077-1123,1111222233334444,cmc,Approved,"
+                                         + "\"Refund rejected, \"\"wrong\"\" account\""));
+    }
+
+    private Tuple getRefundsReportTuple(String notes) {
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.get(eq("date_created"), eq(Date.class))).thenReturn(new Date());
+        when(tuple.get(eq("date_updated"), eq(Date.class))).thenReturn(new Date());
+        when(tuple.get(eq("amount"), eq(BigDecimal.class))).thenReturn(BigDecimal.valueOf(100));
+        when(tuple.get(eq("reference"), eq(String.class))).thenReturn("RF-1111-2234-1077-1123");
+        when(tuple.get(eq("payment_reference"), eq(String.class))).thenReturn("RC-1111-2234-1077-1123");
+        when(tuple.get(eq("ccd_case_number"), eq(String.class))).thenReturn("1111222233334444");
+        when(tuple.get(eq("service_type"), eq(String.class))).thenReturn("cmc");
+        when(tuple.get(eq("refund_status"), eq(String.class))).thenReturn("Approved");
+        when(tuple.get(eq("notes"), eq(String.class))).thenReturn(notes);
+        return tuple;
     }
 
     @Test
@@ -2655,6 +2711,6 @@ class RefundControllerTest {
                             .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isBadRequest());
 
-        verify(refundsRepository, never()).findAllRefundsByDateCreatedBetween(any(), any());
+        verify(refundsRepository, never()).streamAllRefundsByDateCreatedBetween(any(), any());
     }
 }
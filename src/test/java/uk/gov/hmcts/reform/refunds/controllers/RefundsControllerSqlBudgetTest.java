@@ -0,0 +1,169 @@
+package uk.gov.hmcts.reform.refunds.controllers;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.WebApplicationContext;
+import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.refunds.config.ContextStartListener;
+import uk.gov.hmcts.reform.refunds.config.sql.SqlBudgetFilter;
+import uk.gov.hmcts.reform.refunds.config.sql.SqlStatementRecorder;
+import uk.gov.hmcts.reform.refunds.config.sql.SqlStatistics;
+import uk.gov.hmcts.reform.refunds.config.toggler.LaunchDarklyFeatureToggler;
+import uk.gov.hmcts.reform.refunds.dtos.responses.IdamUserIdResponse;
+import uk.gov.hmcts.reform.refunds.dtos.responses.UserIdentityDataDto;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+import uk.gov.hmcts.reform.refunds.model.RefundStatus;
+import uk.gov.hmcts.reform.refunds.model.StatusHistory;
+import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
+import uk.gov.hmcts.reform.refunds.services.IdamService;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+/**
+ * Runs endpoints with an SQL budget against the test database, so the budgets in application.yaml are checked
+ * against the statements the real repositories issue.
+ */
+@SpringBootTest
+@ActiveProfiles({"local", "test"})
+class RefundsControllerSqlBudgetTest {
+
+    private static final String REFERENCE = "RF-1111-2222-3333-4444";
+    private static final String USER_ID = "1f2b7025-0f91-4737-92c6-b7a9baef14c6";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private SqlBudgetFilter sqlBudgetFilter;
+
+    @Autowired
+    private SqlStatementRecorder sqlStatementRecorder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RefundsRepository refundsRepository;
+
+    @Value("#{${refund.sql-budget.endpoints}}")
+    private Map<String, Integer> endpointBudgets;
+
+    @MockBean
+    private IdamService idamService;
+
+    @MockBean
+    private LaunchDarklyFeatureToggler featureToggler;
+
+    @MockBean
+    private ContextStartListener contextStartListener;
+
+    @MockBean
+    private AuthTokenGenerator authTokenGenerator;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = webAppContextSetup(webApplicationContext).addFilters(sqlBudgetFilter).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        refundsRepository.deleteAll();
+    }
+
+    @Test
+    void statusHistoryStaysWithinItsBudget() throws Exception {
+        saveRefund();
+        when(idamService.getUserId(any())).thenReturn(IdamUserIdResponse.idamUserIdResponseWith().uid(USER_ID).build());
+        when(idamService.getUserIdentityDataForUids(any(), any())).thenReturn(Map.of(
+            USER_ID, UserIdentityDataDto.userIdentityDataWith().id(USER_ID).fullName("mock-Forename mock-Surname")
+                .emailId("mockfullname@gmail.com").build()));
+
+        try (SqlStatistics sqlStatistics = sqlStatementRecorder.start()) {
+            mockMvc.perform(get("/refund/{reference}/status-history", REFERENCE)
+                                .header("Authorization", "user")
+                                .header("ServiceAuthorization", "Services")
+                                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status_history_dto_list.length()").value(2));
+
+            sqlStatistics.assertStatementsAtMost(endpointBudgets.get("GET /refund/{reference}/status-history"));
+        }
+    }
+
+    @Test
+    void refundsReportPublishesStatementsRunWhileStreaming() throws Exception {
+        saveRefund();
+        String endpoint = "GET /refund/refunds-report";
+        long requestsBefore = statementsOf(endpoint).count();
+        double statementsBefore = statementsOf(endpoint).totalAmount();
+
+        MvcResult result = mockMvc.perform(get("/refund/refunds-report")
+                                               .queryParam("date_from", "01/01/2000")
+                                               .queryParam("date_to", "31/12/2099")
+                                               .header("Authorization", "user")
+                                               .header("ServiceAuthorization", "Services")
+                                               .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.refunds_report_list.length()").value(1));
+
+        assertEquals(requestsBefore + 1, statementsOf(endpoint).count());
+        assertTrue(statementsOf(endpoint).totalAmount() > statementsBefore);
+    }
+
+    private DistributionSummary statementsOf(String endpoint) {
+        return meterRegistry.summary("refunds.sql.statements", "endpoint", endpoint);
+    }
+
+    private void saveRefund() {
+        refundsRepository.save(Refund.refundsWith()
+                                   .reference(REFERENCE)
+                                   .paymentReference("RC-1111-2222-3333-4444")
+                                   .ccdCaseNumber("1111222233334444")
+                                   .serviceType("cmc")
+                                   .amount(BigDecimal.valueOf(100))
+                                   .reason("RR001")
+                                   .refundStatus(RefundStatus.APPROVED)
+                                   .createdBy(USER_ID)
+                                   .updatedBy(USER_ID)
+                                   .feeIds("1")
+                                   .statusHistories(List.of(
+                                       StatusHistory.statusHistoryWith().status(RefundStatus.SENTFORAPPROVAL.getName())
+                                           .createdBy(USER_ID).notes("Refund initiated").build(),
+                                       StatusHistory.statusHistoryWith().status(RefundStatus.APPROVED.getName())
+                                           .createdBy(USER_ID).notes("Refund approved").build()))
+                                   .build());
+    }
+}
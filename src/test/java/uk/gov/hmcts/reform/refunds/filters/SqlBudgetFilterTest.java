@@ -0,0 +1,130 @@
+package uk.gov.hmcts.reform.refunds.filters;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import uk.gov.hmcts.reform.refunds.config.sql.SqlBudgetFilter;
+import uk.gov.hmcts.reform.refunds.config.sql.SqlStatementRecorder;
+import uk.gov.hmcts.reform.refunds.config.sql.SqlStatistics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings({"PMD.DoNotUseThreads"})
+class SqlBudgetFilterTest {
+
+    private static final String ENDPOINT = "GET /refund/{reference}/status-history";
+
+    private SqlStatementRecorder recorder;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SqlBudgetFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new SqlStatementRecorder();
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SqlBudgetFilter(recorder, meterRegistry, 50, Map.of(ENDPOINT, 1));
+    }
+
+    @Test
+    void publishesStatementsAndJdbcTimeTaggedByEndpoint() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/refund/RF-1234/status-history");
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/refund/{reference}/status-history");
+            executeQuery(5);
+            executeQuery(7);
+        };
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertEquals(2.0, meterRegistry.get("refunds.sql.statements").tag("endpoint", ENDPOINT).summary().totalAmount());
+        assertEquals(12.0, meterRegistry.get("refunds.sql.jdbc.time").tag("endpoint", ENDPOINT).timer()
+            .totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(0.0, meterRegistry.get("refunds.sql.rows").tag("endpoint", ENDPOINT).summary().totalAmount());
+    }
+
+    @Test
+    void asyncRequestIsPublishedOnceWithStatementsRunByItsAsyncTask() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/refund/RF-1234/status-history");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain startAsync = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/refund/{reference}/status-history");
+            executeQuery(1);
+            req.startAsync();
+            try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+                executor.submit(recorder.decorate(() -> executeQuery(1))).get();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        filter.doFilter(request, response, startAsync);
+
+        assertTrue(meterRegistry.find("refunds.sql.statements").summaries().isEmpty());
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        request.setAsyncStarted(false);
+        filter.doFilter(request, response, (req, res) -> executeQuery(1));
+
+        assertEquals(1, meterRegistry.get("refunds.sql.statements").tag("endpoint", ENDPOINT).summary().count());
+        assertEquals(3.0, meterRegistry.get("refunds.sql.statements").tag("endpoint", ENDPOINT).summary().totalAmount());
+    }
+
+    @Test
+    void decoratedTaskRecordsIntoTheSubmittingThreadsScope() throws Exception {
+        try (SqlStatistics statistics = recorder.start();
+             ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            executor.submit(recorder.decorate(() -> executeQuery(1))).get();
+            executor.submit(() -> executeQuery(1)).get();
+
+            assertEquals(1, statistics.getStatements());
+        }
+    }
+
+    @Test
+    void statementsOutsideAnOpenScopeAreNotRecorded() {
+        executeQuery(1);
+        try (SqlStatistics statistics = recorder.start()) {
+            executeQuery(1);
+            try (SqlStatistics nested = recorder.start()) {
+                executeQuery(1);
+                assertEquals(1, nested.getStatements());
+            }
+            assertEquals(2, statistics.getStatements());
+        }
+    }
+
+    @Test
+    void assertStatementsAtMostFailsWhenBudgetIsExceeded() {
+        try (SqlStatistics statistics = recorder.start()) {
+            executeQuery(1);
+            executeQuery(1);
+
+            statistics.assertStatementsAtMost(2);
+            assertThrows(AssertionError.class, () -> statistics.assertStatementsAtMost(1));
+        }
+    }
+
+    private void executeQuery(long elapsedMillis) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMillis);
+        recorder.afterQuery(executionInfo, List.of(new QueryInfo("select 1")));
+    }
+}
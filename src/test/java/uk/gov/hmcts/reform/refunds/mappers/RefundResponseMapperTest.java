@@ -0,0 +1,63 @@
+package uk.gov.hmcts.reform.refunds.mappers;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.refunds.dtos.responses.FeeDto;
+import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentDto;
+import uk.gov.hmcts.reform.refunds.dtos.responses.RefundLiberata;
+import uk.gov.hmcts.reform.refunds.mapper.RefundResponseMapper;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+import uk.gov.hmcts.reform.refunds.model.RefundFees;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RefundResponseMapperTest {
+
+    private final RefundResponseMapper refundResponseMapper = new RefundResponseMapper();
+
+    @Test
+    void getRefundLiberatasJoinsRefundsToPaymentsByReference() {
+        List<Refund> refunds = List.of(
+            refund("RF-1111-1111-1111-1111", "RC-1111", "FEE0001", "10.00"),
+            refund("RF-2222-2222-2222-2222", "RC-2222", "FEE0002", "20.00"),
+            refund("RF-3333-3333-3333-3333", "RC-3333", "FEE0003", "30.00")
+        );
+        List<PaymentDto> payments = List.of(
+            payment("RC-2222", "FEE0002", "100.00"),
+            payment("RC-1111", "FEE0001", "50.00")
+        );
+        Map<String, BigDecimal> refundedByPaymentReference = Map.of("RC-1111", new BigDecimal("10.00"));
+
+        List<RefundLiberata> refundLiberatas = refundResponseMapper.getRefundLiberatas(
+            refunds, payments, refundedByPaymentReference, reasonCode -> "Reason " + reasonCode);
+
+        assertEquals(2, refundLiberatas.size());
+        assertEquals("RF-1111-1111-1111-1111", refundLiberatas.get(0).getReference());
+        assertEquals("Reason RR001", refundLiberatas.get(0).getReason());
+        assertEquals(new BigDecimal("40.00"), refundLiberatas.get(0).getPayment().getAvailableFunds());
+        assertEquals(new BigDecimal("10.00"), refundLiberatas.get(0).getFees().get(0).getCredit());
+        assertEquals("RF-2222-2222-2222-2222", refundLiberatas.get(1).getReference());
+        assertEquals(BigDecimal.ZERO, refundLiberatas.get(1).getPayment().getAvailableFunds());
+    }
+
+    private static Refund refund(String reference, String paymentReference, String feeCode, String amount) {
+        return Refund.refundsWith()
+            .reference(reference)
+            .paymentReference(paymentReference)
+            .reason("RR001")
+            .amount(new BigDecimal(amount))
+            .refundFees(List.of(RefundFees.refundFeesWith().code(feeCode).refundAmount(new BigDecimal(amount)).build()))
+            .build();
+    }
+
+    private static PaymentDto payment(String paymentReference, String feeCode, String amount) {
+        return PaymentDto.payment2DtoWith()
+            .paymentReference(paymentReference)
+            .amount(new BigDecimal(amount))
+            .fees(List.of(FeeDto.feeDtoWith().code(feeCode).naturalAccountCode("4481102133").build()))
+            .build();
+    }
+}
@@ -0,0 +1,142 @@
+package uk.gov.hmcts.reform.refunds.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.refunds.config.ContextStartListener;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+import uk.gov.hmcts.reform.refunds.model.RefundStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks two nodes retrying failed notifications at the same time claim disjoint refunds.
+ */
+@SpringBootTest
+@ActiveProfiles({"local", "test"})
+class RefundsRepositoryNotificationClaimTest {
+
+    private static final String EMAIL_NOT_SENT = "EMAIL_NOT_SENT";
+
+    @Autowired
+    private RefundsRepository refundsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private ContextStartListener contextStartListener;
+
+    @MockBean
+    private AuthTokenGenerator authTokenGenerator;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refundsRepository.deleteAll();
+    }
+
+    @Test
+    void rowsLockedByOneNodeAreSkippedByAnother() throws Exception {
+        saveRefunds(3);
+        CountDownLatch firstNodeLocked = new CountDownLatch(1);
+        CountDownLatch secondNodeDone = new CountDownLatch(1);
+
+        CompletableFuture<List<Integer>> firstNode = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            List<Integer> ids = refundsRepository.lockUnclaimedByNotificationSentFlag(EMAIL_NOT_SENT, 2);
+            firstNodeLocked.countDown();
+            awaitQuietly(secondNodeDone);
+            return ids;
+        }));
+        firstNodeLocked.await(10, TimeUnit.SECONDS);
+        List<Integer> secondNode = transactionTemplate.execute(
+            status -> refundsRepository.lockUnclaimedByNotificationSentFlag(EMAIL_NOT_SENT, 10));
+        secondNodeDone.countDown();
+
+        assertThat(firstNode.get(10, TimeUnit.SECONDS)).hasSize(2).doesNotContainAnyElementsOf(secondNode);
+        assertThat(secondNode).hasSize(1);
+    }
+
+    @Test
+    void claimedRowsAreNotClaimedAgainUntilTheClaimExpires() {
+        saveRefunds(3);
+
+        List<Integer> firstPage = claim(2, 600);
+        List<Integer> secondPage = claim(2, 600);
+
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(1).doesNotContainAnyElementsOf(firstPage);
+        assertThat(claim(2, 600)).isEmpty();
+    }
+
+    @Test
+    void expiredClaimsAreClaimedAgain() {
+        saveRefunds(1);
+
+        List<Integer> firstPage = claim(10, -1);
+
+        assertThat(claim(10, 600)).isEqualTo(firstPage);
+    }
+
+    private List<Integer> claim(int limit, int claimSeconds) {
+        return transactionTemplate.execute(status -> {
+            List<Integer> ids = refundsRepository.lockUnclaimedByNotificationSentFlag(EMAIL_NOT_SENT, limit);
+            if (!ids.isEmpty()) {
+                refundsRepository.claimNotifications(ids, claimSeconds);
+            }
+            return ids;
+        });
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void saveRefunds(int rows) {
+        List<Refund> refunds = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            refunds.add(Refund.refundsWith()
+                            .reference(String.format("RF-1111-2222-4444-%04d", i))
+                            .paymentReference(String.format("RC-1111-2222-4444-%04d", i))
+                            .ccdCaseNumber("1111222233334444")
+                            .serviceType("cmc")
+                            .amount(BigDecimal.valueOf(100))
+                            .reason("RR001")
+                            .refundStatus(RefundStatus.ACCEPTED)
+                            .notificationSentFlag(EMAIL_NOT_SENT)
+                            .createdBy("1f2b7025-0f91-4737-92c6-b7a9baef14c6")
+                            .updatedBy("1f2b7025-0f91-4737-92c6-b7a9baef14c6")
+                            .feeIds("1")
+                            .build());
+        }
+        refundsRepository.saveAll(refunds);
+    }
+}
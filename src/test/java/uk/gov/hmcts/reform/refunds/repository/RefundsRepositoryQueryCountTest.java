@@ -0,0 +1,157 @@
+package uk.gov.hmcts.reform.refunds.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.refunds.config.ContextStartListener;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+import uk.gov.hmcts.reform.refunds.model.RefundFees;
+import uk.gov.hmcts.reform.refunds.model.RefundStatus;
+import uk.gov.hmcts.reform.refunds.model.StatusHistory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the finders behind the refund list, Liberata search and payment failure report against the test database,
+ * walking every collection the response mappers read, and checks the number of SQL statements does not grow
+ * with the number of refunds returned.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles({"local", "test"})
+class RefundsRepositoryQueryCountTest {
+
+    private static final String CCD_CASE_NUMBER = "1111222233334444";
+    private static final String SERVICE_TYPE = "cmc";
+
+    // One select for the refunds with their status and fees, one batched select for their status histories
+    private static final long EXPECTED_QUERIES = 2;
+
+    @Autowired
+    private RefundsRepository refundsRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private ContextStartListener contextStartListener;
+
+    @MockBean
+    private AuthTokenGenerator authTokenGenerator;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    private Statistics statistics;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refundsRepository.deleteAll();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 25})
+    void refundListByCcdCaseNumberUsesFixedNumberOfQueries(int rows) {
+        saveRefunds(rows);
+
+        assertEquals(EXPECTED_QUERIES, countQueries(() -> refundsRepository.findByCcdCaseNumber(CCD_CASE_NUMBER).orElseThrow()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 25})
+    void refundListByStatusUsesFixedNumberOfQueries(int rows) {
+        saveRefunds(rows);
+
+        assertEquals(EXPECTED_QUERIES, countQueries(() -> refundsRepository.findByRefundStatusAndServiceTypeInIgnoreCase(
+            RefundStatus.APPROVED, List.of(SERVICE_TYPE)).orElseThrow()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 25})
+    void searchBySpecificationUsesFixedNumberOfQueries(int rows) {
+        saveRefunds(rows);
+        Specification<Refund> byCcdCaseNumber = (root, query, cb) -> cb.equal(root.get("ccdCaseNumber"), CCD_CASE_NUMBER);
+
+        assertEquals(EXPECTED_QUERIES, countQueries(() -> refundsRepository.findAll(byCcdCaseNumber)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 25})
+    void paymentFailureReportUsesFixedNumberOfQueries(int rows) {
+        List<String> paymentReferences = saveRefunds(rows);
+
+        assertEquals(EXPECTED_QUERIES, countQueries(() -> refundsRepository.findByPaymentReferenceInAndRefundStatusNotIn(
+            paymentReferences, List.of(RefundStatus.ACCEPTED, RefundStatus.REJECTED)).orElseThrow()));
+    }
+
+    private long countQueries(Supplier<List<Refund>> finder) {
+        return transactionTemplate.execute(status -> {
+            statistics.clear();
+            List<Refund> refunds = finder.get();
+            for (Refund refund : refunds) {
+                refund.getRefundStatus().getName();
+                refund.getRefundFees().forEach(RefundFees::getCode);
+                refund.getStatusHistories().forEach(StatusHistory::getStatus);
+            }
+            return statistics.getPrepareStatementCount();
+        });
+    }
+
+    private List<String> saveRefunds(int rows) {
+        List<Refund> refunds = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            refunds.add(Refund.refundsWith()
+                            .reference(String.format("RF-1111-2222-3333-%04d", i))
+                            .paymentReference(String.format("RC-1111-2222-3333-%04d", i))
+                            .ccdCaseNumber(CCD_CASE_NUMBER)
+                            .serviceType(SERVICE_TYPE)
+                            .amount(BigDecimal.valueOf(100))
+                            .reason("RR001")
+                            .refundStatus(RefundStatus.APPROVED)
+                            .createdBy("1f2b7025-0f91-4737-92c6-b7a9baef14c6")
+                            .updatedBy("1f2b7025-0f91-4737-92c6-b7a9baef14c6")
+                            .feeIds("1,2")
+                            .refundFees(List.of(
+                                RefundFees.refundFeesWith().feeId(1).code("FEE0001").version("1")
+                                    .volume(1).refundAmount(BigDecimal.valueOf(50)).build(),
+                                RefundFees.refundFeesWith().feeId(2).code("FEE0002").version("1")
+                                    .volume(1).refundAmount(BigDecimal.valueOf(50)).build()))
+                            .statusHistories(List.of(
+                                StatusHistory.statusHistoryWith().status(RefundStatus.SENTFORAPPROVAL.getName())
+                                    .createdBy("1f2b7025-0f91-4737-92c6-b7a9baef14c6").notes("Refund initiated").build(),
+                                StatusHistory.statusHistoryWith().status(RefundStatus.APPROVED.getName())
+                                    .createdBy("1f2b7025-0f91-4737-92c6-b7a9baef14c6").notes("Refund approved").build()))
+                            .build());
+        }
+        refundsRepository.saveAll(refunds);
+        return refunds.stream().map(Refund::getPaymentReference).toList();
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import uk.gov.hmcts.reform.refunds.cache.UserDirectory;
 import uk.gov.hmcts.reform.refunds.config.ContextStartListener;
 import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.UserIdentityDataDto;
@@ -16,7 +17,9 @@ import uk.gov.hmcts.reform.refunds.services.IdamService;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -32,6 +35,9 @@ class ContextStartListenerTest {
     @Autowired
     private ContextStartListener contextStartListener;
 
+    @Autowired
+    private UserDirectory userDirectory;
+
     @Autowired
     private ConfigurableApplicationContext configurableApplicationContext;
 
@@ -52,6 +58,8 @@ class ContextStartListenerTest {
         MultiValueMap<String, String> inputHeaders = new LinkedMultiValueMap<>();
         inputHeaders.add("Authorization", "access token");
         verify(idamService).getUsersForRoles(inputHeaders,Arrays.asList("payments-refund","payments-refund-approver"));
+        assertEquals("mock-Forename mock-Surname", userDirectory.getAllPresent(List.of("1f2b7025-0f91-4737-92c6-b7a9baef14c6"))
+            .get("1f2b7025-0f91-4737-92c6-b7a9baef14c6").getFullName());
     }
 
 }
@@ -1,25 +1,32 @@
 package uk.gov.hmcts.reform.refunds.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.refunds.cache.IacCaseReferenceCache;
 import uk.gov.hmcts.reform.refunds.dtos.MissingSupplementaryInfo;
 import uk.gov.hmcts.reform.refunds.dtos.SupplementaryDetails;
 import uk.gov.hmcts.reform.refunds.dtos.SupplementaryDetailsResponse;
 import uk.gov.hmcts.reform.refunds.dtos.SupplementaryInfo;
+import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentDto;
 import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentRefundDto;
 import uk.gov.hmcts.reform.refunds.dtos.responses.RefundLiberata;
 import uk.gov.hmcts.reform.refunds.services.IacServiceImpl;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -27,6 +34,8 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class IacServiceTest {
@@ -37,6 +46,10 @@ public class IacServiceTest {
     @Mock
     private AuthTokenGenerator authTokenGenerator;
 
+    @Spy
+    private IacCaseReferenceCache iacCaseReferenceCache =
+        new IacCaseReferenceCache(new SimpleMeterRegistry(), 1000, Duration.ofDays(1));
+
     private List<RefundLiberata> refundsDtos = null;
     private SupplementaryDetailsResponse supplementaryDetailsResponse = null;
 
@@ -113,6 +126,41 @@ public class IacServiceTest {
         assertNull(response.getBody());
     }
 
+    @Test
+    public void testGetIacSupplementaryDetails_RepeatLookupsUseCachedCaseReferences() {
+        refundsDtos = List.of(refundLiberata1);
+        ResponseEntity<SupplementaryDetailsResponse> responseEntity = new ResponseEntity<>(supplementaryDetailsResponse, HttpStatus.OK);
+        when(restTemplateIacSupplementaryInfo.exchange(anyString(), any(), any(), eq(SupplementaryDetailsResponse.class)))
+            .thenReturn(responseEntity);
+
+        iacService.getIacSupplementaryDetails(refundsDtos, IAC_SERVICE_NAME);
+        ResponseEntity<SupplementaryDetailsResponse> response = iacService.getIacSupplementaryDetails(refundsDtos, IAC_SERVICE_NAME);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("IAC/1234/REF", response.getBody().getSupplementaryInfo().get(0).getSupplementaryDetails().getCaseReferenceNumber());
+        verify(restTemplateIacSupplementaryInfo, times(1))
+            .exchange(anyString(), any(), any(), eq(SupplementaryDetailsResponse.class));
+    }
+
+    @Test
+    public void testPrefetchCaseReferences_LoadsIacPaymentsIntoCache() throws Exception {
+        ResponseEntity<SupplementaryDetailsResponse> responseEntity = new ResponseEntity<>(supplementaryDetailsResponse, HttpStatus.OK);
+        when(restTemplateIacSupplementaryInfo.exchange(anyString(), any(), any(), eq(SupplementaryDetailsResponse.class)))
+            .thenReturn(responseEntity);
+
+        iacService.prefetchCaseReferences(List.of(
+            PaymentDto.payment2DtoWith().serviceName(IAC_SERVICE_NAME).ccdCaseNumber("1111-2222-3333-4444").build(),
+            PaymentDto.payment2DtoWith().serviceName("Divorce").ccdCaseNumber("1111-2222-3333-6666").build()
+        ), IAC_SERVICE_NAME);
+
+        Map<String, String> caseReferences = iacCaseReferenceCache
+            .getAll(List.of("1111-2222-3333-4444"), ccdCaseNumbers -> Map.of())
+            .get(5, TimeUnit.SECONDS);
+        assertEquals("IAC/1234/REF", caseReferences.get("1111-2222-3333-4444"));
+        verify(restTemplateIacSupplementaryInfo, times(1))
+            .exchange(anyString(), any(), any(), eq(SupplementaryDetailsResponse.class));
+    }
+
     @Test
     public void testUpdateIacSupplementaryDetails() {
         refundsDtos = List.of(refundLiberata1, refundLiberata2);
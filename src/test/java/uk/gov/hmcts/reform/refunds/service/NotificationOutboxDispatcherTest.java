@@ -0,0 +1,203 @@
+package uk.gov.hmcts.reform.refunds.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import uk.gov.hmcts.reform.refunds.cache.LiberataTokenManager;
+import uk.gov.hmcts.reform.refunds.dtos.responses.ContactDetailsDto;
+import uk.gov.hmcts.reform.refunds.dtos.responses.Notification;
+import uk.gov.hmcts.reform.refunds.model.ContactDetails;
+import uk.gov.hmcts.reform.refunds.model.NotificationOutbox;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+import uk.gov.hmcts.reform.refunds.repository.NotificationOutboxRepository;
+import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
+import uk.gov.hmcts.reform.refunds.services.NotificationOutboxDispatcher;
+import uk.gov.hmcts.reform.refunds.services.NotificationService;
+import uk.gov.hmcts.reform.refunds.utils.BoundedFanOut;
+import uk.gov.hmcts.reform.refunds.utils.RefundsUtil;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationOutboxDispatcherTest {
+
+    private static final String REFUND_REFERENCE = "RF-1234-5678-9012-3456";
+    private static final String ORIGINAL_REFUND_REFERENCE = "RF-1111-2222-3333-4444";
+
+    private final NotificationOutboxRepository notificationOutboxRepository = mock(NotificationOutboxRepository.class);
+    private final RefundsRepository refundsRepository = mock(RefundsRepository.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final LiberataTokenManager liberataTokenManager = mock(LiberataTokenManager.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final AtomicInteger openTransactions = new AtomicInteger();
+
+    private NotificationOutboxDispatcher dispatcher;
+
+    private Refund refund;
+
+    @BeforeEach
+    void setUp() {
+        RefundsUtil refundsUtil = new RefundsUtil();
+        ReflectionTestUtils.setField(refundsUtil, "chequePoCashEmailTemplateId", "CHEQUE_PO_CASH_EMAIL_ID");
+        ReflectionTestUtils.setField(refundsUtil, "refundWhenContactedEmailTemplateId", "REFUND_WHEN_CONTACTED_EMAIL_ID");
+
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            openTransactions.incrementAndGet();
+            return mock(TransactionStatus.class);
+        });
+        doAnswer(invocation -> openTransactions.decrementAndGet()).when(transactionManager).commit(any());
+        doAnswer(invocation -> openTransactions.decrementAndGet()).when(transactionManager).rollback(any());
+
+        dispatcher = new NotificationOutboxDispatcher(transactionManager);
+        ReflectionTestUtils.setField(dispatcher, "notificationOutboxRepository", notificationOutboxRepository);
+        ReflectionTestUtils.setField(dispatcher, "refundsRepository", refundsRepository);
+        ReflectionTestUtils.setField(dispatcher, "notificationService", notificationService);
+        ReflectionTestUtils.setField(dispatcher, "liberataTokenManager", liberataTokenManager);
+        ReflectionTestUtils.setField(dispatcher, "boundedFanOut", new BoundedFanOut(runnable -> runnable));
+        ReflectionTestUtils.setField(dispatcher, "refundsUtil", refundsUtil);
+        ReflectionTestUtils.setField(dispatcher, "pageSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "maxConcurrency", 2);
+        ReflectionTestUtils.setField(dispatcher, "claimSeconds", 300);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 5);
+
+        refund = new Refund();
+        refund.setReference(REFUND_REFERENCE);
+        refund.setRefundInstructionType(RefundsUtil.REFUND_WHEN_CONTACTED);
+        when(refundsRepository.findByReferenceOrThrow(REFUND_REFERENCE)).thenReturn(refund);
+        when(liberataTokenManager.getAccessToken()).thenReturn("token");
+        when(notificationOutboxRepository.lockUnclaimedPending(anyInt())).thenReturn(List.of(1L), List.of());
+    }
+
+    @Test
+    void pendingNotificationIsSentWithContactDetailsFromOriginalRefund() {
+        NotificationOutbox entry = pendingEntry(RefundsUtil.REFUND_WHEN_CONTACTED_REJECT_REASON, 0);
+        stubEntry(entry);
+        when(notificationService.getNotificationDetails(any(), eq(ORIGINAL_REFUND_REFERENCE))).thenReturn(emailNotification());
+
+        assertEquals(1, dispatcher.dispatchPending());
+
+        verify(notificationOutboxRepository).claim(List.of(1L), 300);
+        verify(notificationService).updateNotification(any(), eq(refund), isNull(), eq("REFUND_WHEN_CONTACTED_EMAIL_ID"));
+        verify(refundsRepository).save(refund);
+        assertEquals("test@example.com", refund.getContactDetails().getEmail());
+        assertEquals(NotificationOutbox.DISPATCHED, entry.getStatus());
+        assertEquals(1, entry.getAttempts());
+    }
+
+    @Test
+    void refundContactDetailsAreUsedWhenNotificationIsMissing() {
+        refund.setContactDetails(ContactDetails.contactDetailsWith().email("refund@example.com").notificationType("EMAIL").build());
+        NotificationOutbox entry = pendingEntry(null, 0);
+        stubEntry(entry);
+        when(notificationService.getNotificationDetails(any(), anyString())).thenReturn(null);
+
+        dispatcher.dispatchPending();
+
+        verify(notificationService).updateNotification(any(), eq(refund), isNull(), eq("CHEQUE_PO_CASH_EMAIL_ID"));
+        assertEquals(NotificationOutbox.DISPATCHED, entry.getStatus());
+    }
+
+    @Test
+    void failedSendIsRetriedUntilMaxAttempts() {
+        NotificationOutbox firstAttempt = pendingEntry(null, 0);
+        NotificationOutbox lastAttempt = pendingEntry(null, 4);
+        stubEntry(firstAttempt);
+        when(notificationService.getNotificationDetails(any(), anyString())).thenReturn(emailNotification());
+        doThrow(new IllegalStateException("Notify unavailable"))
+            .when(notificationService).updateNotification(any(), any(), any(), anyString());
+
+        dispatcher.dispatchPending();
+
+        assertEquals(NotificationOutbox.PENDING, firstAttempt.getStatus());
+        assertEquals(1, firstAttempt.getAttempts());
+
+        when(notificationOutboxRepository.lockUnclaimedPending(anyInt())).thenReturn(List.of(1L), List.of());
+        stubEntry(lastAttempt);
+
+        dispatcher.dispatchPending();
+
+        assertEquals(NotificationOutbox.FAILED, lastAttempt.getStatus());
+        assertEquals(5, lastAttempt.getAttempts());
+    }
+
+    @Test
+    void nothingIsSentWhenTokenCannotBeObtained() {
+        when(liberataTokenManager.getAccessToken()).thenThrow(new IllegalStateException("IDAM unavailable"));
+
+        dispatcher.dispatchPending();
+
+        verify(notificationOutboxRepository, never()).findById(any());
+        verify(notificationOutboxRepository, never()).findPendingForUpdate(any());
+        verify(refundsRepository, never()).save(any(Refund.class));
+    }
+
+    @Test
+    void notifyIsCalledOutsideAnyTransaction() {
+        NotificationOutbox entry = pendingEntry(null, 0);
+        stubEntry(entry);
+        when(notificationService.getNotificationDetails(any(), anyString())).thenReturn(emailNotification());
+        AtomicInteger openDuringSend = new AtomicInteger(-1);
+        doAnswer(invocation -> {
+            openDuringSend.set(openTransactions.get());
+            return null;
+        }).when(notificationService).updateNotification(any(), any(), any(), anyString());
+
+        dispatcher.dispatchPending();
+
+        assertEquals(0, openDuringSend.get());
+        assertEquals(NotificationOutbox.DISPATCHED, entry.getStatus());
+    }
+
+    @Test
+    void outcomeIsNotWrittenWhenEntryIsNoLongerPending() {
+        NotificationOutbox entry = pendingEntry(null, 0);
+        when(notificationOutboxRepository.findById(1L)).thenReturn(Optional.of(entry));
+        when(notificationOutboxRepository.findPendingForUpdate(1L)).thenReturn(Optional.empty());
+        when(notificationService.getNotificationDetails(any(), anyString())).thenReturn(emailNotification());
+
+        dispatcher.dispatchPending();
+
+        verify(refundsRepository, never()).save(any(Refund.class));
+        verify(notificationOutboxRepository, never()).save(any(NotificationOutbox.class));
+    }
+
+    private void stubEntry(NotificationOutbox entry) {
+        when(notificationOutboxRepository.findById(1L)).thenReturn(Optional.of(entry));
+        when(notificationOutboxRepository.findPendingForUpdate(1L)).thenReturn(Optional.of(entry));
+    }
+
+    private NotificationOutbox pendingEntry(String reason, int attempts) {
+        return NotificationOutbox.notificationOutboxWith()
+            .id(1L)
+            .refundReference(REFUND_REFERENCE)
+            .originalRefundReference(ORIGINAL_REFUND_REFERENCE)
+            .reason(reason)
+            .attempts(attempts)
+            .build();
+    }
+
+    private Notification emailNotification() {
+        ContactDetailsDto contactDetails = mock(ContactDetailsDto.class);
+        when(contactDetails.getEmail()).thenReturn("test@example.com");
+        Notification notification = mock(Notification.class);
+        when(notification.getNotificationType()).thenReturn("EMAIL");
+        when(notification.getContactDetails()).thenReturn(contactDetails);
+        return notification;
+    }
+}
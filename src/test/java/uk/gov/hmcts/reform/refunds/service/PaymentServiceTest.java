@@ -42,12 +42,15 @@ import java.util.Locale;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.MOCK;
 
@@ -223,6 +226,41 @@ class PaymentServiceTest {
         });
     }
 
+    @Test
+    void fetchPaymentResponseSplitsLargeReferenceListsIntoChunks() throws ParseException {
+        List<String> referenceList = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            referenceList.add(String.format("RC-1628-5241-9956-%04d", i));
+        }
+        when(authTokenGenerator.generate()).thenReturn("service auth token");
+        when(restTemplatePayment.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                                          eq(new ParameterizedTypeReference<List<PaymentDto>>() {
+                                          }))).thenReturn(new ResponseEntity<>(List.of(getPayments()), HttpStatus.OK));
+
+        List<PaymentDto> paymentDtos = paymentService.fetchPaymentResponse(referenceList);
+
+        assertEquals(2, paymentDtos.size());
+        verify(restTemplatePayment, times(2)).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                                                       eq(new ParameterizedTypeReference<List<PaymentDto>>() {
+                                                       }));
+    }
+
+    @Test
+    void fetchPaymentResponseFailsWhenAnyChunkFails() throws ParseException {
+        List<String> referenceList = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            referenceList.add(String.format("RC-1628-5241-9956-%04d", i));
+        }
+        when(authTokenGenerator.generate()).thenReturn("service auth token");
+        when(restTemplatePayment.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                                          eq(new ParameterizedTypeReference<List<PaymentDto>>() {
+                                          })))
+            .thenReturn(new ResponseEntity<>(List.of(getPayments()), HttpStatus.OK))
+            .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThrows(PaymentServerException.class, () -> paymentService.fetchPaymentResponse(referenceList));
+    }
+
     private PaymentGroupResponse getPaymentGroupDto() throws ParseException {
         return PaymentGroupResponse.paymentGroupDtoWith()
             .paymentGroupReference("payment-group-reference")
@@ -0,0 +1,141 @@
+package uk.gov.hmcts.reform.refunds.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.LinkedMultiValueMap;
+import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
+import uk.gov.hmcts.reform.refunds.config.ContextStartListener;
+import uk.gov.hmcts.reform.refunds.config.toggler.LaunchDarklyFeatureToggler;
+import uk.gov.hmcts.reform.refunds.dtos.requests.RefundStatusUpdateRequest;
+import uk.gov.hmcts.reform.refunds.model.Refund;
+import uk.gov.hmcts.reform.refunds.model.RefundStatus;
+import uk.gov.hmcts.reform.refunds.model.StatusHistory;
+import uk.gov.hmcts.reform.refunds.repository.PaymentRefundLedgerRepository;
+import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
+import uk.gov.hmcts.reform.refunds.services.IdamService;
+import uk.gov.hmcts.reform.refunds.services.RefundLedgerService;
+import uk.gov.hmcts.reform.refunds.services.RefundStatusService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs concurrent status changes against the test database, so the ledger is checked under real row locks.
+ */
+@SpringBootTest
+@ActiveProfiles({"local", "test"})
+class RefundLedgerConcurrencyTest {
+
+    private static final String REFERENCE = "RF-5555-6666-7777-8888";
+    private static final String PAYMENT_REFERENCE = "RC-5555-6666-7777-8888";
+    private static final String USER_ID = "1f2b7025-0f91-4737-92c6-b7a9baef14c6";
+    private static final int CALLBACKS = 2;
+
+    @Autowired
+    private RefundStatusService refundStatusService;
+
+    @Autowired
+    private RefundLedgerService refundLedgerService;
+
+    @Autowired
+    private RefundsRepository refundsRepository;
+
+    @Autowired
+    private PaymentRefundLedgerRepository paymentRefundLedgerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private IdamService idamService;
+
+    @MockBean
+    private LaunchDarklyFeatureToggler featureToggler;
+
+    @MockBean
+    private ContextStartListener contextStartListener;
+
+    @MockBean
+    private AuthTokenGenerator authTokenGenerator;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @AfterEach
+    void tearDown() {
+        refundsRepository.deleteAll();
+        paymentRefundLedgerRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentRejectionsReleaseTheRefundFromTheLedgerOnce() throws Exception {
+        refundsRepository.save(approvedRefund());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(
+            transactionTemplate.execute(status -> refundLedgerService.lockRefundedAmount(PAYMENT_REFERENCE))));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLBACKS);
+        try {
+            List<Future<?>> callbacks = new ArrayList<>();
+            for (int i = 0; i < CALLBACKS; i++) {
+                callbacks.add(executor.submit(() -> {
+                    start.await();
+                    // each callback runs in its own transaction, as the status update endpoint does
+                    return transactionTemplate.execute(status -> refundStatusService.updateRefundStatus(
+                        REFERENCE, rejection(), new LinkedMultiValueMap<>()));
+                }));
+            }
+            start.countDown();
+            for (Future<?> callback : callbacks) {
+                callback.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(
+            paymentRefundLedgerRepository.findById(PAYMENT_REFERENCE).orElseThrow().getRefundedAmount()));
+        assertEquals(RefundStatus.REJECTED.getName(),
+                     refundsRepository.findByReferenceOrThrow(REFERENCE).getRefundStatus().getName());
+    }
+
+    private static RefundStatusUpdateRequest rejection() {
+        RefundStatusUpdateRequest request = new RefundStatusUpdateRequest();
+        request.setStatus(uk.gov.hmcts.reform.refunds.dtos.requests.RefundStatus.REJECTED);
+        request.setReason("Unable to apply refund to Card");
+        return request;
+    }
+
+    private static Refund approvedRefund() {
+        return Refund.refundsWith()
+            .reference(REFERENCE)
+            .paymentReference(PAYMENT_REFERENCE)
+            .ccdCaseNumber("5555666677778888")
+            .serviceType("cmc")
+            .amount(BigDecimal.valueOf(100))
+            .reason("RR001")
+            .refundStatus(RefundStatus.APPROVED)
+            .createdBy(USER_ID)
+            .updatedBy(USER_ID)
+            .feeIds("1")
+            .statusHistories(List.of(
+                StatusHistory.statusHistoryWith().status(RefundStatus.APPROVED.getName())
+                    .createdBy(USER_ID).notes("Refund approved").build()))
+            .build();
+    }
+}
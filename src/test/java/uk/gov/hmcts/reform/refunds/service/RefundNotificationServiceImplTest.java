@@ -12,6 +12,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
@@ -50,11 +51,14 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -241,10 +245,18 @@ class RefundNotificationServiceImplTest {
             .expiresIn("2021-07-20T11:03:08.067Z")
             .build();
 
-        when(refundsRepository.findByNotificationSentFlag(anyString())).thenReturn(Optional.ofNullable(List.of(
-            RefundServiceImplTest.refundListContactDetailsEmail.get())));
-
-        when(notificationService.postEmailNotificationData(any(), any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        Refund refund = RefundServiceImplTest.refundListContactDetailsEmail.get();
+        refund.setNotificationSentFlag("EMAIL_NOT_SENT");
+        when(refundsRepository.lockUnclaimedByNotificationSentFlag(eq("EMAIL_NOT_SENT"), anyInt()))
+            .thenReturn(List.of(1), List.of());
+        when(refundsRepository.findByIdAndNotificationSentFlag(1, "EMAIL_NOT_SENT")).thenReturn(Optional.of(refund));
+        when(refundsRepository.findByIdAndNotificationSentFlagForUpdate(1, "EMAIL_NOT_SENT")).thenReturn(Optional.of(refund));
+
+        AtomicBoolean sentInTransaction = new AtomicBoolean();
+        when(notificationService.postEmailNotificationData(any(), any())).thenAnswer(invocation -> {
+            sentInTransaction.set(TransactionSynchronizationManager.isActualTransactionActive());
+            return new ResponseEntity<>(HttpStatus.OK);
+        });
         when(notificationService.postLetterNotificationData(any(), any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
         when(authTokenGenerator.generate()).thenReturn("service auth token");
         when(idamService.getSecurityTokens()).thenReturn(tokenres);
@@ -257,9 +269,34 @@ class RefundNotificationServiceImplTest {
         ));
         refundNotificationService.processFailedNotificationsEmail();
 
+        verify(refundsRepository).claimNotifications(eq(List.of(1)), anyInt());
         verify(refundsRepository, Mockito.times(1)).save(any(Refund.class));
         verify(notificationService, Mockito.times(1)).postEmailNotificationData(any(), any());
+        assertFalse(sentInTransaction.get());
+        assertEquals("SENT", refund.getNotificationSentFlag());
+
+    }
+
+    @Test
+    void processFailedNotificationsEmailKeepsFlagWhenNotifyRejects() throws Exception {
+        Refund refund = RefundServiceImplTest.refundListContactDetailsEmail.get();
+        refund.setNotificationSentFlag("EMAIL_NOT_SENT");
+        when(refundsRepository.lockUnclaimedByNotificationSentFlag(eq("EMAIL_NOT_SENT"), anyInt()))
+            .thenReturn(List.of(1), List.of());
+        when(refundsRepository.findByIdAndNotificationSentFlag(1, "EMAIL_NOT_SENT")).thenReturn(Optional.of(refund));
+        when(notificationService.postEmailNotificationData(any(), any()))
+            .thenReturn(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+        when(authTokenGenerator.generate()).thenReturn("service auth token");
+        when(idamService.getSecurityTokens()).thenReturn(IdamTokenResponse.idamFullNameRetrivalResponseWith()
+                                                             .accessToken("test token").expiresIn("3600").build());
+        when(restTemplatePayment.exchange(anyString(), Mockito.any(HttpMethod.class), Mockito.any(HttpEntity.class), eq(
+            PaymentGroupResponse.class))).thenReturn(ResponseEntity.of(Optional.of(getPaymentGroupDto())));
+
+        refundNotificationService.processFailedNotificationsEmail();
 
+        verify(refundsRepository, Mockito.never()).findByIdAndNotificationSentFlagForUpdate(any(), any());
+        verify(refundsRepository, Mockito.never()).save(any(Refund.class));
+        assertEquals("EMAIL_NOT_SENT", refund.getNotificationSentFlag());
     }
 
     private Refund getRefund() {
@@ -303,8 +340,12 @@ class RefundNotificationServiceImplTest {
             .expiresIn("2021-07-20T11:03:08.067Z")
             .build();
 
-        when(refundsRepository.findByNotificationSentFlag(anyString())).thenReturn(Optional.ofNullable(List.of(
-            RefundServiceImplTest.refundListContactDetailsLetter.get())));
+        Refund refund = RefundServiceImplTest.refundListContactDetailsLetter.get();
+        refund.setNotificationSentFlag("LETTER_NOT_SENT");
+        when(refundsRepository.lockUnclaimedByNotificationSentFlag(eq("LETTER_NOT_SENT"), anyInt()))
+            .thenReturn(List.of(1), List.of());
+        when(refundsRepository.findByIdAndNotificationSentFlag(1, "LETTER_NOT_SENT")).thenReturn(Optional.of(refund));
+        when(refundsRepository.findByIdAndNotificationSentFlagForUpdate(1, "LETTER_NOT_SENT")).thenReturn(Optional.of(refund));
 
         when(notificationService.postEmailNotificationData(
             any(),
@@ -326,6 +367,7 @@ class RefundNotificationServiceImplTest {
         ));
         refundNotificationService.processFailedNotificationsLetter();
 
+        verify(refundsRepository).claimNotifications(eq(List.of(1)), anyInt());
         verify(refundsRepository, Mockito.times(1)).save(any(Refund.class));
         verify(notificationService, Mockito.times(1)).postLetterNotificationData(any(), any());
 
@@ -26,16 +26,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import uk.gov.hmcts.reform.refunds.config.ContextStartListener;
-import uk.gov.hmcts.reform.refunds.dtos.RefundsReportDto;
+import uk.gov.hmcts.reform.refunds.cache.UserDirectory;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundFeeDto;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundRequest;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundSearchCriteria;
 import uk.gov.hmcts.reform.refunds.dtos.requests.ResubmitRefundRequest;
 import uk.gov.hmcts.reform.refunds.dtos.responses.FeeDto;
-import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.IdamUserIdResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentDto;
 import uk.gov.hmcts.reform.refunds.dtos.responses.PaymentFailureReportDtoResponse;
@@ -51,7 +48,6 @@ import uk.gov.hmcts.reform.refunds.exceptions.ActionNotFoundException;
 import uk.gov.hmcts.reform.refunds.exceptions.InvalidRefundRequestException;
 import uk.gov.hmcts.reform.refunds.exceptions.RefundNotFoundException;
 import uk.gov.hmcts.reform.refunds.exceptions.RefundReasonNotFoundException;
-import uk.gov.hmcts.reform.refunds.exceptions.RefundReportException;
 import uk.gov.hmcts.reform.refunds.exceptions.UserNotFoundException;
 import uk.gov.hmcts.reform.refunds.mapper.PaymentFailureResponseMapper;
 import uk.gov.hmcts.reform.refunds.mapper.RefundFeeMapper;
@@ -68,8 +64,10 @@ import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
 import uk.gov.hmcts.reform.refunds.repository.StatusHistoryRepository;
 import uk.gov.hmcts.reform.refunds.services.IdamService;
 import uk.gov.hmcts.reform.refunds.services.PaymentService;
+import uk.gov.hmcts.reform.refunds.services.RefundLedgerService;
 import uk.gov.hmcts.reform.refunds.services.RefundsServiceImpl;
 import uk.gov.hmcts.reform.refunds.utils.ReferenceUtil;
+import uk.gov.hmcts.reform.refunds.utils.RefundListCursor;
 import uk.gov.hmcts.reform.refunds.utils.RefundServiceRoleUtil;
 import uk.gov.hmcts.reform.refunds.utils.StatusHistoryUtil;
 import uk.gov.hmcts.reform.refunds.utils.Utility;
@@ -85,17 +83,20 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -141,7 +142,7 @@ class RefundServiceImplTest {
     private RefundServiceRoleUtil refundServiceRoleUtil;
 
     @Mock
-    private ContextStartListener contextStartListener;
+    private UserDirectory userDirectory;
 
     @MockBean
     private Specification<Refund> mockSpecification;
@@ -179,6 +180,9 @@ class RefundServiceImplTest {
     @Mock
     private RefundValidator refundValidator;
 
+    @Mock
+    private RefundLedgerService refundLedgerService;
+
     @Value("${refund.search.days}")
     private Integer numberOfDays;
 
@@ -262,6 +266,14 @@ class RefundServiceImplTest {
     @BeforeEach
     public void init() {
         MockitoAnnotations.initMocks(this);
+        when(refundLedgerService.lockRefundedAmount(anyString())).thenReturn(BigDecimal.ZERO);
+        // the refund read under the ledger lock is whatever the repository is stubbed to return
+        when(refundLedgerService.lockRefund(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(refundsRepository.findByReferenceOrThrow(invocation.getArgument(0))));
+    }
+
+    private static Map<String, UserIdentityDataDto> directoryOf(List<UserIdentityDataDto> users) {
+        return users.stream().collect(Collectors.toMap(UserIdentityDataDto::getId, Function.identity()));
     }
 
     public static final Supplier<Refund> refundListSupplierBasedOnCCDCaseNumber1 = () -> Refund.refundsWith().id(1).amount(
@@ -307,13 +319,10 @@ class RefundServiceImplTest {
         when(idamService.getUserId(any())).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
         when(refundReasonRepository.findAll()).thenReturn(Collections.singletonList(RefundReason.refundReasonWith().code(
             "RR001").name("Amended court").build()));
-        Map<String, List<UserIdentityDataDto>> userMap = new ConcurrentHashMap<>();
-        userMap.put(
-            "payments-refund",
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(
             Collections.singletonList(UserIdentityDataDto.userIdentityDataWith().fullName("ccd-full-name").emailId(
                 "j@mail.com").id("1f2b7025-0f91-4737-92c6-b7a9baef14c6").build())
-        );
-        when(contextStartListener.getUserMap()).thenReturn(userMap);
+        ));
 
         when(refundReasonRepository.findByCode(anyString())).thenReturn(Optional.of(RefundReason.refundReasonWith().code(
             "RR001").name("duplicate payment").build()));
@@ -341,13 +350,10 @@ class RefundServiceImplTest {
             anyString(),
             any()
         )).thenReturn(Optional.ofNullable(List.of(Utility.refundListSupplierForSubmittedStatus.get())));
-        Map<String, List<UserIdentityDataDto>> userMap = new ConcurrentHashMap<>();
-        userMap.put(
-            "payments-refund",
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(
             Collections.singletonList(UserIdentityDataDto.userIdentityDataWith().fullName(
                 "ccd-full-name-for-submitted-status").emailId("j@mail.com").id("2f2b7025-0f91-4737-92c6-b7a9baef14c6").build())
-        );
-        when(contextStartListener.getUserMap()).thenReturn(userMap);
+        ));
 
         RefundListDtoResponse refundListDtoResponse = refundsService.getRefundList(
             "Sent for approval",
@@ -375,13 +381,12 @@ class RefundServiceImplTest {
                 Utility.refundListSupplierBasedOnCCDCaseNumber2.get()
             )));
         when(idamService.getUserId(any())).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
-        when(idamService.getUserIdentityData(any(), anyString())).thenThrow(new UserNotFoundException(
-            "User details not found for these roles in IDAM"));
+        when(idamService.getUserIdentityDataForUids(any(), any())).thenReturn(Collections.emptyMap());
         UserIdentityDataDto dto = UserIdentityDataDto.userIdentityDataWith().fullName("ccd-full-name").emailId(
             "j@mail.com").id(Utility.GET_REFUND_LIST_CCD_CASE_USER_ID1).build();
-        Map<String, List<UserIdentityDataDto>> userMap = new ConcurrentHashMap<>();
-        userMap.put("payments-refund", Collections.singletonList(dto));
-        when(contextStartListener.getUserMap()).thenReturn(userMap);
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(
+            Collections.singletonList(dto)
+        ));
         exception.expect(UserNotFoundException.class);
 
         RefundListDtoResponse refundListDtoResponse = refundsService.getRefundList(
@@ -413,17 +418,15 @@ class RefundServiceImplTest {
         )));
 
         when(idamService.getUserId(map)).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
-        Map<String, List<UserIdentityDataDto>> userMap = new ConcurrentHashMap<>();
-        userMap.put(
-            "payments-refund", Arrays.asList(
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(
+            Arrays.asList(
                 UserIdentityDataDto.userIdentityDataWith().fullName("ccd-full-name").emailId("h@mail.com")
                     .id(Utility.GET_REFUND_LIST_CCD_CASE_USER_ID1).build(),
 
                 UserIdentityDataDto.userIdentityDataWith().fullName("ccd-full-name-for-submitted-status").emailId(
                     "h@mail.com").id(Utility.GET_REFUND_LIST_SUBMITTED_REFUND_CCD_CASE_USER_ID).build()
             )
-        );
-        when(contextStartListener.getUserMap()).thenReturn(userMap);
+        ));
 
         when(refundReasonRepository.findByCode(anyString())).thenReturn(Optional.of(RefundReason.refundReasonWith().code(
             "RR001").name("duplicate payment").build()));
@@ -449,6 +452,79 @@ class RefundServiceImplTest {
 
     }
 
+    @Test
+    void testRefundListPageReturnsNextCursorWhenMoreRefundsFollow() {
+        refundResponseMapper.setRefundFeeMapper(refundFeeMapper);
+        ReflectionTestUtils.setField(refundsService, "maxPageSize", 500);
+
+        Refund newest = Utility.refundListSupplierBasedOnCCDCaseNumber1.get();
+        newest.setDateUpdated(Timestamp.valueOf("2024-05-02 10:00:00.123456"));
+        Refund older = Utility.refundListSupplierForSubmittedStatus.get();
+        older.setDateUpdated(Timestamp.valueOf("2024-05-01 10:00:00"));
+        Refund oldest = Utility.refundListSupplierForSubmittedStatus.get();
+        oldest.setId(3);
+        oldest.setDateUpdated(Timestamp.valueOf("2024-04-30 10:00:00"));
+        when(refundsRepository.findBy(any(Specification.class), any())).thenReturn(List.of(newest, older, oldest));
+
+        when(idamService.getUserId(map)).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(
+            Arrays.asList(
+                UserIdentityDataDto.userIdentityDataWith().fullName("ccd-full-name").emailId("h@mail.com")
+                    .id(Utility.GET_REFUND_LIST_CCD_CASE_USER_ID1).build(),
+                UserIdentityDataDto.userIdentityDataWith().fullName("ccd-full-name-for-submitted-status").emailId(
+                    "h@mail.com").id(Utility.GET_REFUND_LIST_SUBMITTED_REFUND_CCD_CASE_USER_ID).build()
+            )
+        ));
+        when(refundReasonRepository.findAll()).thenReturn(Collections.singletonList(RefundReason.refundReasonWith().code(
+            "RR001").name("Amended court").build()));
+
+        RefundListDtoResponse refundListDtoResponse = refundsService.getRefundList(
+            "Sent for approval",
+            map,
+            "",
+            "false",
+            2,
+            null
+        );
+
+        assertEquals(2, refundListDtoResponse.getRefundList().size());
+        RefundListCursor nextCursor = RefundListCursor.decode(refundListDtoResponse.getNextCursor());
+        assertEquals(older.getDateUpdated(), nextCursor.dateUpdated());
+        assertEquals(older.getId(), nextCursor.id());
+    }
+
+    @Test
+    void testRefundListLastPageHasNoNextCursor() {
+        ReflectionTestUtils.setField(refundsService, "maxPageSize", 500);
+        String cursor = new RefundListCursor(Timestamp.valueOf("2024-05-01 10:00:00"), 2).encode();
+        when(refundsRepository.findBy(any(Specification.class), any())).thenReturn(Collections.emptyList());
+        when(idamService.getUserId(map)).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
+
+        RefundListDtoResponse refundListDtoResponse = refundsService.getRefundList(
+            "Sent for approval",
+            map,
+            "",
+            "false",
+            2,
+            cursor
+        );
+
+        assertTrue(refundListDtoResponse.getRefundList().isEmpty());
+        assertNull(refundListDtoResponse.getNextCursor());
+    }
+
+    @Test
+    void testRefundListRejectsInvalidPageSizeAndCursor() {
+        ReflectionTestUtils.setField(refundsService, "maxPageSize", 500);
+
+        assertThrows(InvalidRefundRequestException.class, () -> refundsService.getRefundList(
+            "Sent for approval", map, "", "false", 0, null));
+        assertThrows(InvalidRefundRequestException.class, () -> refundsService.getRefundList(
+            "Sent for approval", map, "", "false", 501, null));
+        assertThrows(InvalidRefundRequestException.class, () -> refundsService.getRefundList(
+            "Sent for approval", map, "", "false", 10, "not-a-cursor"));
+    }
+
     @Test
     void givenReferenceIsNull_whenGetStatusHistory_thenNullIsReceived() {
         StatusHistoryResponseDto statusHistoryResponseDto = refundsService.getStatusHistory(null, null);
@@ -475,8 +551,7 @@ class RefundServiceImplTest {
         when(refundsRepository.findByReferenceOrThrow(anyString())).thenReturn(Utility.refundListSupplierBasedOnCCDCaseNumber1.get());
         when(statusHistoryRepository.findByRefundOrderByDateCreatedDesc(any())).thenReturn(statusHistories);
         when(idamService.getUserId(map)).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
-        when(idamService.getUserIdentityData(any(), anyString())).thenThrow(new UserNotFoundException(
-            "User details not found for these roles in IDAM"));
+        when(idamService.getUserIdentityDataForUids(any(), any())).thenReturn(Collections.emptyMap());
 
         StatusHistoryResponseDto statusHistoryResponseDto = refundsService.getStatusHistory(map, "123");
 
@@ -493,6 +568,40 @@ class RefundServiceImplTest {
         assertEquals("User not found", statusHistoryResponseDto.getStatusHistoryDtoList().get(0).getCreatedBy());
     }
 
+    @Test
+    void givenStatusHistoryCreatorIsUnknown_whenGetStatusHistory_thenUidIsRememberedAsNotFound() {
+        StatusHistory statusHistory = StatusHistory.statusHistoryWith().id(1).refund(Utility.refundListSupplierBasedOnCCDCaseNumber1.get()).status(
+            "AAA").notes("BBB").dateCreated(Timestamp.valueOf("2021-10-10 10:10:10")).createdBy("CCC").build();
+        when(refundsRepository.findByReferenceOrThrow(anyString())).thenReturn(Utility.refundListSupplierBasedOnCCDCaseNumber1.get());
+        when(statusHistoryRepository.findByRefundOrderByDateCreatedDesc(any())).thenReturn(List.of(statusHistory));
+        when(idamService.getUserId(map)).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
+        when(idamService.getUserIdentityDataForUids(any(), any())).thenReturn(Collections.emptyMap());
+
+        refundsService.getStatusHistory(map, "123");
+
+        verify(userDirectory).putNotFound(List.of("CCC"));
+    }
+
+    @Test
+    void givenStatusHistoryCreatorsAreKnown_whenGetStatusHistory_thenIdamIsNotCalled() {
+        StatusHistory knownCreator = StatusHistory.statusHistoryWith().id(1).refund(Utility.refundListSupplierBasedOnCCDCaseNumber1.get()).status(
+            "AAA").notes("BBB").dateCreated(Timestamp.valueOf("2021-10-10 10:10:10")).createdBy("CCC").build();
+        StatusHistory unknownCreator = StatusHistory.statusHistoryWith().id(2).refund(Utility.refundListSupplierBasedOnCCDCaseNumber1.get()).status(
+            "AAA").notes("BBB").dateCreated(Timestamp.valueOf("2021-10-10 10:10:10")).createdBy("DDD").build();
+        when(refundsRepository.findByReferenceOrThrow(anyString())).thenReturn(Utility.refundListSupplierBasedOnCCDCaseNumber1.get());
+        when(statusHistoryRepository.findByRefundOrderByDateCreatedDesc(any())).thenReturn(List.of(knownCreator, unknownCreator));
+        when(idamService.getUserId(map)).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(List.of(
+            UserIdentityDataDto.userIdentityDataWith().id("CCC").fullName("Forename Surname").build())));
+        when(userDirectory.isNotFound("DDD")).thenReturn(true);
+
+        StatusHistoryResponseDto statusHistoryResponseDto = refundsService.getStatusHistory(map, "123");
+
+        assertEquals("Forename Surname", statusHistoryResponseDto.getStatusHistoryDtoList().get(0).getCreatedBy());
+        assertEquals("User not found", statusHistoryResponseDto.getStatusHistoryDtoList().get(1).getCreatedBy());
+        verify(idamService, times(0)).getUserIdentityDataForUids(any(), any());
+    }
+
     @Test
     void givenStatusHistoryIsFound_whenGetStatusHistory_thenStatusHistoryDtoListIsReceived() {
 
@@ -506,7 +615,7 @@ class RefundServiceImplTest {
         when(refundsRepository.findByReferenceOrThrow(anyString())).thenReturn(Utility.refundListSupplierBasedOnCCDCaseNumber1.get());
         when(statusHistoryRepository.findByRefundOrderByDateCreatedDesc(any())).thenReturn(statusHistories);
         when(idamService.getUserId(map)).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
-        when(idamService.getUserIdentityData(any(), anyString())).thenReturn(userIdentityDataDto);
+        when(idamService.getUserIdentityDataForUids(any(), any())).thenReturn(Map.of("CCC", userIdentityDataDto));
 
         StatusHistoryResponseDto statusHistoryResponseDto = refundsService.getStatusHistory(map, "123");
 
@@ -540,7 +649,8 @@ class RefundServiceImplTest {
         when(refundsRepository.findByReferenceOrThrow(anyString())).thenReturn(Utility.refundListSupplierBasedOnCCDCaseNumber1.get());
         when(statusHistoryRepository.findByRefundOrderByDateCreatedDesc(any())).thenReturn(statusHistories);
         when(idamService.getUserId(map)).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
-        when(idamService.getUserIdentityData(any(), anyString())).thenReturn(userIdentityDataDto);
+        when(idamService.getUserIdentityDataForUids(any(), any())).thenReturn(
+            Map.of("CCC", userIdentityDataDto, "FFF", userIdentityDataDto));
 
         StatusHistoryResponseDto statusHistoryResponseDto = refundsService.getStatusHistory(map, "123");
 
@@ -816,20 +926,20 @@ class RefundServiceImplTest {
                 Utility.refundListSupplierBasedOnCCDCaseNumber2.get()
             )));
         when(idamService.getUserId(any())).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
-        when(idamService.getUserIdentityData(
+        when(idamService.getUserIdentityDataForUids(
             any(),
-            anyString()
-        )).thenReturn(UserIdentityDataDto.userIdentityDataWith().id("userId2").fullName("mock2-Forename mock2-Surname").emailId(
-            "mock2fullname@gmail.com").build());
+            any()
+        )).thenReturn(Map.of("userId2", UserIdentityDataDto.userIdentityDataWith().id("userId2").fullName(
+            "mock2-Forename mock2-Surname").emailId("mock2fullname@gmail.com").build()));
         when(refundReasonRepository.findByCode(anyString())).thenReturn(Optional.of(RefundReason.refundReasonWith().code(
             "RR001").name("duplicate payment").build()));
         when(refundReasonRepository.findAll()).thenReturn(Collections.singletonList(RefundReason.refundReasonWith().code(
             "RR001").name("Amended court").build()));
         UserIdentityDataDto dto = UserIdentityDataDto.userIdentityDataWith().fullName("ccd-full-name").emailId(
             "j@mail.com").id(Utility.GET_REFUND_LIST_CCD_CASE_USER_ID1).build();
-        Map<String, List<UserIdentityDataDto>> userMap = new ConcurrentHashMap<>();
-        userMap.put("payments-refund", Collections.singletonList(dto));
-        when(contextStartListener.getUserMap()).thenReturn(userMap);
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(
+            Collections.singletonList(dto)
+        ));
         RefundListDtoResponse refundListDtoResponse = refundsService.getRefundList(
             null,
             map,
@@ -1145,8 +1255,7 @@ class RefundServiceImplTest {
             "payments-refund-AAA"
         )).sub("ZZ").build();
 
-        when(refundsRepository.findByPaymentReference(anyString())).thenReturn(Optional.of(Collections.singletonList(
-            Utility.refundListSupplierBasedOnCCDCaseNumber1.get())));
+        when(refundLedgerService.lockRefundedAmount("1")).thenReturn(BigDecimal.valueOf(100));
         when(idamService.getUserId(any())).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
         when(referenceUtil.getNext(anyString())).thenReturn("RF1234567890");
         when(refundReasonRepository.findByCodeOrThrow(anyString())).thenReturn(RefundReason.refundReasonWith().name(
@@ -1155,6 +1264,7 @@ class RefundServiceImplTest {
         RefundResponse refundResponse = refundsService.initiateRefund(refundRequest, map, idamUserIdResponse);
         assertNotNull(refundResponse);
         assertEquals("RF1234567890", refundResponse.getRefundReference());
+        verify(refundLedgerService).recordRefundedAmountChange("1", BigDecimal.ZERO, BigDecimal.valueOf(555));
     }
 
     @Test
@@ -1174,8 +1284,7 @@ class RefundServiceImplTest {
             "payments-refund-AAA"
         )).sub("ZZ").build();
 
-        when(refundsRepository.findByPaymentReference(anyString())).thenReturn(Optional.of(Collections.singletonList(
-            Utility.refundListSupplierForApprovedStatus.get())));
+        when(refundLedgerService.lockRefundedAmount("1")).thenReturn(BigDecimal.valueOf(100));
         when(idamService.getUserId(any())).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
         when(referenceUtil.getNext(anyString())).thenReturn("RF1234567890");
         when(refundReasonRepository.findByCodeOrThrow(anyString())).thenReturn(RefundReason.refundReasonWith().name(
@@ -1203,8 +1312,7 @@ class RefundServiceImplTest {
             "payments-refund-AAA"
         )).sub("ZZ").build();
 
-        when(refundsRepository.findByPaymentReference(anyString())).thenReturn(Optional.of(Collections.singletonList(
-            Utility.refundListSupplierForAcceptedStatus.get())));
+        when(refundLedgerService.lockRefundedAmount("1")).thenReturn(BigDecimal.valueOf(900));
         when(idamService.getUserId(any())).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
         when(referenceUtil.getNext(anyString())).thenReturn("RF1234567890");
 
@@ -1233,8 +1341,7 @@ class RefundServiceImplTest {
             "payments-refund-AAA"
         )).sub("ZZ").build();
 
-        when(refundsRepository.findByPaymentReference(anyString()))
-            .thenReturn(Optional.of(Utility.refundListSupplierForApprovedStatusAndClosed.get()));
+        when(refundLedgerService.lockRefundedAmount("1")).thenReturn(BigDecimal.valueOf(100));
 
         when(idamService.getUserId(any())).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
         when(referenceUtil.getNext(anyString())).thenReturn("RF1234567890");
@@ -1264,8 +1371,7 @@ class RefundServiceImplTest {
         )).sub("ZZ").build();
 
 
-        when(refundsRepository.findByPaymentReference(anyString()))
-            .thenReturn(Optional.of(Utility.refundListSupplierForAcceptedStatusAndClosed.get()));
+        when(refundLedgerService.lockRefundedAmount("1")).thenReturn(BigDecimal.valueOf(900));
 
         when(idamService.getUserId(any())).thenReturn(Utility.IDAM_USER_ID_RESPONSE);
         when(referenceUtil.getNext(anyString())).thenReturn("RF1234567890");
@@ -1302,7 +1408,7 @@ class RefundServiceImplTest {
         when(refundsRepository.findAll(any())).thenReturn(getRefundList());
         List<String> referenceList = new ArrayList<>();
         referenceList.add("RC-1111-2234-1077-1123");
-        when(paymentService.fetchPaymentResponse(referenceList)).thenReturn(getPayments());
+        when(paymentService.fetchPaymentResponse(eq(referenceList), any())).thenReturn(getPayments());
         when(refundReasonRepository.findByCodeOrThrow(anyString())).thenReturn(RefundReason.refundReasonWith().name(
             "Amended claim").build());
         Optional<String> startDate = Optional.ofNullable(LocalDate.now().minusDays(1).toString(DATE_FORMAT));
@@ -1313,6 +1419,28 @@ class RefundServiceImplTest {
 
     }
 
+    @Test
+    void searchSubtractsAmountsRefundedOutsideTheWindowFromAvailableFunds() {
+        ReflectionTestUtils.setField(refundsService, "numberOfDays", numberOfDays);
+        when(refundsRepository.findAll(any())).thenReturn(getRefundList());
+        when(paymentService.fetchPaymentResponse(anyList(), any())).thenReturn(getPayments());
+        when(refundReasonRepository.findByCodeOrThrow(anyString())).thenReturn(RefundReason.refundReasonWith().name(
+            "Amended claim").build());
+        Tuple refundedOutsideWindow = mock(Tuple.class);
+        when(refundedOutsideWindow.get("paymentReference", String.class)).thenReturn("RC-1111-2234-1077-1123");
+        when(refundedOutsideWindow.get("amount", BigDecimal.class)).thenReturn(BigDecimal.valueOf(30));
+        when(refundsRepository.sumAmountByPaymentReferenceOutsideDateRange(anyList(), any(), any()))
+            .thenReturn(List.of(refundedOutsideWindow));
+        Optional<String> startDate = Optional.ofNullable(LocalDate.now().minusDays(1).toString(DATE_FORMAT));
+        Optional<String> endDate = Optional.ofNullable(LocalDate.now().toString(DATE_FORMAT));
+
+        List<RefundLiberata> refundLiberatas = refundsService.search(startDate, endDate, null);
+
+        assertEquals(0, BigDecimal.valueOf(-30).compareTo(refundLiberatas.get(0).getPayment().getAvailableFunds()));
+        verify(refundsRepository).sumAmountByPaymentReferenceOutsideDateRange(
+            eq(List.of("RC-1111-2234-1077-1123")), any(), any());
+    }
+
     @Test
     void testsearchByCriteriaWhenValidInputProvided() {
 
@@ -1341,12 +1469,6 @@ class RefundServiceImplTest {
         when(root.<String>get("dateUpdated")).thenReturn(stringPath);
         Specification<Refund> actual = refundsService.searchByCriteria(getRefundSearchCriteria());
         Predicate actualPredicate = actual.toPredicate(root, query, builder);
-        when(builder.function(
-            "date_trunc",
-            Date.class,
-            builder.literal("seconds"),
-            root.get("dateUpdated")
-        )).thenReturn(expression);
         Predicate predicate = refundsService.getPredicate(root, builder, getRefundSearchCriteria(), query);
 
         assertEquals(predicate, actualPredicate);
@@ -1372,16 +1494,10 @@ class RefundServiceImplTest {
     void testGetRefundResponseDtoList() {
         when(refundReasonRepository.findAll()).thenReturn(Arrays.asList(RefundReason.refundReasonWith().code("RR001").name(
             "Amended court").build()));
-        when(contextStartListener.getUserMap()).thenReturn(null);
-        List<UserIdentityDataDto> userIdentityDataDtoList = Arrays.asList(UserIdentityDataDto.userIdentityDataWith().fullName(
-            "ccd-full-name").emailId("j@mail.com").id("1f2b7025-0f91-4737-92c6-b7a9baef14c6").build());
-        when(idamService.getUsersForRoles(any(), any())).thenReturn(userIdentityDataDtoList);
-        UserIdentityDataDto userIdentityDataDto = new UserIdentityDataDto();
-        userIdentityDataDto.setFullName("Forename Surname");
-        when(idamService.getUserIdentityData(any(), anyString())).thenReturn(userIdentityDataDto);
-        IdamTokenResponse idamTokenResponse = IdamTokenResponse.idamFullNameRetrivalResponseWith().accessToken(
-            "qwerrtyuiop").build();
-        when(idamService.getSecurityTokens()).thenReturn(idamTokenResponse);
+        UserIdentityDataDto userIdentityDataDto = UserIdentityDataDto.userIdentityDataWith().fullName(
+            "ccd-full-name").emailId("j@mail.com").id("1f2b7025-0f91-4737-92c6-b7a9baef14c6").build();
+        when(idamService.getUserIdentityDataForUids(any(), any())).thenReturn(
+            Map.of("1f2b7025-0f91-4737-92c6-b7a9baef14c6", userIdentityDataDto));
         MultiValueMap<String, String> headers = null;
         List<Refund> refundList = List.of(refundListSupplierBasedOnCCDCaseNumber1.get());
         List<String> roles = Arrays.asList("payments-refund-approver", "payments-refund");
@@ -1389,6 +1505,24 @@ class RefundServiceImplTest {
         Assertions.assertNotNull(refundDtos);
         Assertions.assertEquals(1, refundDtos.size());
         Assertions.assertEquals("RF-1111-2234-1077-1123", refundDtos.get(0).getRefundReference());
+        verify(userDirectory).putAll(List.of(userIdentityDataDto));
+    }
+
+    @Test
+    void testGetRefundResponseDtoListUsesUserDirectoryWithoutCallingIdam() {
+        when(refundReasonRepository.findAll()).thenReturn(Arrays.asList(RefundReason.refundReasonWith().code("RR001").name(
+            "Amended court").build()));
+        when(userDirectory.getAllPresent(any())).thenReturn(directoryOf(List.of(
+            UserIdentityDataDto.userIdentityDataWith().fullName("ccd-full-name").emailId("j@mail.com")
+                .id("1f2b7025-0f91-4737-92c6-b7a9baef14c6").build())));
+        List<Refund> refundList = List.of(refundListSupplierBasedOnCCDCaseNumber1.get());
+        List<String> roles = Arrays.asList("payments-refund-approver", "payments-refund");
+
+        List<RefundDto> refundDtos = refundsService.getRefundResponseDtoList(map, refundList, roles);
+
+        Assertions.assertEquals(1, refundDtos.size());
+        Assertions.assertEquals("ccd-full-name", refundDtos.get(0).getUserFullName());
+        verify(idamService, times(0)).getUserIdentityDataForUids(any(), any());
     }
 
     @Test
@@ -1438,7 +1572,8 @@ class RefundServiceImplTest {
         userIdentityDataDto.setId("1f2b7025-0f91-4737-92c6-b7a9baef14c6");
         userIdentityDataDto.setFullName("full-name");
         userIdentityDataDto.setEmailId("j@mail.com");
-        when(idamService.getUserIdentityData(any(), anyString())).thenReturn(userIdentityDataDto);
+        when(idamService.getUserIdentityDataForUids(any(), any())).thenReturn(
+            Map.of(Utility.GET_REFUND_LIST_CCD_CASE_USER_ID1, userIdentityDataDto));
         when(refundReasonRepository.findByCode(anyString())).thenReturn(Optional.of(RefundReason.refundReasonWith().code(
             "RR001").name("duplicate payment").build()));
 
@@ -1539,87 +1674,4 @@ class RefundServiceImplTest {
         assertNotNull(response);
         verify(refundsRepository, atLeastOnce()).save(any(Refund.class));
     }
-
-    @Test
-    void refundsReport_shouldReturnReportDtos_whenDatesAreValid() {
-        Date startDate = new Date(System.currentTimeMillis() - 100000);
-        Date endDate = new Date();
-
-        Tuple tuple = mock(Tuple.class);
-        when(tuple.get("date_created", Date.class)).thenReturn(startDate);
-        when(tuple.get("date_updated", Date.class)).thenReturn(endDate);
-        when(tuple.get("amount", BigDecimal.class)).thenReturn(BigDecimal.valueOf(100));
-        when(tuple.get("description", String.class)).thenReturn("RR001");
-        when(tuple.get("refund_status", String.class)).thenReturn("Approved");
-        when(tuple.get("reference", String.class)).thenReturn("REF123");
-        when(tuple.get("payment_reference", String.class)).thenReturn("PAY123");
-        when(tuple.get("ccd_case_number", String.class)).thenReturn("CCD123");
-        when(tuple.get("service_type", String.class)).thenReturn("Probate");
-        when(tuple.get("notes", String.class)).thenReturn("Test notes");
-
-        when(refundsRepository.findAllRefundsByDateCreatedBetween(startDate, endDate))
-            .thenReturn(Arrays.asList(tuple));
-
-        List<RefundsReportDto> result = refundsService.refundsReport(startDate, endDate, new LinkedMultiValueMap<>());
-
-        assertEquals(1, result.size());
-        RefundsReportDto dto = result.get(0);
-        assertEquals(startDate, dto.getRefundDateCreated());
-        assertEquals(endDate, dto.getRefundDateUpdated());
-        assertEquals(BigDecimal.valueOf(100), dto.getAmount());
-        assertEquals("Approved", dto.getRefundStatus());
-        assertEquals("REF123", dto.getRefundReference());
-        assertEquals("PAY123", dto.getPaymentReference());
-        assertEquals("CCD123", dto.getCcdCaseNumber());
-        assertEquals("Probate", dto.getServiceType());
-        assertEquals("Test notes", dto.getNotes());
-    }
-
-    @Test
-    void refundsReport_shouldThrowException_whenStartDateAfterEndDate() {
-        Date startDate = new Date(System.currentTimeMillis() + 100000);
-        Date endDate = new Date();
-
-        assertThrows(
-            RefundReportException.class, () ->
-            refundsService.refundsReport(startDate, endDate, new LinkedMultiValueMap<>())
-        );
-    }
-
-    @Test
-    void refundsReport_shouldReturnEmptyList_whenNoTuplesReturned() {
-        Date startDate = new Date(System.currentTimeMillis() - 100000);
-        Date endDate = new Date();
-
-        when(refundsRepository.findAllRefundsByDateCreatedBetween(startDate, endDate))
-            .thenReturn(Arrays.asList());
-
-        List<RefundsReportDto> result = refundsService.refundsReport(startDate, endDate, new LinkedMultiValueMap<>());
-
-        assertTrue(result.isEmpty());
-    }
-
-    @Test
-    void refundsReport_shouldReturnEmptyList_whenStartDateEqualsEndDate() {
-        Date date = new Date();
-        when(refundsRepository.findAllRefundsByDateCreatedBetween(date, date)).thenReturn(List.of());
-        List<?> result = refundsService.refundsReport(date, date, new LinkedMultiValueMap<>());
-        assertTrue(result.isEmpty());
-    }
-
-    @Test
-    void refundsReport_shouldThrowException_whenStartDateIsNull() {
-        Date endDate = new Date();
-        assertThrows(NullPointerException.class, () ->
-            refundsService.refundsReport(null, endDate, new LinkedMultiValueMap<>())
-        );
-    }
-
-    @Test
-    void refundsReport_shouldThrowException_whenEndDateIsNull() {
-        Date startDate = new Date();
-        assertThrows(NullPointerException.class, () ->
-            refundsService.refundsReport(startDate, null, new LinkedMultiValueMap<>())
-        );
-    }
 }
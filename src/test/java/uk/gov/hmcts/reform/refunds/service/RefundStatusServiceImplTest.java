@@ -8,35 +8,32 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.mockito.Spy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import uk.gov.hmcts.reform.refunds.dtos.requests.RefundStatusUpdateRequest;
-import uk.gov.hmcts.reform.refunds.dtos.responses.ContactDetailsDto;
-import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
-import uk.gov.hmcts.reform.refunds.dtos.responses.Notification;
-import uk.gov.hmcts.reform.refunds.model.ContactDetails;
+import uk.gov.hmcts.reform.refunds.model.NotificationOutbox;
 import uk.gov.hmcts.reform.refunds.model.Refund;
 import uk.gov.hmcts.reform.refunds.model.RefundStatus;
 import uk.gov.hmcts.reform.refunds.model.StatusHistory;
+import uk.gov.hmcts.reform.refunds.repository.NotificationOutboxRepository;
 import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
-import uk.gov.hmcts.reform.refunds.services.IdamService;
-import uk.gov.hmcts.reform.refunds.services.NotificationService;
+import uk.gov.hmcts.reform.refunds.services.RefundLedgerService;
 import uk.gov.hmcts.reform.refunds.services.RefundStatusServiceImpl;
 import uk.gov.hmcts.reform.refunds.utils.RefundsUtil;
 import uk.gov.hmcts.reform.refunds.utils.StatusHistoryUtil;
 
-import java.lang.reflect.Field;
+import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -48,34 +45,19 @@ public class RefundStatusServiceImplTest {
     private StatusHistoryUtil statusHistoryUtil;
 
     @Mock
-    private NotificationService notificationService;
+    private NotificationOutboxRepository notificationOutboxRepository;
 
     @Mock
-    private IdamService idamService;
-
-    @Spy
-    private RefundsUtil refundsUtil;
+    private RefundLedgerService refundLedgerService;
 
     @InjectMocks
     private RefundStatusServiceImpl refundStatusService;
 
     private AutoCloseable mocks;
 
-    private static final String TEST_POSTAL_CODE = "AB12 3CD";
-    private static final String TEST_CITY = "London";
-    private static final String TEST_COUNTRY = "UK";
-    private static final String TEST_COUNTY = "Greater London";
-    private static final String TEST_ADDRESS_LINE = "123 Test Street";
-    private static final String TEST_EMAIL = "test@example.com";
-    private static final String TEST_NOTIFICATION_TYPE = "EMAIL";
-
-    private ContactDetailsDto contactDetailsDto;
-    private Notification notification;
-
     private static List<StatusHistory> statusHistories;
     private static List<StatusHistory> reissueHistories;
     private static Refund rejectedRefund;
-    private static ContactDetails contactDetails;
 
     @BeforeAll
     static void initAll() {
@@ -92,49 +74,14 @@ public class RefundStatusServiceImplTest {
         reissuedHistory.setStatus(RefundStatus.REISSUED.getName());
         reissuedHistory.setNotes("Cloned from RF-ORIGINAL-REF-0001");
         reissueHistories = Collections.singletonList(reissuedHistory);
-        contactDetails = ContactDetails.contactDetailsWith()
-            .notificationType(TEST_NOTIFICATION_TYPE)
-            .postalCode(TEST_POSTAL_CODE)
-            .city(TEST_CITY)
-            .country(TEST_COUNTRY)
-            .county(TEST_COUNTY)
-            .addressLine(TEST_ADDRESS_LINE)
-            .email(TEST_EMAIL)
-            .build();
     }
 
     @BeforeEach
-    void setUp() throws Exception {
+    void setUp() {
         mocks = MockitoAnnotations.openMocks(this);
-        setField(refundStatusService, "liberataUsername", "liberata-user");
-        setField(refundStatusService, "liberataPassword", "liberata-pass");
-        // Set arbitrary template IDs for testing
-        setField(refundsUtil, "chequePoCashLetterTemplateId", "CHEQUE_PO_CASH_LETTER_ID");
-        setField(refundsUtil, "chequePoCashEmailTemplateId", "CHEQUE_PO_CASH_EMAIL_ID");
-        setField(refundsUtil, "cardPbaLetterTemplateId", "CARD_PBA_LETTER_ID");
-        setField(refundsUtil, "cardPbaEmailTemplateId", "CARD_PBA_EMAIL_ID");
-        setField(refundsUtil, "refundWhenContactedEmailTemplateId", "REFUND_WHEN_CONTACTED_EMAIL_ID");
-        setField(refundsUtil, "refundWhenContactedLetterTemplateId", "REFUND_WHEN_CONTACTED_LETTER_ID");
-        contactDetailsDto = mock(ContactDetailsDto.class);
-        when(contactDetailsDto.getPostalCode()).thenReturn(TEST_POSTAL_CODE);
-        when(contactDetailsDto.getCity()).thenReturn(TEST_CITY);
-        when(contactDetailsDto.getCountry()).thenReturn(TEST_COUNTRY);
-        when(contactDetailsDto.getCounty()).thenReturn(TEST_COUNTY);
-        when(contactDetailsDto.getAddressLine()).thenReturn(TEST_ADDRESS_LINE);
-        when(contactDetailsDto.getEmail()).thenReturn(TEST_EMAIL);
-        notification = mock(Notification.class);
-        when(notification.getContactDetails()).thenReturn(contactDetailsDto);
-        when(notification.getNotificationType()).thenReturn(TEST_NOTIFICATION_TYPE);
-    }
-
-    private void setField(Object target, String fieldName, String value) throws Exception {
-        Field field = target.getClass().getDeclaredField(fieldName);
-        field.setAccessible(true);
-        field.set(target, value);
-    }
-
-    private void stubNotificationService() {
-        when(notificationService.getNotificationDetails(any(), anyString())).thenReturn(notification);
+        // the refund read under the ledger lock is whatever the repository is stubbed to return
+        when(refundLedgerService.lockRefund(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(refundsRepository.findByReferenceOrThrow(invocation.getArgument(0))));
     }
 
     @AfterEach
@@ -157,9 +104,6 @@ public class RefundStatusServiceImplTest {
         request.setStatus(uk.gov.hmcts.reform.refunds.dtos.requests.RefundStatus.ACCEPTED);
         request.setReason("Accepted");
         final MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
-        when(idamService.getSecurityTokens(anyString(), anyString())).thenReturn(getTokenResponse());
-        stubNotificationService();
-        doNothing().when(notificationService).updateNotification(any(), any(), any(), anyString());
         ResponseEntity<?> response = refundStatusService.updateRefundStatus("RF-1234-5678-9012-3456", request, headers);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
         assertEquals("Refund status updated successfully", response.getBody());
@@ -167,10 +111,11 @@ public class RefundStatusServiceImplTest {
         assertEquals(RefundStatus.ACCEPTED, refund.getRefundStatus());
         assertEquals(1, refund.getStatusHistories().size());
         assertEquals(RefundStatus.ACCEPTED.getName(), refund.getStatusHistories().get(0).getStatus());
-        ArgumentCaptor<String> templateIdCaptor = ArgumentCaptor.forClass(String.class);
-        verify(notificationService).updateNotification(any(), any(), any(), templateIdCaptor.capture());
-        String capturedTemplateId = templateIdCaptor.getValue();
-        assertEquals("REFUND_WHEN_CONTACTED_EMAIL_ID", capturedTemplateId);
+        NotificationOutbox outbox = captureOutbox();
+        assertEquals("RF-1234-5678-9012-3456", outbox.getRefundReference());
+        assertEquals("RF-1234-5678-9012-3456", outbox.getOriginalRefundReference());
+        assertEquals(RefundsUtil.REFUND_WHEN_CONTACTED_REJECT_REASON, outbox.getReason());
+        assertEquals(NotificationOutbox.PENDING, outbox.getStatus());
     }
 
     @Test
@@ -191,18 +136,14 @@ public class RefundStatusServiceImplTest {
         RefundStatusUpdateRequest request = new RefundStatusUpdateRequest();
         request.setStatus(uk.gov.hmcts.reform.refunds.dtos.requests.RefundStatus.ACCEPTED);
         request.setReason(null);
-        when(idamService.getSecurityTokens(anyString(), anyString())).thenReturn(getTokenResponse());
-        stubNotificationService();
-        refund.setContactDetails(contactDetails);
-        doNothing().when(notificationService).updateNotification(any(), any(), any(), anyString());
         MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
         ResponseEntity<?> response = refundStatusService.updateRefundStatus("RF-ORIGINAL-REF-0002", request, headers);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
         assertEquals("Refund status updated successfully", response.getBody());
         assertEquals(RefundsUtil.REFUND_WHEN_CONTACTED, refund.getRefundInstructionType());
-        ArgumentCaptor<String> templateIdCaptor = ArgumentCaptor.forClass(String.class);
-        verify(notificationService).updateNotification(any(), any(), any(), templateIdCaptor.capture());
-        assertEquals("REFUND_WHEN_CONTACTED_EMAIL_ID", templateIdCaptor.getValue());
+        NotificationOutbox outbox = captureOutbox();
+        assertEquals("RF-ORIGINAL-REF-0002", outbox.getOriginalRefundReference());
+        assertEquals(RefundsUtil.REFUND_WHEN_CONTACTED_REJECT_REASON, outbox.getReason());
     }
 
     @Test
@@ -219,17 +160,13 @@ public class RefundStatusServiceImplTest {
         request.setStatus(uk.gov.hmcts.reform.refunds.dtos.requests.RefundStatus.ACCEPTED);
         request.setReason(null);
         final MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
-        when(idamService.getSecurityTokens(anyString(), anyString())).thenReturn(getTokenResponse());
-        stubNotificationService();
-        refund.setContactDetails(contactDetails);
-        doNothing().when(notificationService).updateNotification(any(), any(), any(), anyString());
         ResponseEntity<?> response = refundStatusService.updateRefundStatus("RF-ORIGINAL-REF-0003", request, headers);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
         assertEquals("Refund status updated successfully", response.getBody());
         assertEquals(RefundsUtil.REFUND_WHEN_CONTACTED, refund.getRefundInstructionType());
-        ArgumentCaptor<String> templateIdCaptor = ArgumentCaptor.forClass(String.class);
-        verify(notificationService).updateNotification(any(), any(), any(), templateIdCaptor.capture());
-        assertEquals("CHEQUE_PO_CASH_EMAIL_ID", templateIdCaptor.getValue());
+        NotificationOutbox outbox = captureOutbox();
+        assertEquals("RF-ORIGINAL-REF-0003", outbox.getRefundReference());
+        assertNull(outbox.getReason());
     }
 
     @Test
@@ -242,17 +179,17 @@ public class RefundStatusServiceImplTest {
         request.setStatus(uk.gov.hmcts.reform.refunds.dtos.requests.RefundStatus.EXPIRED);
         request.setReason("Expired");
         final MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
-        doNothing().when(notificationService).updateNotification(any(), any(), any(), anyString());
         ResponseEntity<?> response = refundStatusService.updateRefundStatus("RF-EXPIRED-REF-0001", request, headers);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
         assertEquals("Refund status updated successfully", response.getBody());
         assertEquals(RefundStatus.EXPIRED, refund.getRefundStatus());
+        verify(notificationOutboxRepository, never()).save(any());
     }
 
     @Test
-    void testAcceptedStatusWhenNotificationMissingStillReturnsNoContent() {
+    void testAcceptedStatusQueuesNotificationInsteadOfCallingNotify() {
         Refund refund = new Refund();
-        refund.setReference("RF-NOTIFICATION-MISSING-0001");
+        refund.setReference("RF-NOTIFICATION-QUEUED-0001");
         when(refundsRepository.findByReferenceOrThrow(anyString())).thenReturn(refund);
         when(statusHistoryUtil.isAClonedRefund(refund)).thenReturn(false);
         when(statusHistoryUtil.getOriginalRefundReference(refund)).thenReturn(refund.getReference());
@@ -262,10 +199,6 @@ public class RefundStatusServiceImplTest {
         request.setStatus(uk.gov.hmcts.reform.refunds.dtos.requests.RefundStatus.ACCEPTED);
         request.setReason("Accepted");
 
-        when(idamService.getSecurityTokens(anyString(), anyString())).thenReturn(getTokenResponse());
-        when(notificationService.getNotificationDetails(any(), anyString())).thenReturn(null);
-        doNothing().when(notificationService).updateNotification(any(), any(), any(), anyString());
-
         ResponseEntity<?> response = refundStatusService.updateRefundStatus(
             refund.getReference(),
             request,
@@ -275,6 +208,8 @@ public class RefundStatusServiceImplTest {
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
         assertEquals("Refund status updated successfully", response.getBody());
         assertEquals(RefundStatus.ACCEPTED, refund.getRefundStatus());
+        assertEquals("RF-NOTIFICATION-QUEUED-0001", captureOutbox().getRefundReference());
+        assertNull(refund.getNotificationSentFlag());
     }
 
     @Test
@@ -290,10 +225,6 @@ public class RefundStatusServiceImplTest {
         request.setStatus(uk.gov.hmcts.reform.refunds.dtos.requests.RefundStatus.ACCEPTED);
         request.setReason("Accepted");
 
-        when(idamService.getSecurityTokens(anyString(), anyString())).thenReturn(getTokenResponse());
-        stubNotificationService();
-        doNothing().when(notificationService).updateNotification(any(), any(), any(), anyString());
-
         ResponseEntity<?> response = refundStatusService.updateRefundStatus(
             refund.getReference(),
             request,
@@ -351,6 +282,25 @@ public class RefundStatusServiceImplTest {
         assertEquals("Middle office provider", refund.getUpdatedBy());
     }
 
+    @Test
+    void testRejectedRefundReleasesAmountFromLedger() {
+        Refund refund = new Refund();
+        refund.setReference("RF-REJECTED-LEDGER-0001");
+        refund.setPaymentReference("RC-1111-2222-3333-4444");
+        refund.setAmount(BigDecimal.valueOf(100));
+        refund.setRefundStatus(RefundStatus.APPROVED);
+        when(refundsRepository.findByReferenceOrThrow(anyString())).thenReturn(refund);
+
+        RefundStatusUpdateRequest request = new RefundStatusUpdateRequest();
+        request.setStatus(uk.gov.hmcts.reform.refunds.dtos.requests.RefundStatus.REJECTED);
+        request.setReason("Some other rejection reason");
+
+        refundStatusService.updateRefundStatus(refund.getReference(), request, new LinkedMultiValueMap<>());
+
+        verify(refundLedgerService).lockRefund("RF-REJECTED-LEDGER-0001");
+        verify(refundLedgerService).recordRefundedAmountChange("RC-1111-2222-3333-4444", BigDecimal.valueOf(100), BigDecimal.ZERO);
+    }
+
     @Test
     void testRejectedRefundWithNullReasonStaysRejected() {
         Refund refund = new Refund();
@@ -394,11 +344,9 @@ public class RefundStatusServiceImplTest {
         assertEquals(null, result);
     }
 
-    private IdamTokenResponse getTokenResponse() {
-        IdamTokenResponse tokenResponse =
-            IdamTokenResponse.idamFullNameRetrivalResponseWith()
-                .accessToken("Bearer token")
-                .build();
-        return tokenResponse;
+    private NotificationOutbox captureOutbox() {
+        ArgumentCaptor<NotificationOutbox> outboxCaptor = ArgumentCaptor.forClass(NotificationOutbox.class);
+        verify(notificationOutboxRepository).save(outboxCaptor.capture());
+        return outboxCaptor.getValue();
     }
 }
@@ -0,0 +1,100 @@
+package uk.gov.hmcts.reform.refunds.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.hmcts.reform.refunds.mapper.RefundsReportMapper;
+import uk.gov.hmcts.reform.refunds.repository.RefundsRepository;
+import uk.gov.hmcts.reform.refunds.services.RefundsReportServiceImpl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RefundsReportServiceImplTest {
+
+    private static final Date START_DATE = new Date(0);
+
+    private static final Date END_DATE = new Date(1_000);
+
+    private final RefundsRepository refundsRepository = mock(RefundsRepository.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private RefundsReportServiceImpl refundsReportService;
+
+    @BeforeEach
+    void setUp() {
+        refundsReportService = new RefundsReportServiceImpl();
+        ReflectionTestUtils.setField(refundsReportService, "refundsRepository", refundsRepository);
+        ReflectionTestUtils.setField(refundsReportService, "refundsReportMapper", new RefundsReportMapper());
+        ReflectionTestUtils.setField(refundsReportService, "objectMapper", objectMapper);
+    }
+
+    @Test
+    void reportIsWrittenAsJson() throws IOException {
+        when(refundsRepository.streamAllRefundsByDateCreatedBetween(START_DATE, END_DATE)).thenReturn(Stream.of(reportRow("Test notes")));
+
+        String report = write(MediaType.APPLICATION_JSON);
+
+        JsonNode rows = objectMapper.readTree(report).get("refunds_report_list");
+        assertEquals(1, rows.size());
+        assertEquals("REF123", rows.get(0).get("RF_reference").asText());
+        assertEquals("PAY123", rows.get(0).get("payment_reference").asText());
+        assertEquals("Approved", rows.get(0).get("refund_status").asText());
+    }
+
+    @Test
+    void reportIsWrittenAsCsvWithQuotedValues() throws IOException {
+        when(refundsRepository.streamAllRefundsByDateCreatedBetween(START_DATE, END_DATE))
+            .thenReturn(Stream.of(reportRow("Amended, \"court\"")));
+
+        String[] lines = write(MediaType.parseMediaType("text/csv")).split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals("date_created,date_updated,amount,RF_reference,payment_reference,"
+                         + "ccd_case_number,service_type,refund_status,refund_status_reason", lines[0]);
+        assertTrue(lines[1].endsWith(",100,REF123,PAY123,CCD123,Probate,Approved,\"Amended, \"\"court\"\"\""));
+    }
+
+    @Test
+    void emptyReportHasNoRows() throws IOException {
+        when(refundsRepository.streamAllRefundsByDateCreatedBetween(START_DATE, END_DATE)).thenReturn(Stream.empty());
+
+        String report = write(MediaType.APPLICATION_JSON);
+
+        assertEquals(0, objectMapper.readTree(report).get("refunds_report_list").size());
+    }
+
+    private String write(MediaType mediaType) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        refundsReportService.writeRefundsReport(START_DATE, END_DATE, mediaType, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Tuple reportRow(String notes) {
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.get("date_created", Date.class)).thenReturn(START_DATE);
+        when(tuple.get("date_updated", Date.class)).thenReturn(END_DATE);
+        when(tuple.get("amount", BigDecimal.class)).thenReturn(BigDecimal.valueOf(100));
+        when(tuple.get("reference", String.class)).thenReturn("REF123");
+        when(tuple.get("payment_reference", String.class)).thenReturn("PAY123");
+        when(tuple.get("ccd_case_number", String.class)).thenReturn("CCD123");
+        when(tuple.get("service_type", String.class)).thenReturn("Probate");
+        when(tuple.get("refund_status", String.class)).thenReturn("Approved");
+        when(tuple.get("notes", String.class)).thenReturn(notes);
+        return tuple;
+    }
+}
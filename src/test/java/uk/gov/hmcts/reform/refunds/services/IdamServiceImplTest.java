@@ -1,31 +1,40 @@
 package uk.gov.hmcts.reform.refunds.services;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import uk.gov.hmcts.reform.idam.client.IdamClient;
+import uk.gov.hmcts.reform.idam.client.models.UserInfo;
+import uk.gov.hmcts.reform.refunds.config.security.utils.RequestUserContext;
 import uk.gov.hmcts.reform.refunds.dtos.responses.IdamTokenResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.IdamUserIdResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.IdamUserInfoResponse;
 import uk.gov.hmcts.reform.refunds.dtos.responses.UserIdentityDataDto;
 import uk.gov.hmcts.reform.refunds.exceptions.GatewayTimeoutException;
 import uk.gov.hmcts.reform.refunds.exceptions.UserNotFoundException;
+import uk.gov.hmcts.reform.refunds.utils.BoundedFanOut;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -35,6 +44,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -50,10 +60,18 @@ public class IdamServiceImplTest {
     @Mock
     private IdamClient idamClient;
 
+    @Spy
+    private RequestUserContext requestUserContext = new RequestUserContext();
+
+    @Spy
+    private BoundedFanOut boundedFanOut = new BoundedFanOut(runnable -> runnable);
+
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(idamService, "idamBaseUrl", "http://idam.local");
         ReflectionTestUtils.setField(idamService, "userInfoSize", "25");
+        ReflectionTestUtils.setField(idamService, "bulkLookupChunkSize", 2);
+        ReflectionTestUtils.setField(idamService, "bulkLookupMaxConcurrency", 2);
         ReflectionTestUtils.setField(idamService, "serviceClientId", "client-id");
         ReflectionTestUtils.setField(idamService, "serviceClientSecret", "client-secret");
         ReflectionTestUtils.setField(idamService, "serviceGrantType", "password");
@@ -63,6 +81,42 @@ public class IdamServiceImplTest {
         ReflectionTestUtils.setField(idamService, "redirectUri", "http://localhost/redirect");
     }
 
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void getUserIdReadsUserResolvedForRequestWithoutCallingIdam() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        requestUserContext.publish("abc123", UserInfo.builder()
+            .uid("uid-1")
+            .sub("user@hmcts.net")
+            .roles(List.of("payments-refund"))
+            .build());
+        MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+        headers.add("authorization", "Bearer abc123");
+
+        IdamUserIdResponse actual = idamService.getUserId(headers);
+
+        assertEquals("uid-1", actual.getUid());
+        assertEquals(List.of("payments-refund"), actual.getRoles());
+        verify(restTemplateIdam, never()).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                                                   eq(IdamUserIdResponse.class));
+    }
+
+    @Test
+    void getUserIdCallsIdamWhenRequestUserHasDifferentToken() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        requestUserContext.publish("other-token", UserInfo.builder().uid("uid-2").build());
+        MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+        headers.add("authorization", "Bearer abc123");
+        when(restTemplateIdam.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(IdamUserIdResponse.class)))
+            .thenReturn(ResponseEntity.ok(IdamUserIdResponse.idamUserIdResponseWith().uid("uid-1").build()));
+
+        assertEquals("uid-1", idamService.getUserId(headers).getUid());
+    }
+
     @Test
     void getUserIdReturnsBody() {
         MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
@@ -196,6 +250,59 @@ public class IdamServiceImplTest {
         assertThrows(UserNotFoundException.class, () -> idamService.getUserIdentityData(headers, "AA"));
     }
 
+    @Test
+    void getUserIdentityDataForUidsQueriesIdamInChunks() {
+        MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+        headers.add("authorization", "Bearer abc123");
+
+        IdamUserInfoResponse user1 = IdamUserInfoResponse.idamFullNameRetrivalResponseWith()
+            .id("AA").forename("A").surname("One").email("a@ex.com").roles(List.of("payments-refund")).build();
+        IdamUserInfoResponse user2 = IdamUserInfoResponse.idamFullNameRetrivalResponseWith()
+            .id("BB").forename("B").surname("Two").email("b@ex.com").roles(List.of("payments-refund-approver")).build();
+        when(restTemplateIdam.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(IdamUserInfoResponse[].class)))
+            .thenReturn(ResponseEntity.ok(new IdamUserInfoResponse[] {user1, user2}));
+
+        Map<String, UserIdentityDataDto> result = idamService.getUserIdentityDataForUids(
+            headers, List.of("AA", "BB", "CC", "AA"));
+
+        assertEquals(2, result.size());
+        assertEquals("A One", result.get("AA").getFullName());
+        assertEquals("B Two", result.get("BB").getFullName());
+
+        ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(restTemplateIdam, times(2)).exchange(urlCaptor.capture(), eq(HttpMethod.GET), any(HttpEntity.class),
+                                                    eq(IdamUserInfoResponse[].class));
+        assertTrue(urlCaptor.getAllValues().stream().anyMatch(url -> url.contains("id:(AA OR BB)")));
+        assertTrue(urlCaptor.getAllValues().stream().anyMatch(url -> url.contains("id:(CC)")));
+    }
+
+    @Test
+    void getUserIdentityDataForUidsResolvesSystemUsersWithoutCallingIdam() {
+        MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+        headers.add("authorization", "Bearer abc123");
+
+        Map<String, UserIdentityDataDto> result = idamService.getUserIdentityDataForUids(
+            headers, List.of("System user", "Middle office provider"));
+
+        assertEquals(2, result.size());
+        assertEquals("System user", result.get("System user").getFullName());
+        assertNull(result.get("Middle office provider").getId());
+        verify(restTemplateIdam, never()).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+                                                   eq(IdamUserInfoResponse[].class));
+    }
+
+    @Test
+    void getUserIdentityDataForUidsMapsServerErrorToGatewayTimeout() {
+        MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+        headers.add("authorization", "Bearer abc123");
+
+        when(restTemplateIdam.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(IdamUserInfoResponse[].class)))
+            .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThrows(GatewayTimeoutException.class,
+                     () -> idamService.getUserIdentityDataForUids(headers, List.of("AA", "BB", "CC")));
+    }
+
     @Test
     void getUsersForRolesReturnsMappedUsers() {
         MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
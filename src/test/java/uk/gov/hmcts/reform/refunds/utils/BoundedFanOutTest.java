@@ -0,0 +1,105 @@
+package uk.gov.hmcts.reform.refunds.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedFanOutTest {
+
+    private final BoundedFanOut boundedFanOut = new BoundedFanOut(runnable -> runnable);
+
+    @Test
+    void resultsAreReturnedInItemOrder() throws Exception {
+        List<Integer> results = boundedFanOut.map(List.of(3, 1, 2), 3, item -> {
+            sleep(item * 20L);
+            return item * 10;
+        });
+
+        assertEquals(List.of(30, 10, 20), results);
+    }
+
+    @Test
+    void failingTaskInterruptsSlowSiblingAndReturnsPromptly() {
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch slowInterrupted = new CountDownLatch(1);
+
+        ExecutionException exception = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(
+            ExecutionException.class,
+            () -> boundedFanOut.map(List.of("slow", "failing"), 2, item -> {
+                if ("slow".equals(item)) {
+                    slowStarted.countDown();
+                    try {
+                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    } catch (InterruptedException e) {
+                        slowInterrupted.countDown();
+                        Thread.currentThread().interrupt();
+                    }
+                    return item;
+                }
+                await(slowStarted);
+                throw new IllegalStateException("chunk failed");
+            })));
+
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(0, slowInterrupted.getCount());
+    }
+
+    @Test
+    void noMoreThanMaxConcurrencyTasksRunAtOnce() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        boundedFanOut.map(List.of(1, 2, 3, 4, 5, 6, 7, 8), 2, item -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            running.decrementAndGet();
+            return item;
+        });
+
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    void drainKeepsGoingWhenAnItemFails() {
+        List<List<Integer>> pages = new ArrayList<>(List.of(List.of(1, 2), List.of(3)));
+        AtomicInteger processed = new AtomicInteger();
+
+        int claimed = boundedFanOut.drain(() -> pages.isEmpty() ? List.of() : pages.remove(0), 2, item -> {
+            if (item == 1) {
+                throw new IllegalStateException("send failed");
+            }
+            processed.incrementAndGet();
+        });
+
+        assertEquals(3, claimed);
+        assertEquals(2, processed.get());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package uk.gov.hmcts.reform.refunds.utils;
+
+import org.apache.commons.validator.routines.checkdigit.LuhnCheckDigit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReferenceUtilTest {
+
+    private static final Pattern REFERENCE_FORMAT = Pattern.compile("^RF-(\\d{4}-){3}\\d{4}$");
+
+    private static final int THREADS = 8;
+
+    private static final int REFERENCES_PER_THREAD = 5_000;
+
+    @Test
+    void referencesFromTwoNodesSharingASequenceAreUniqueAndValid() throws Exception {
+        AtomicLong sequence = new AtomicLong(ReferenceUtil.BLOCK_SIZE);
+        List<ReferenceUtil> nodes = List.of(
+            new ReferenceUtil(() -> sequence.getAndAdd(ReferenceUtil.BLOCK_SIZE), 1),
+            new ReferenceUtil(() -> sequence.getAndAdd(ReferenceUtil.BLOCK_SIZE), 2));
+        Set<String> references = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                ReferenceUtil node = nodes.get(thread % nodes.size());
+                Callable<Void> task = () -> {
+                    start.await();
+                    for (int i = 0; i < REFERENCES_PER_THREAD; i++) {
+                        references.add(node.getNext("RF"));
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS * REFERENCES_PER_THREAD, references.size());
+        for (String reference : references) {
+            assertTrue(REFERENCE_FORMAT.matcher(reference).matches(), reference);
+            assertTrue(LuhnCheckDigit.LUHN_CHECK_DIGIT.isValid(reference.substring(3).replace("-", "")), reference);
+        }
+    }
+
+    @Test
+    void referenceCarriesSchemeDigitNodeAndSequence() throws Exception {
+        ReferenceUtil referenceUtil = new ReferenceUtil(() -> 123_456_789_000L, 42);
+
+        String first = referenceUtil.getNext("RF");
+        String second = referenceUtil.getNext("RF");
+
+        assertEquals("RF-9421-2345-6789-000", first.substring(0, 21));
+        assertEquals("RF-9421-2345-6789-001", second.substring(0, 21));
+    }
+
+    @Test
+    void nextBlockIsAllocatedOnlyWhenTheCurrentOneIsUsedUp() throws Exception {
+        AtomicLong allocations = new AtomicLong();
+        ReferenceUtil referenceUtil = new ReferenceUtil(
+            () -> allocations.getAndIncrement() * ReferenceUtil.BLOCK_SIZE, 0);
+
+        for (int i = 0; i <= ReferenceUtil.BLOCK_SIZE; i++) {
+            referenceUtil.getNext("RF");
+        }
+
+        assertEquals(2, allocations.get());
+    }
+
+    @Test
+    void exhaustedSequenceIsRejected() {
+        ReferenceUtil referenceUtil = new ReferenceUtil(() -> 1_000_000_000_000L, 0);
+
+        assertThrows(IllegalStateException.class, () -> referenceUtil.getNext("RF"));
+    }
+}
@@ -0,0 +1,57 @@
+package uk.gov.hmcts.reform.refunds.utils;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.refunds.exceptions.ActionNotAllowedException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefundServiceRoleUtilTest {
+
+    private final RefundServiceRoleUtil refundServiceRoleUtil = new RefundServiceRoleUtil();
+
+    @Test
+    void serviceNamesAreResolvedFromRefundAndApproverRoles() {
+        List<String> roles = List.of("payments", "payments-refund", "payments-refund-approver",
+                                     "payments-refund-Civil-Money-Claims", "payments-refund-approver-Probate",
+                                     "payments-refund-approver-Civil-Money-Claims", "caseworker-divorce");
+
+        assertThat(refundServiceRoleUtil.getServiceNameFromUserRoles(roles))
+            .containsExactlyInAnyOrder("civil money claims", "probate");
+    }
+
+    @Test
+    void rolesOnlyResemblingRefundRolesAreIgnored() {
+        List<String> roles = List.of("payments-refunder-cmc", "apyments-refund-divorce", "payments-fund-probate",
+                                     "payment-refund-family");
+
+        assertThat(refundServiceRoleUtil.getServiceNameFromUserRoles(roles)).isEmpty();
+    }
+
+    @Test
+    void refundIsAllowedForServiceNamedInRoles() {
+        List<String> roles = List.of("payments-refund", "payments-refund-Immigration-and-Asylum-Appeals");
+
+        assertTrue(refundServiceRoleUtil.validateRefundRoleWithServiceName(roles, "Immigration and Asylum Appeals"));
+    }
+
+    @Test
+    void refundIsNotAllowedForServiceOnlyPrefixingARole() {
+        List<String> roles = List.of("payments-refund", "payments-refund-cmc");
+
+        assertThrows(ActionNotAllowedException.class,
+            () -> refundServiceRoleUtil.validateRefundRoleWithServiceName(roles, "cm"));
+    }
+
+    @Test
+    void sameRoleSetIsResolvedOnce() {
+        RefundServiceRoles first = refundServiceRoleUtil.resolve(List.of("payments-refund-cmc", "payments-refund-probate"));
+        RefundServiceRoles second = refundServiceRoleUtil.resolve(List.of("payments-refund-probate", "payments-refund-cmc"));
+
+        assertSame(first, second);
+    }
+}